@@ -0,0 +1,70 @@
+package com.github.sttk.linebreak;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the scalar and the vector {@link AsciiScan}, which scan a
+ * corpus text in ranges of the line width like {@link LineIter}.
+ *
+ * The vector implementation is used only when this is run with the
+ * {@code vector} profile: {@code mvn -P jmh,vector ...}.
+ * Otherwise both are the scalar implementation.
+ * To compare {@link LineIterBenchmark} with and without the vector
+ * implementation, run it with and without
+ * {@code -jvmArgsAppend -Dcom.github.sttk.linebreak.vector=false}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AsciiScanBenchmark {
+
+  @Param({"ASCII", "ENGLISH", "LATIN1"})
+  Corpus corpus;
+
+  @Param({"80", "200"})
+  int width;
+
+  @Param({"scalar", "vector"})
+  String impl;
+
+  String text;
+  AsciiScan scan;
+  char[] work;
+
+  @Setup
+  public void setup() {
+    this.text = this.corpus.text();
+    byte[] latin1 = CodepointTable.latin1();
+    this.scan = this.impl.equals("scalar")
+      ? new AsciiScan(latin1) : AsciiScan.of(latin1);
+    this.work = new char[this.width];
+  }
+
+  @Benchmark
+  public int scan() {
+    final String text = this.text;
+    final int n = text.length();
+    int sum = 0;
+    for (int i = 0; i < n; ) {
+      long r = this.scan.scan(text, i, Math.min(n, i + this.width), this.work);
+      int end = AsciiScan.end(r);
+      sum += AsciiScan.lastSpace(r);
+      i = end + 1;
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,59 @@
+package com.github.sttk.linebreak;
+
+/**
+ * Texts used by the benchmarks.
+ */
+public enum Corpus {
+
+  ASCII(
+    "2024-07-29T12:34:56.789Z INFO [main] c.g.s.l.Server - Accepted request " +
+    "GET /api/v1/items?limit=100&offset=200 from 192.168.0.12 in 35ms; " +
+    "status=200, bytes=10240, user-agent=\"curl/8.4.0\". "),
+
+  ENGLISH(
+    "It was the best of times it was the worst of times it was the age of " +
+    "wisdom it was the age of foolishness it was the epoch of belief and it " +
+    "was the epoch of incredulity, it was the season of Light and the season " +
+    "of Darkness. "),
+
+  LATIN1(
+    "Le cœur a ses raisons que la raison ne connaît point. À côté du château, " +
+    "l'été dernier, nous avons mangé des crêpes. Über den Wolken muß die " +
+    "Freiheit wohl grenzenlos sein; España, señor, ¿qué tal? "),
+
+  CJK(
+    "吾輩は猫である。名前はまだ無い。どこで生れたかとんと見当がつかぬ。" +
+    "何でも薄暗いじめじめした所でニャーニャー泣いていた事だけは記憶している。" +
+    "我思故我在，天下興亡匹夫有責。한국어 문장도 섞여 있습니다. "),
+
+  EMOJI(
+    "😀 Good morning 🌅! Coffee ☕ and 🥐 then 🚀 launch 🎉🎉. " +
+    "Team 👩‍💻👨‍💻 shipped 🛳️ the fix 🔧✅ and 🇯🇵🇺🇸 flags 🏳️‍🌈. "),
+
+  MIXED(
+    "The quick brown fox (素早い茶色の狐) jumps over the lazy dog 🐕. " +
+    "Naïve café façade — «citation» — 日本語と English が混ざった文章です。" +
+    "See https://example.com/path?q=テスト for details 👍. ");
+
+  /** The number of chars of each benchmark text. */
+  static final int LENGTH = 16 * 1024;
+
+  private final String text;
+
+  Corpus(String sentence) {
+    var sb = new StringBuilder(LENGTH + sentence.length());
+    while (sb.length() < LENGTH) {
+      sb.append(sentence);
+    }
+    this.text = sb.toString();
+  }
+
+  /**
+   * Gets the benchmark text of this corpus.
+   *
+   * @return  The text which has about {@link #LENGTH} chars.
+   */
+  public String text() {
+    return this.text;
+  }
+}
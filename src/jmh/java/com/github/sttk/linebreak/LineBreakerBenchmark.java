@@ -0,0 +1,49 @@
+package com.github.sttk.linebreak;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of a {@link LineBreaker} shared by threads.
+ *
+ * Run this with {@code -t N} to see how it scales with the number of threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LineBreakerBenchmark {
+
+  @Param({"ASCII", "MIXED"})
+  Corpus corpus;
+
+  @Param({"80"})
+  int width;
+
+  String text;
+  LineBreaker breaker;
+
+  @Setup
+  public void setup() {
+    this.text = this.corpus.text();
+    this.breaker = new LineBreaker(this.width);
+  }
+
+  @Benchmark
+  public void forEachLine(Blackhole bh) {
+    this.breaker.forEachLine(this.text, bh::consume);
+  }
+}
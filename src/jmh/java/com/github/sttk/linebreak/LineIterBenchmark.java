@@ -0,0 +1,96 @@
+package com.github.sttk.linebreak;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of wrapping a whole corpus text with {@link LineIter}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LineIterBenchmark {
+
+  @Param({"ASCII", "ENGLISH", "LATIN1", "CJK", "EMOJI", "MIXED"})
+  Corpus corpus;
+
+  @Param({"20", "80", "200"})
+  int width;
+
+  String text;
+  String coloredText;
+  LineIter iter;
+  LineIter ansiIter;
+  Uax14LineIter uax14Iter;
+
+  @Setup
+  public void setup() {
+    this.text = this.corpus.text();
+    this.iter = new LineIter("", this.width);
+    this.uax14Iter = new Uax14LineIter("", this.width);
+
+    // every word is colored, as in the colored output of a CLI.
+    var sb = new StringBuilder();
+    int n = 0;
+    for (var word : this.text.split(" ")) {
+      sb.append("\u001b[").append(31 + n++ % 7).append('m').append(word)
+        .append("\u001b[0m ");
+    }
+    this.coloredText = sb.toString();
+    this.ansiIter = new LineIter("", this.width);
+    this.ansiIter.setAnsiEscapes(true);
+  }
+
+  /** Creates a new iterator for each text and gets all lines by next(). */
+  @Benchmark
+  public void next(Blackhole bh) {
+    var iter = new LineIter(this.text, this.width);
+    while (iter.hasNext()) {
+      bh.consume(iter.next());
+    }
+  }
+
+  /** Reuses an iterator by init() and gets all lines by next(). */
+  @Benchmark
+  public void initReuse(Blackhole bh) {
+    var iter = this.iter;
+    iter.init(this.text);
+    while (iter.hasNext()) {
+      bh.consume(iter.next());
+    }
+  }
+
+  /** Same as initReuse but with the optional UAX #14 engine. */
+  @Benchmark
+  public void uax14InitReuse(Blackhole bh) {
+    var iter = this.uax14Iter;
+    iter.init(this.text);
+    while (iter.hasNext()) {
+      bh.consume(iter.next());
+    }
+  }
+
+  /** Same as initReuse but for the colored text with ANSI escapes enabled. */
+  @Benchmark
+  public void ansiInitReuse(Blackhole bh) {
+    var iter = this.ansiIter;
+    iter.init(this.coloredText);
+    while (iter.hasNext()) {
+      bh.consume(iter.next());
+    }
+  }
+}
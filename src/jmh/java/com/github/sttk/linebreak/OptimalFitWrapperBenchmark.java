@@ -0,0 +1,65 @@
+package com.github.sttk.linebreak;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of wrapping one long paragraph with {@link OptimalFitWrapper},
+ * compared with the greedy wrapping of {@link LineIter}.
+ *
+ * The paragraph is the corpus text repeated {@code repeat} times, which is
+ * about 3,000 words for each repetition of the English corpus.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OptimalFitWrapperBenchmark {
+
+  @Param({"ENGLISH", "CJK"})
+  Corpus corpus;
+
+  @Param({"80"})
+  int width;
+
+  @Param({"1", "4"})
+  int repeat;
+
+  String text;
+  LineIter iter;
+
+  @Setup
+  public void setup() {
+    this.text = this.corpus.text().repeat(this.repeat);
+    this.iter = new LineIter("", this.width);
+  }
+
+  /** Fills each line as much as possible. */
+  @Benchmark
+  public void greedy(Blackhole bh) {
+    var iter = this.iter;
+    iter.init(this.text);
+    while (iter.hasNext()) {
+      bh.consume(iter.next());
+    }
+  }
+
+  /** Minimizes the raggedness of the whole paragraph. */
+  @Benchmark
+  public void optimalFit(Blackhole bh) {
+    bh.consume(OptimalFitWrapper.wrap(this.text, this.width));
+  }
+}
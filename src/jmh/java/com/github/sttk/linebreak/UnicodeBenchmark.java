@@ -0,0 +1,92 @@
+package com.github.sttk.linebreak;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the width functions of {@link Unicode}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UnicodeBenchmark {
+
+  @Param({"ASCII", "ENGLISH", "LATIN1", "CJK", "EMOJI", "MIXED"})
+  Corpus corpus;
+
+  String text;
+  int[] codepoints;
+  int[] widths;
+
+  /** The length of the cells measured by the cell benchmarks. */
+  static final int CELL = 12;
+
+  @Setup
+  public void setup() {
+    this.text = this.corpus.text();
+    this.codepoints = this.text.codePoints().toArray();
+    this.widths = new int[this.text.length() + 1];
+  }
+
+  @Benchmark
+  public int getTextWidth() {
+    return Unicode.getTextWidth(this.text);
+  }
+
+  @Benchmark
+  public int getCodepointWidth() {
+    int w = 0;
+    for (int cp : this.codepoints) {
+      w += Unicode.getCodepointWidth(cp);
+    }
+    return w;
+  }
+
+  /** Measures cells of the text by substring and getTextWidth. */
+  @Benchmark
+  public int cellsBySubstring() {
+    final String text = this.text;
+    int w = 0;
+    for (int i = 0; i + CELL <= text.length(); i += CELL) {
+      w += Unicode.getTextWidth(text.substring(i, i + CELL));
+    }
+    return w;
+  }
+
+  /** Measures cells of the text by the range API. */
+  @Benchmark
+  public int cellsByRange() {
+    final String text = this.text;
+    int w = 0;
+    for (int i = 0; i + CELL <= text.length(); i += CELL) {
+      w += Unicode.getTextWidth(text, i, i + CELL);
+    }
+    return w;
+  }
+
+  /** Measures cells of the text by the cumulative widths. */
+  @Benchmark
+  public int cellsByCumulativeWidths() {
+    final String text = this.text;
+    final int[] widths = this.widths;
+    Unicode.getCumulativeWidths(text, 0, text.length(), widths);
+    int w = 0;
+    for (int i = 0; i + CELL <= text.length(); i += CELL) {
+      w += widths[i + CELL] - widths[i];
+    }
+    return w;
+  }
+}
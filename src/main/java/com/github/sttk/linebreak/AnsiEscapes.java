@@ -0,0 +1,463 @@
+/*
+ * AnsiEscapes class.
+ * Copyright (C) 2024 Takayuki Sato. All Rights Reserved.
+ */
+package com.github.sttk.linebreak;
+
+import java.util.Arrays;
+
+/**
+ * {@code AnsiEscapes} recognizes the ANSI escape sequences in a text, holds
+ * them apart from the codepoints of a line, and tracks the graphic rendition
+ * and the hyperlink which they make active.
+ *
+ * The recognized sequences are CSI (ESC [ or U+009B, parameter and
+ * intermediate bytes, and a final byte), OSC (ESC ] or U+009D, and a string
+ * terminated by BEL or ST), and the other escapes (ESC, intermediate bytes and
+ * a final byte).
+ * A sequence interrupted by an unexpected codepoint ends just before it, and
+ * the codepoint is processed as an ordinary one.
+ *
+ * A sequence is held with the position in the line buffer before which it
+ * appears, so that it is output at that position without any width and is
+ * never split.
+ * The SGR (CSI ... m) attributes and the OSC 8 hyperlink which are active at
+ * the end of a line can be output again at the start of the next line.
+ */
+final class AnsiEscapes {
+
+  static final int ESC = 0x1b;
+  static final int BEL = 0x07;
+  static final int CSI = 0x9b;
+  static final int ST = 0x9c;
+  static final int OSC = 0x9d;
+
+  // The states of the recognition of a sequence.
+  private static final int NONE = 0;
+  private static final int ESCAPE = 1;       // after ESC.
+  private static final int INTERMEDIATE = 2; // after ESC and intermediates.
+  private static final int CSI_BODY = 3;
+  private static final int OSC_BODY = 4;
+  private static final int OSC_ESC = 5;      // after ESC in an OSC string.
+
+  // The results of step.
+  static final int NOT_ESCAPE = 0;
+  static final int START = 1;
+  static final int CONTINUE = 2;
+  static final int RESTART = 3; // continues a sequence started by the last ESC.
+
+  // The shared strings of the SGR codes.
+  private static final String[] CODES = new String[108];
+
+  static {
+    for (int i = 0; i < CODES.length; i++) {
+      CODES[i] = Integer.toString(i);
+    }
+  }
+
+  private int state = NONE;
+
+  // The held sequences, of which the i-th is chars[ends[i-1], ends[i]) and
+  // appears before the codepoint at positions[i] in the line buffer.
+  private char[] chars = new char[64];
+  private int length;
+  private int[] positions = new int[4];
+  private int[] ends = new int[4];
+  private int count;
+  private int appended;
+
+  // The active SGR attributes indexed by their codes 1 to 9, the colors and
+  // the OSC 8 sequence, as they are written in the text.
+  private final String[] attrs = new String[10];
+  private String foreground;
+  private String background;
+  private String underlineColor;
+  private String hyperlink;
+
+  void reset() {
+    this.state = NONE;
+    this.length = 0;
+    this.count = 0;
+    this.appended = 0;
+    Arrays.fill(this.attrs, null);
+    this.foreground = null;
+    this.background = null;
+    this.underlineColor = null;
+    this.hyperlink = null;
+  }
+
+  /**
+   * Returns true while a sequence is being recognized, during which the
+   * subsequent codepoints must be passed to {@link #accept} one by one.
+   */
+  boolean inSequence() {
+    return this.state != NONE;
+  }
+
+  /**
+   * Steps with the next codepoint, and returns {@link #START} if it starts a
+   * sequence, {@link #CONTINUE} if it continues the current sequence,
+   * {@link #RESTART} if it continues a sequence started by the ESC which was
+   * taken as the start of ST in an OSC string, or {@link #NOT_ESCAPE}
+   * otherwise.
+   */
+  int step(int codepoint) {
+    switch (this.state) {
+    case NONE:
+      switch (codepoint) {
+      case ESC: this.state = ESCAPE; return START;
+      case CSI: this.state = CSI_BODY; return START;
+      case OSC: this.state = OSC_BODY; return START;
+      default: return NOT_ESCAPE;
+      }
+    case ESCAPE:
+      if (codepoint == '[') {
+        this.state = CSI_BODY;
+        return CONTINUE;
+      }
+      if (codepoint == ']') {
+        this.state = OSC_BODY;
+        return CONTINUE;
+      }
+      return stepIntermediate(codepoint);
+    case INTERMEDIATE:
+      return stepIntermediate(codepoint);
+    case CSI_BODY:
+      if (0x20 <= codepoint && codepoint <= 0x3f) {
+        return CONTINUE;
+      }
+      if (0x40 <= codepoint && codepoint <= 0x7e) {
+        this.state = NONE;
+        return CONTINUE;
+      }
+      break;
+    case OSC_BODY:
+      if (codepoint == BEL || codepoint == ST) {
+        this.state = NONE;
+        return CONTINUE;
+      }
+      if (codepoint == ESC) {
+        this.state = OSC_ESC;
+        return CONTINUE;
+      }
+      if (codepoint >= 0x20 && codepoint != 0x7f) {
+        return CONTINUE;
+      }
+      break;
+    case OSC_ESC:
+      if (codepoint == '\\') {
+        this.state = NONE;
+        return CONTINUE;
+      }
+      // The ESC ends the OSC string and starts another sequence.
+      this.state = ESCAPE;
+      return (step(codepoint) == NOT_ESCAPE) ? NOT_ESCAPE : RESTART;
+    }
+
+    // The current sequence is interrupted.
+    this.state = NONE;
+    return step(codepoint);
+  }
+
+  // Steps with a codepoint after the ESC or the intermediate bytes of an
+  // escape sequence other than CSI and OSC.
+  private int stepIntermediate(int codepoint) {
+    if (0x20 <= codepoint && codepoint <= 0x2f) {
+      this.state = INTERMEDIATE;
+      return CONTINUE;
+    }
+    if (0x30 <= codepoint && codepoint <= 0x7e) {
+      this.state = NONE;
+      return CONTINUE;
+    }
+    // The current sequence is interrupted.
+    this.state = NONE;
+    return step(codepoint);
+  }
+
+  /**
+   * Holds the codepoint if it is a part of a sequence, with the position in
+   * the line buffer before which the sequence appears.
+   * This returns false if the codepoint is not a part of any sequence.
+   */
+  boolean accept(int codepoint, int position) {
+    switch (step(codepoint)) {
+    case START:
+      addSequence(position);
+      break;
+    case CONTINUE:
+      break;
+    case RESTART:
+      this.ends[this.count - 1]--;
+      addSequence(position);
+      break;
+    default:
+      return false;
+    }
+    ensureCapacity(this.length + 2);
+    this.length += Character.toChars(codepoint, this.chars, this.length);
+    this.ends[this.count - 1] = this.length;
+    return true;
+  }
+
+  /**
+   * Holds the chars of sequences from the specified index of the text, with
+   * the position in the line buffer, and returns the index of the first char
+   * which is not a part of any sequence.
+   * A surrogate pair is stepped char by char, which makes no difference
+   * because no sequence but an OSC string accepts them.
+   */
+  int accept(String text, int index, int position) {
+    int base = this.length - index;
+    int i = index;
+    loop:
+    for (int n = text.length(); i < n; i++) {
+      switch (step(text.charAt(i))) {
+      case START:
+        if (this.count > 0) {
+          this.ends[this.count - 1] = base + i;
+        }
+        addSequence(position);
+        break;
+      case CONTINUE:
+        break;
+      case RESTART:
+        this.ends[this.count - 1] = base + i - 1;
+        addSequence(position);
+        break;
+      default:
+        break loop;
+      }
+    }
+    if (i > index) {
+      ensureCapacity(base + i);
+      text.getChars(index, i, this.chars, this.length);
+      this.length = base + i;
+      this.ends[this.count - 1] = this.length;
+    }
+    return i;
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > this.chars.length) {
+      this.chars = Arrays.copyOf(this.chars,
+        Math.max(capacity, this.chars.length * 2));
+    }
+  }
+
+  private void addSequence(int position) {
+    if (this.count == this.positions.length) {
+      this.positions = Arrays.copyOf(this.positions, this.count * 2);
+      this.ends = Arrays.copyOf(this.ends, this.count * 2);
+    }
+    this.positions[this.count++] = position;
+  }
+
+  /**
+   * Appends the active SGR attributes and hyperlink, if any, to the
+   * specified {@link StringBuilder}.
+   */
+  void appendActive(StringBuilder out) {
+    var attrs = this.attrs;
+    int n = out.length();
+    for (int i = 1; i < attrs.length; i++) {
+      appendParam(out, n, attrs[i]);
+    }
+    appendParam(out, n, this.foreground);
+    appendParam(out, n, this.background);
+    appendParam(out, n, this.underlineColor);
+    if (out.length() > n) {
+      out.append('m');
+    }
+    if (this.hyperlink != null) {
+      out.append(this.hyperlink);
+    }
+  }
+
+  private static void appendParam(StringBuilder out, int n, String param) {
+    if (param != null) {
+      out.append((out.length() == n) ? "\u001b[" : ";").append(param);
+    }
+  }
+
+  /**
+   * Appends the held sequences which appear before the specified position or
+   * earlier and are not appended yet, and applies them to the active
+   * attributes.
+   * If {@code out} is null, the sequences are only applied.
+   */
+  void appendUntil(StringBuilder out, int position) {
+    for (; this.appended < this.count; this.appended++) {
+      int i = this.appended;
+      if (this.positions[i] > position) {
+        break;
+      }
+      int start = (i > 0) ? this.ends[i - 1] : 0;
+      int end = this.ends[i];
+      if (out != null) {
+        out.append(this.chars, start, end - start);
+      }
+      apply(start, end);
+    }
+  }
+
+  /**
+   * Removes the appended sequences and shifts the positions of the rest for
+   * the line buffer from which the first {@code start} codepoints are
+   * removed.
+   */
+  void cr(int start) {
+    int k = this.appended;
+    if (k > 0) {
+      int n = this.count - k;
+      int removed = this.ends[k - 1];
+      this.length -= removed;
+      System.arraycopy(this.chars, removed, this.chars, 0, this.length);
+      for (int i = 0; i < n; i++) {
+        this.positions[i] = this.positions[i + k] - start;
+        this.ends[i] = this.ends[i + k] - removed;
+      }
+      this.count = n;
+      this.appended = 0;
+    } else {
+      for (int i = 0; i < this.count; i++) {
+        this.positions[i] -= start;
+      }
+    }
+  }
+
+  // Applies the SGR or OSC 8 sequence in chars[start, end) to the active
+  // attributes. Other or unterminated sequences are ignored.
+  private void apply(int start, int end) {
+    var chars = this.chars;
+    int i = start + 1;
+    int intro = chars[start];
+    if (intro == ESC && i < end) {
+      intro = switch (chars[i++]) {
+        case '[' -> CSI;
+        case ']' -> OSC;
+        default -> ESC;
+      };
+    }
+    char last = chars[end - 1];
+    if (intro == CSI && last == 'm' && end - i > 0) {
+      applySgr(i, end - 1);
+    } else if (intro == OSC && end - i > 2 &&
+        chars[i] == '8' && chars[i + 1] == ';' &&
+        (last == BEL || last == ST || (last == '\\' &&
+          chars[end - 2] == ESC && end - 2 > i))) {
+      int uriEnd = (last == '\\') ? end - 2 : end - 1;
+      int sep = i + 2;
+      while (sep < uriEnd && chars[sep] != ';') {
+        sep++;
+      }
+      if (sep >= uriEnd - 1) {
+        this.hyperlink = null;
+      } else {
+        this.hyperlink = new String(chars, start, end - start);
+      }
+    }
+  }
+
+  // Applies the parameters of an SGR sequence in chars[from, to).
+  // A parameter which is a plain code is kept as a shared string, so that
+  // usual sequences are applied without any allocation.
+  private void applySgr(int from, int to) {
+    var chars = this.chars;
+    if (from < to && chars[from] >= '<') {
+      return; // private parameters.
+    }
+    for (int i = from; i <= to; ) {
+      int end = paramEnd(i, to);
+      int code = 0;
+      int j = i;
+      for (; j < end; j++) {
+        char ch = chars[j];
+        if (ch < '0' || ch > '9') {
+          break;
+        }
+        code = Math.min(code * 10 + (ch - '0'), 1000);
+      }
+      boolean plain = (j == end && end > i && chars[i] != '0');
+      switch (code) {
+      case 0 -> {
+        Arrays.fill(this.attrs, null);
+        this.foreground = null;
+        this.background = null;
+        this.underlineColor = null;
+      }
+      case 1, 2, 3, 4, 5, 6, 7, 8, 9 -> this.attrs[code] = param(i, end, plain);
+      case 22 -> {
+        this.attrs[1] = null;
+        this.attrs[2] = null;
+      }
+      case 23, 24, 27, 28, 29 -> this.attrs[code - 20] = null;
+      case 25 -> {
+        this.attrs[5] = null;
+        this.attrs[6] = null;
+      }
+      case 30, 31, 32, 33, 34, 35, 36, 37, 90, 91, 92, 93, 94, 95, 96, 97 ->
+        this.foreground = param(i, end, plain);
+      case 39 -> this.foreground = null;
+      case 40, 41, 42, 43, 44, 45, 46, 47,
+           100, 101, 102, 103, 104, 105, 106, 107 ->
+        this.background = param(i, end, plain);
+      case 49 -> this.background = null;
+      case 59 -> this.underlineColor = null;
+      case 38, 48, 58 -> {
+        // 38;5;n and 38;2;r;g;b, or the same with colons in one parameter.
+        if (plain) {
+          int next = end + 1;
+          int n = 0;
+          if (next < to && paramEnd(next, to) == next + 1) {
+            n = switch (chars[next]) {
+              case '5' -> 2;
+              case '2' -> 4;
+              default -> 0;
+            };
+          }
+          if (n == 0) {
+            return;
+          }
+          for (int k = 0; k < n; k++) {
+            if (end >= to) {
+              return;
+            }
+            end = paramEnd(end + 1, to);
+          }
+        }
+        var color = new String(chars, i, end - i);
+        switch (code) {
+        case 38 -> this.foreground = color;
+        case 48 -> this.background = color;
+        default -> this.underlineColor = color;
+        }
+      }
+      default -> {}
+      }
+      i = end + 1;
+    }
+  }
+
+  // Returns the end of the SGR parameter which starts at the index.
+  private int paramEnd(int index, int to) {
+    int i = index;
+    while (i < to && this.chars[i] != ';') {
+      i++;
+    }
+    return i;
+  }
+
+  private String param(int start, int end, boolean plain) {
+    if (plain) {
+      int code = 0;
+      for (int i = start; i < end; i++) {
+        code = code * 10 + (this.chars[i] - '0');
+      }
+      if (code < CODES.length) {
+        return CODES[code];
+      }
+    }
+    return new String(this.chars, start, end - start);
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * AsciiScan class.
+ * Copyright (C) 2024 Takayuki Sato. All Rights Reserved.
+ */
+package com.github.sttk.linebreak;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * {@code AsciiScan} is the class which finds the end of a run of ASCII
+ * characters that are spaces or have no line break opportunity, and the last
+ * space in the run.
+ * The characters in such a run can be added to a line without classifying
+ * them one by one.
+ *
+ * This class is the scalar implementation.
+ * If the class {@code VectorAsciiScan}, which is built with the
+ * {@code vector} profile, exists and the module {@code jdk.incubator.vector}
+ * is available, {@link #of(byte[])} returns an instance of it, which scans
+ * the characters with the Vector API.
+ * This can be disabled by setting the system property
+ * {@value #VECTOR_PROPERTY} to {@code false}.
+ *
+ * In a native image, the scalar implementation is always used.
+ * The built-in rule set and its instance of this class are created while the
+ * image is built, so the implementation chosen then would be fixed in the
+ * image regardless of the module layer and the system property at run time.
+ */
+class AsciiScan {
+
+  static final String VECTOR_PROPERTY = "com.github.sttk.linebreak.vector";
+
+  // The system property which GraalVM sets while building and running a
+  // native image.
+  static final String IMAGE_CODE_PROPERTY = "org.graalvm.nativeimage.imagecode";
+
+  static final int ASCII_SIZE = 0x80;
+
+  private static final Method VECTOR_FACTORY = findVectorFactory();
+
+  // The packed properties of the Latin-1 codepoints, see KinsokuRules.
+  final byte[] latin1;
+
+  AsciiScan(byte[] latin1) {
+    this.latin1 = latin1;
+  }
+
+  /**
+   * Creates an {@code AsciiScan} instance for the specified properties of
+   * the Latin-1 codepoints, which uses the Vector API if available.
+   */
+  static AsciiScan of(byte[] latin1) {
+    if (VECTOR_FACTORY != null) {
+      try {
+        var scan = (AsciiScan) VECTOR_FACTORY.invoke(null, latin1);
+        if (scan != null) {
+          return scan;
+        }
+      } catch (IllegalAccessException | InvocationTargetException e) {
+        // falls back to the scalar implementation.
+      }
+    }
+    return new AsciiScan(latin1);
+  }
+
+  static Method findVectorFactory() {
+    if ("false".equals(System.getProperty(VECTOR_PROPERTY)) ||
+        System.getProperty(IMAGE_CODE_PROPERTY) != null) {
+      return null;
+    }
+    var module = ModuleLayer.boot().findModule("jdk.incubator.vector");
+    if (module.isEmpty()) {
+      return null;
+    }
+    try {
+      // The read edge must be added before VectorAsciiScan is initialized.
+      AsciiScan.class.getModule().addReads(module.get());
+      var cls = Class.forName(
+        AsciiScan.class.getPackageName() + ".VectorAsciiScan",
+        false, AsciiScan.class.getClassLoader());
+      return cls.getDeclaredMethod("of", byte[].class);
+    } catch (ClassNotFoundException | NoSuchMethodException | LinkageError e) {
+      return null;
+    }
+  }
+
+  /**
+   * Scans the characters of the text from {@code from} to {@code to}, and
+   * returns the end of the run and the index of the last space in the run,
+   * which are packed into a long value.
+   *
+   * @param text  A text.
+   * @param from  The start index of the range to be scanned.
+   * @param to  The end index of the range to be scanned.
+   * @param work  A work array of which the length is {@code to - from} or
+   *   more. This may be used by a subclass.
+   * @return  The packed end and last space index, which are got by
+   *   {@link #end(long)} and {@link #lastSpace(long)}.
+   */
+  long scan(String text, int from, int to, char[] work) {
+    final byte[] latin1 = this.latin1;
+    int lastSpace = -1;
+    int i = from;
+    for (; i < to; i++) {
+      char ch = text.charAt(i);
+      if (ch == ' ') {
+        lastSpace = i;
+      } else if (ch >= ASCII_SIZE || !CodepointTable.isPlain(latin1[ch])) {
+        break;
+      }
+    }
+    return pack(i, lastSpace);
+  }
+
+  static long pack(int end, int lastSpace) {
+    return ((long) end << 32) | (lastSpace & 0xffffffffL);
+  }
+
+  /** Returns the end of the run from a result of {@link #scan}. */
+  static int end(long result) {
+    return (int) (result >>> 32);
+  }
+
+  /**
+   * Returns the index of the last space in the run from a result of
+   * {@link #scan}, or -1 if the run has no space.
+   */
+  static int lastSpace(long result) {
+    return (int) result;
+  }
+}
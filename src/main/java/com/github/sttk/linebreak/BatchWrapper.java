@@ -0,0 +1,165 @@
+/*
+ * BatchWrapper class.
+ * Copyright (C) 2024 Takayuki Sato. All Rights Reserved.
+ */
+package com.github.sttk.linebreak;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@code BatchWrapper} is the class that provides static methods to break
+ * many texts into lines at once.
+ *
+ * All texts are processed with one {@link LineIter} instance and one
+ * internal buffer, and the lines are packed into one {@code char} array
+ * instead of separate strings.
+ */
+public final class BatchWrapper {
+
+  /**
+   * {@code Result} is the class which holds the lines of all texts of a
+   * batch packed into one {@code char} array.
+   *
+   * The i-th line is the range from {@code lineOffsets()[i]} (inclusive) to
+   * {@code lineOffsets()[i + 1]} (exclusive) of {@code chars()}, and the
+   * lines of the texts are stored in the order of the input texts.
+   * The line count of each input text is held in {@code lineCounts()}.
+   */
+  public static final class Result {
+    private final char[] chars;
+    private final int[] lineOffsets;
+    private final int[] lineCounts;
+
+    Result(char[] chars, int[] lineOffsets, int[] lineCounts) {
+      this.chars = chars;
+      this.lineOffsets = lineOffsets;
+      this.lineCounts = lineCounts;
+    }
+
+    /**
+     * Returns the array in which the chars of all lines are packed.
+     *
+     * @return  The array of the chars of all lines.
+     */
+    public char[] chars() {
+      return this.chars;
+    }
+
+    /**
+     * Returns the array of the start offsets of the lines in
+     * {@link #chars()}, which has the end offset of the last line at its
+     * tail.
+     *
+     * @return  The array of the line offsets, of which the length is the
+     *   line count plus one.
+     */
+    public int[] lineOffsets() {
+      return this.lineOffsets;
+    }
+
+    /**
+     * Returns the array of the line counts of the input texts.
+     *
+     * @return  The array of the line counts, of which the length is the
+     *   input text count.
+     */
+    public int[] lineCounts() {
+      return this.lineCounts;
+    }
+
+    /**
+     * Returns the count of all lines.
+     *
+     * @return  The line count.
+     */
+    public int lineCount() {
+      return this.lineOffsets.length - 1;
+    }
+
+    /**
+     * Returns the line at the specified index as a string.
+     *
+     * @param index  An index of a line in all lines.
+     * @return  A line string.
+     */
+    public String line(int index) {
+      int start = this.lineOffsets[index];
+      return new String(this.chars, start, this.lineOffsets[index + 1] - start);
+    }
+  }
+
+  private BatchWrapper() {}
+
+  /**
+   * Breaks each of the specified texts into lines within the specified width.
+   *
+   * @param texts  A list of strings to be broken into lines.
+   * @param lineWidth  A width of the output lines.
+   * @return  A {@link Result} holding the lines of all texts.
+   */
+  public static Result wrap(List<String> texts, int lineWidth) {
+    return wrap(texts, lineWidth, "");
+  }
+
+  /**
+   * Breaks each of the specified texts into lines within the specified width,
+   * and prepends the specified indentation to every line.
+   *
+   * @param texts  A list of strings to be broken into lines.
+   * @param lineWidth  A width of the output lines including the indentation.
+   * @param indent  A string to be used for indentation of every line.
+   * @return  A {@link Result} holding the lines of all texts.
+   */
+  public static Result wrap(List<String> texts, int lineWidth, String indent) {
+    var iter = new LineIter("", lineWidth);
+    iter.setIndent(indent);
+
+    var sb = new StringBuilder();
+    var lineCounts = new int[texts.size()];
+    var lineOffsets = new int[texts.size() * 2 + 1];
+    int lineCount = 0;
+
+    for (int i = 0, n = texts.size(); i < n; i++) {
+      iter.init(texts.get(i));
+      int count = 0;
+      while (iter.hasNext()) {
+        iter.nextInto(sb);
+        if (++lineCount >= lineOffsets.length) {
+          lineOffsets = Arrays.copyOf(lineOffsets, lineOffsets.length * 2);
+        }
+        lineOffsets[lineCount] = sb.length();
+        count++;
+      }
+      lineCounts[i] = count;
+    }
+
+    var chars = new char[sb.length()];
+    sb.getChars(0, sb.length(), chars, 0);
+    return new Result(chars, Arrays.copyOf(lineOffsets, lineCount + 1), lineCounts);
+  }
+
+  /**
+   * Breaks each of the specified texts into lines within the specified width.
+   *
+   * @param texts  An array of strings to be broken into lines.
+   * @param lineWidth  A width of the output lines.
+   * @return  A {@link Result} holding the lines of all texts.
+   */
+  public static Result wrap(String[] texts, int lineWidth) {
+    return wrap(Arrays.asList(texts), lineWidth, "");
+  }
+
+  /**
+   * Breaks each of the specified texts into lines within the specified width,
+   * and prepends the specified indentation to every line.
+   *
+   * @param texts  An array of strings to be broken into lines.
+   * @param lineWidth  A width of the output lines including the indentation.
+   * @param indent  A string to be used for indentation of every line.
+   * @return  A {@link Result} holding the lines of all texts.
+   */
+  public static Result wrap(String[] texts, int lineWidth, String indent) {
+    return wrap(Arrays.asList(texts), lineWidth, indent);
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * ByteBufferCodepointScanner class.
+ * Copyright (C) 2024 Takayuki Sato. All Rights Reserved.
+ */
+package com.github.sttk.linebreak;
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@code ByteBufferCodepointScanner} is a {@link CodepointScanner} which
+ * decodes UTF-8 codepoints directly from a {@link ByteBuffer}.
+ * The range from the position to the limit of the buffer is scanned, and the
+ * buffer's own position is not changed.
+ * A malformed byte is decoded as U+FFFD.
+ * The indexes are byte offsets from the position of the buffer.
+ */
+class ByteBufferCodepointScanner extends CodepointScanner {
+  ByteBuffer buf;
+  int base;
+  int pos;
+  int limit;
+  private int lastPos;
+
+  ByteBufferCodepointScanner(ByteBuffer buf) {
+    setBuffer(buf);
+  }
+
+  void setBuffer(ByteBuffer buf) {
+    if (buf == null) {
+      buf = ByteBuffer.allocate(0);
+    }
+    this.buf = buf;
+    this.base = buf.position();
+    this.pos = this.base;
+    this.lastPos = this.base;
+    this.limit = buf.limit();
+  }
+
+  /**
+   * Is called when the scanner reaches the limit of the current buffer or
+   * finds a sequence cut by that limit.
+   * A subclass can replace the buffer so that it starts from {@link #pos}
+   * and return true.
+   */
+  boolean refill() {
+    return false;
+  }
+
+  @Override
+  boolean hasNext() {
+    return this.pos < this.limit || refill();
+  }
+
+  @Override
+  int next() {
+    if (this.pos >= this.limit && !refill()) {
+      throw new IndexOutOfBoundsException(this.pos - this.base);
+    }
+
+    int b0 = this.buf.get(this.pos) & 0xff;
+    if (b0 < 0x80) {
+      this.lastPos = this.pos++;
+      return b0;
+    }
+
+    int n = Utf8.sequenceLength(b0);
+    if (this.pos + n > this.limit) {
+      refill();
+    }
+
+    int cp = -1;
+    if (n > 0 && this.pos + n <= this.limit) {
+      cp = Utf8.decode(this.buf, this.pos, n);
+    }
+    if (cp < 0) {
+      cp = Utf8.REPLACEMENT_CHARACTER;
+      n = 1;
+    }
+
+    this.lastPos = this.pos;
+    this.pos += n;
+    return cp;
+  }
+
+  @Override
+  int index() {
+    return this.pos - this.base;
+  }
+
+  @Override
+  int lastIndex() {
+    return this.lastPos - this.base;
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * CharSequenceCodepointScanner class.
+ * Copyright (C) 2024 Takayuki Sato. All Rights Reserved.
+ */
+package com.github.sttk.linebreak;
+
+/**
+ * {@code CharSequenceCodepointScanner} is a {@link CodepointScanner} which
+ * reads codepoints from a {@link CharSequence}, such as a
+ * {@link StringBuilder} which is edited between lines.
+ * The chars at and after the limit, if set, are not read.
+ */
+class CharSequenceCodepointScanner extends CodepointScanner {
+  private CharSequence seq;
+  private int index;
+  private int lastIndex;
+  private int limit = Integer.MAX_VALUE;
+
+  CharSequenceCodepointScanner(CharSequence seq) {
+    this.seq = (seq != null) ? seq : "";
+  }
+
+  void setLimit(int limit) {
+    this.limit = limit;
+  }
+
+  @Override
+  void setIndex(int index) {
+    this.index = index;
+    this.lastIndex = index;
+  }
+
+  @Override
+  boolean hasNext() {
+    return (this.index < Math.min(this.limit, this.seq.length()));
+  }
+
+  @Override
+  int next() {
+    int cp = Character.codePointAt(this.seq, this.index);
+    this.lastIndex = this.index;
+    this.index += Character.charCount(cp);
+    return cp;
+  }
+
+  @Override
+  int index() {
+    return this.index;
+  }
+
+  @Override
+  int lastIndex() {
+    return this.lastIndex;
+  }
+}
@@ -8,6 +8,8 @@ import java.util.Arrays;
 
 class CodepointBuffer {
   int[] codepoints;
+  int[] offsets;
+  int[] ends;
   int length;
 
   CodepointBuffer(int capacity) {
@@ -15,6 +17,25 @@ class CodepointBuffer {
     this.length = 0;
   }
 
+  boolean add(int codepoint) {
+    if (this.length >= this.codepoints.length) {
+      return false;
+    }
+    this.codepoints[this.length++] = codepoint;
+    return true;
+  }
+
+  boolean addWithOffsets(int codepoint, int offset, int end) {
+    if (this.length >= this.codepoints.length) {
+      return false;
+    }
+    this.codepoints[this.length] = codepoint;
+    this.offsets[this.length] = offset;
+    this.ends[this.length] = end;
+    this.length++;
+    return true;
+  }
+
   boolean add(int ...codepoints) {
     int n = codepoints.length;
     if (this.length + n > this.codepoints.length) {
@@ -26,6 +47,30 @@ class CodepointBuffer {
     return true;
   }
 
+  void ensureCapacity(int capacity) {
+    if (capacity <= this.codepoints.length) {
+      return;
+    }
+    capacity = Math.max(capacity, this.codepoints.length * 2);
+    this.codepoints = Arrays.copyOf(this.codepoints, capacity);
+    if (this.offsets != null) {
+      this.offsets = Arrays.copyOf(this.offsets, capacity);
+      this.ends = Arrays.copyOf(this.ends, capacity);
+    }
+  }
+
+  void setCapacity(int capacity) {
+    if (capacity == this.codepoints.length) {
+      return;
+    }
+    this.codepoints = Arrays.copyOf(this.codepoints, capacity);
+    if (this.offsets != null) {
+      this.offsets = Arrays.copyOf(this.offsets, capacity);
+      this.ends = Arrays.copyOf(this.ends, capacity);
+    }
+    this.length = Math.min(this.length, capacity);
+  }
+
   void cr(int start) {
     if (start < 0) {
       return;
@@ -39,6 +84,10 @@ class CodepointBuffer {
     for (int i = 0; i < n; i++) {
       this.codepoints[i] = this.codepoints[i + start];
     }
+    if (this.offsets != null) {
+      System.arraycopy(this.offsets, start, this.offsets, 0, n);
+      System.arraycopy(this.ends, start, this.ends, 0, n);
+    }
     this.length = n;
   }
 
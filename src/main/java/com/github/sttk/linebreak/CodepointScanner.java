@@ -6,6 +6,7 @@ package com.github.sttk.linebreak;
 
 class CodepointScanner {
   private int index;
+  private int lastIndex;
   private String text = "";
 
   CodepointScanner() {}
@@ -13,6 +14,12 @@ class CodepointScanner {
   void setText(String text) {
     this.text = (text != null) ? text : "";
     this.index = 0;
+    this.lastIndex = 0;
+  }
+
+  void setIndex(int index) {
+    this.index = index;
+    this.lastIndex = index;
   }
 
   boolean hasNext() {
@@ -21,7 +28,16 @@ class CodepointScanner {
 
   int next() {
     int cp = this.text.codePointAt(this.index);
+    this.lastIndex = this.index;
     this.index += Character.charCount(cp);
     return cp;
   }
+
+  int index() {
+    return this.index;
+  }
+
+  int lastIndex() {
+    return this.lastIndex;
+  }
 }
@@ -0,0 +1,112 @@
+/*
+ * CodepointTable class.
+ * Copyright (C) 2024 Takayuki Sato. All Rights Reserved.
+ */
+package com.github.sttk.linebreak;
+
+/**
+ * {@code CodepointTable} is a two-stage lookup table which holds the display
+ * width, the line break opportunity type, the space flag, the quote flag and
+ * the grapheme flag of every Unicode codepoint packed into one byte.
+ *
+ * The first stage is indexed by the upper bits of a codepoint and points to
+ * a block of the second stage, and identical blocks are shared.
+ * The table is generated at build time from the rules of {@link LboRule} and
+ * the Unicode properties, and is loaded by {@link UnicodeData}.
+ */
+final class CodepointTable {
+
+  static final int WIDTH_MASK = 0x03;
+  static final int LBO_SHIFT = 2;
+  static final int LBO_MASK = 0x07;
+  static final int SPACE_FLAG = 0x20;
+  static final int QUOTE_FLAG = 0x40;
+  static final int GRAPHEME_FLAG = 0x80;
+
+  static final int MAX_CODEPOINT = UnicodeData.MAX_CODEPOINT;
+
+  static final int BLOCK_SHIFT = UnicodeData.BLOCK_SHIFT;
+  static final int BLOCK_SIZE = UnicodeData.BLOCK_SIZE;
+  static final int BLOCK_MASK = UnicodeData.BLOCK_MASK;
+
+  private static final char[] stage1 = UnicodeData.PROPS.stage1;
+  private static final byte[] stage2 = UnicodeData.PROPS.stage2;
+
+  static final int LATIN1_SIZE = 0x100;
+
+  // The properties of Latin-1 codepoints, which are looked up directly
+  // by the fast paths for ASCII and Latin-1 text.
+  private static final byte[] latin1 = latin1(stage1, stage2);
+
+  private CodepointTable() {}
+
+  /**
+   * Returns the packed properties of the specified codepoint.
+   * If the codepoint is out of the Unicode range, this method returns zero,
+   * which means a non-printable, non-space codepoint without any line break
+   * opportunity.
+   */
+  static int get(int codepoint) {
+    if (codepoint < 0 || codepoint > MAX_CODEPOINT) {
+      return 0;
+    }
+    int block = stage1[codepoint >>> BLOCK_SHIFT];
+    return stage2[(block << BLOCK_SHIFT) | (codepoint & BLOCK_MASK)];
+  }
+
+  static char[] stage1() {
+    return stage1;
+  }
+
+  static byte[] stage2() {
+    return stage2;
+  }
+
+  static byte[] latin1() {
+    return latin1;
+  }
+
+  static byte[] latin1(char[] stage1, byte[] stage2) {
+    var table = new byte[LATIN1_SIZE];
+    for (int cp = 0; cp < LATIN1_SIZE; cp++) {
+      int block = stage1[cp >>> BLOCK_SHIFT];
+      table[cp] = stage2[(block << BLOCK_SHIFT) | (cp & BLOCK_MASK)];
+    }
+    return table;
+  }
+
+  /**
+   * Checks whether the packed properties are of a printable codepoint which
+   * is neither a space nor a quote and has no line break opportunity nor
+   * grapheme cluster break property, i.e. a codepoint which can be added to a
+   * line without any other state change.
+   */
+  static boolean isPlain(int props) {
+    return (props & ~WIDTH_MASK) == 0 && props != 0;
+  }
+
+  static int width(int props) {
+    return props & WIDTH_MASK;
+  }
+
+  static int lboOrdinal(int props) {
+    return (props >>> LBO_SHIFT) & LBO_MASK;
+  }
+
+  static boolean isSpace(int props) {
+    return (props & SPACE_FLAG) != 0;
+  }
+
+  static boolean isQuote(int props) {
+    return (props & QUOTE_FLAG) != 0;
+  }
+
+  /**
+   * Checks whether the packed properties are of a codepoint which has
+   * grapheme cluster break properties other than {@link Uax29#OTHER}, i.e. a
+   * codepoint which can join or be joined by the adjacent ones.
+   */
+  static boolean hasGraphemeProps(int props) {
+    return (props & GRAPHEME_FLAG) != 0;
+  }
+}
@@ -0,0 +1,222 @@
+/*
+ * IncrementalWrapper class.
+ * Copyright (C) 2024 Takayuki Sato. All Rights Reserved.
+ */
+package com.github.sttk.linebreak;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * {@code IncrementalWrapper} is the class that holds a text and the lines
+ * into which it is broken, and keeps those lines up to date when the text is
+ * appended or edited.
+ *
+ * This class saves the state of {@link LineIter} after every line.
+ * When the text is changed, the lines are broken again only from the last
+ * line which ends before the changed range, and the rest of the old lines
+ * are reused as soon as the state after a new line becomes the same as that
+ * after an old line behind the changed range.
+ * Therefore the count of the lines broken again is proportional to the size
+ * of the change, not to the size of the whole text.
+ *
+ * The lines are the same as those output by {@link LineIter#next()} for the
+ * whole text.
+ * This class is not thread-safe.
+ */
+public final class IncrementalWrapper {
+
+  private final StringBuilder text = new StringBuilder();
+  private final CharSequenceCodepointScanner scanner =
+    new CharSequenceCodepointScanner(this.text);
+  private final LineIter iter;
+  private final List<String> lines = new ArrayList<>();
+  private final List<LineIter.Snapshot> snapshots = new ArrayList<>();
+  private int rewrappedCount;
+
+  /**
+   * Is the constructor that creates an {@code IncrementalWrapper} instance
+   * which breaks a text into lines within the specified width.
+   *
+   * @param lineWidth  A width of the output lines.
+   */
+  public IncrementalWrapper(int lineWidth) {
+    this(lineWidth, "");
+  }
+
+  /**
+   * Is the constructor that creates an {@code IncrementalWrapper} instance
+   * which breaks a text into lines within the specified width, and prepends
+   * the specified indentation to every line.
+   *
+   * @param lineWidth  A width of the output lines including the indentation.
+   * @param indent  A string to be used for indentation of every line.
+   */
+  public IncrementalWrapper(int lineWidth, String indent) {
+    this.iter = new LineIter(this.scanner, lineWidth);
+    this.iter.setIndent(indent);
+    rewrap(-1, 0, List.of(), List.of(), 0);
+  }
+
+  /**
+   * Appends the specified string to the end of the text.
+   *
+   * @param s  A string to be appended.
+   */
+  public void append(String s) {
+    int len = this.text.length();
+    replace(len, len, s);
+  }
+
+  /**
+   * Inserts the specified string at the specified offset of the text.
+   *
+   * @param offset  A UTF-16 offset of the text where the string is inserted.
+   * @param s  A string to be inserted.
+   */
+  public void insert(int offset, String s) {
+    replace(offset, offset, s);
+  }
+
+  /**
+   * Deletes the specified range of the text.
+   *
+   * @param start  The start offset of the range (inclusive).
+   * @param end  The end offset of the range (exclusive).
+   */
+  public void delete(int start, int end) {
+    replace(start, end, "");
+  }
+
+  /**
+   * Replaces the specified range of the text with the specified string.
+   *
+   * @param start  The start offset of the range (inclusive).
+   * @param end  The end offset of the range (exclusive).
+   * @param s  A string to be put in place of the range.
+   * @throws IndexOutOfBoundsException  If the range is out of the text.
+   */
+  public void replace(int start, int end, String s) {
+    Objects.checkFromToIndex(start, end, this.text.length());
+    if (s == null) s = "";
+
+    // The state after a line is not affected by the change if the line ends
+    // before the changed range and the text continues after it.
+    int k = lastLineBefore(start);
+
+    var oldLines = new ArrayList<>(this.lines.subList(k + 1, this.lines.size()));
+    var oldSnapshots = new ArrayList<>(
+      this.snapshots.subList(k + 1, this.snapshots.size()));
+    this.lines.subList(k + 1, this.lines.size()).clear();
+    this.snapshots.subList(k + 1, this.snapshots.size()).clear();
+
+    this.text.replace(start, end, s);
+    int delta = s.length() - (end - start);
+    rewrap(k, start + s.length(), oldLines, oldSnapshots, delta);
+  }
+
+  private int lastLineBefore(int offset) {
+    int lo = 0, hi = this.snapshots.size();
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (this.snapshots.get(mid).index() <= offset) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    int k = lo - 1;
+    while (k >= 0 && !this.snapshots.get(k).hasNext()) {
+      k--;
+    }
+    return k;
+  }
+
+  private void rewrap(
+    int k, int changedEnd, List<String> oldLines,
+    List<LineIter.Snapshot> oldSnapshots, int delta
+  ) {
+    if (k < 0) {
+      this.scanner.setIndex(0);
+      this.iter.initScanner(this.scanner);
+    } else {
+      this.iter.restore(this.snapshots.get(k));
+    }
+
+    int count = 0;
+    int j = 0;
+    while (this.iter.hasNext()) {
+      this.lines.add(this.iter.next());
+      this.snapshots.add(this.iter.snapshot());
+      count++;
+
+      int index = this.iter.scannerIndex();
+      if (index < changedEnd) {
+        continue;
+      }
+      while (j < oldSnapshots.size() && oldSnapshots.get(j).index() + delta < index) {
+        j++;
+      }
+      for (int m = j; m < oldSnapshots.size(); m++) {
+        var snapshot = oldSnapshots.get(m);
+        if (snapshot.index() + delta != index) {
+          break;
+        }
+        if (this.iter.matches(snapshot, delta)) {
+          this.lines.addAll(oldLines.subList(m + 1, oldLines.size()));
+          for (var s : oldSnapshots.subList(m + 1, oldSnapshots.size())) {
+            this.snapshots.add(delta != 0 ? s.shift(delta) : s);
+          }
+          this.rewrappedCount = count;
+          return;
+        }
+      }
+    }
+    this.rewrappedCount = count;
+  }
+
+  /**
+   * Returns the current text.
+   *
+   * @return  The text.
+   */
+  public String getText() {
+    return this.text.toString();
+  }
+
+  /**
+   * Returns an unmodifiable view of the lines of the current text.
+   * The view reflects the subsequent changes of the text.
+   *
+   * @return  A list of the lines.
+   */
+  public List<String> getLines() {
+    return Collections.unmodifiableList(this.lines);
+  }
+
+  /**
+   * Returns the count of the lines of the current text.
+   *
+   * @return  The line count.
+   */
+  public int lineCount() {
+    return this.lines.size();
+  }
+
+  /**
+   * Returns the line at the specified index.
+   *
+   * @param i  An index of a line.
+   * @return  The line string.
+   */
+  public String line(int i) {
+    return this.lines.get(i);
+  }
+
+  // the count of the lines broken again by the last change.
+  int rewrappedCount() {
+    return this.rewrappedCount;
+  }
+}
@@ -0,0 +1,286 @@
+/*
+ * KinsokuRules class.
+ * Copyright (C) 2024 Takayuki Sato. All Rights Reserved.
+ */
+package com.github.sttk.linebreak;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@code KinsokuRules} is the immutable class which holds a set of line
+ * breaking rules (kinsoku shori) for the characters which must not start a
+ * line and those which must not end a line.
+ *
+ * A rule set is compiled by {@link Builder#build()} into a two-stage lookup
+ * table in the same form as the built-in table, so a custom rule set costs
+ * the same constant-time lookup as the built-in rules.
+ * A rule set can be shared by multiple {@link LineIter} instances and
+ * threads.
+ *
+ * Line break characters (LF and CR) and spaces cannot be given to a rule set.
+ * A quotation mark (" or ') given to a builder is no longer paired with
+ * the other marks, but follows the given rule.
+ */
+public final class KinsokuRules {
+
+  /** The built-in rule set. */
+  public static final KinsokuRules DEFAULT = new KinsokuRules(
+    CodepointTable.stage1(), CodepointTable.stage2());
+
+  private final char[] stage1;
+  private final byte[] stage2;
+  private final byte[] latin1;
+  private final AsciiScan asciiScan;
+
+  private KinsokuRules(char[] stage1, byte[] stage2) {
+    this.stage1 = stage1;
+    this.stage2 = stage2;
+    this.latin1 = CodepointTable.latin1(stage1, stage2);
+    this.asciiScan = AsciiScan.of(this.latin1);
+  }
+
+  /**
+   * Creates a new {@link Builder} which starts with the built-in rules.
+   *
+   * @return  A {@link Builder} instance.
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Checks whether the specified codepoint must not start a line.
+   *
+   * @param codepoint  A codepoint.
+   * @return  True if the codepoint must not start a line.
+   */
+  public boolean isLineStartProhibited(int codepoint) {
+    return lboOrdinal(codepoint) == LineIter.LboType.After.ordinal();
+  }
+
+  /**
+   * Checks whether the specified codepoint must not end a line.
+   *
+   * @param codepoint  A codepoint.
+   * @return  True if the codepoint must not end a line.
+   */
+  public boolean isLineEndProhibited(int codepoint) {
+    return lboOrdinal(codepoint) == LineIter.LboType.Before.ordinal();
+  }
+
+  private int lboOrdinal(int codepoint) {
+    return CodepointTable.lboOrdinal(get(codepoint));
+  }
+
+  // Returns the packed properties of CodepointTable with the line break
+  // opportunity type of this rule set.
+  int get(int codepoint) {
+    if (codepoint < 0 || codepoint > CodepointTable.MAX_CODEPOINT) {
+      return 0;
+    }
+    int block = this.stage1[codepoint >>> CodepointTable.BLOCK_SHIFT];
+    return this.stage2[(block << CodepointTable.BLOCK_SHIFT) |
+      (codepoint & CodepointTable.BLOCK_MASK)];
+  }
+
+  // Returns the packed properties of the Latin-1 codepoints with this rule
+  // set, indexed by the codepoint.
+  byte[] latin1() {
+    return this.latin1;
+  }
+
+  AsciiScan asciiScan() {
+    return this.asciiScan;
+  }
+
+  /**
+   * {@code Builder} is the class to build a {@link KinsokuRules} instance.
+   */
+  public static final class Builder {
+
+    // the line break opportunity type for each codepoint to be changed.
+    private final Map<Integer, LineIter.LboType> changes = new HashMap<>();
+
+    private Builder() {}
+
+    /**
+     * Removes all built-in rules and all rules added so far.
+     *
+     * @return  This builder.
+     */
+    public Builder clear() {
+      this.changes.clear();
+      for (int cp : LboRule.Befores) {
+        this.changes.put(cp, baseType(cp));
+      }
+      for (int cp : LboRule.Afters) {
+        this.changes.put(cp, baseType(cp));
+      }
+      return this;
+    }
+
+    /**
+     * Adds the specified codepoints to the characters which must not start
+     * a line.
+     *
+     * @param codepoints  Codepoints.
+     * @return  This builder.
+     * @throws IllegalArgumentException  If a codepoint is a line break
+     *   character, a space or out of the Unicode range.
+     */
+    public Builder lineStartProhibited(int... codepoints) {
+      return put(codepoints, LineIter.LboType.After);
+    }
+
+    /**
+     * Adds the codepoints of the specified string to the characters which
+     * must not start a line.
+     *
+     * @param chars  A string of the characters.
+     * @return  This builder.
+     * @throws IllegalArgumentException  If a character is a line break
+     *   character or a space.
+     */
+    public Builder lineStartProhibited(String chars) {
+      return lineStartProhibited(chars.codePoints().toArray());
+    }
+
+    /**
+     * Adds the specified codepoints to the characters which must not end a
+     * line.
+     *
+     * @param codepoints  Codepoints.
+     * @return  This builder.
+     * @throws IllegalArgumentException  If a codepoint is a line break
+     *   character, a space or out of the Unicode range.
+     */
+    public Builder lineEndProhibited(int... codepoints) {
+      return put(codepoints, LineIter.LboType.Before);
+    }
+
+    /**
+     * Adds the codepoints of the specified string to the characters which
+     * must not end a line.
+     *
+     * @param chars  A string of the characters.
+     * @return  This builder.
+     * @throws IllegalArgumentException  If a character is a line break
+     *   character or a space.
+     */
+    public Builder lineEndProhibited(String chars) {
+      return lineEndProhibited(chars.codePoints().toArray());
+    }
+
+    /**
+     * Removes the specified codepoints from both of the characters which must
+     * not start a line and those which must not end a line.
+     *
+     * @param codepoints  Codepoints.
+     * @return  This builder.
+     * @throws IllegalArgumentException  If a codepoint is a line break
+     *   character, a space or out of the Unicode range.
+     */
+    public Builder remove(int... codepoints) {
+      for (int cp : codepoints) {
+        check(cp);
+        this.changes.put(cp, baseType(cp));
+      }
+      return this;
+    }
+
+    /**
+     * Removes the codepoints of the specified string from both of the
+     * characters which must not start a line and those which must not end a
+     * line.
+     *
+     * @param chars  A string of the characters.
+     * @return  This builder.
+     * @throws IllegalArgumentException  If a character is a line break
+     *   character or a space.
+     */
+    public Builder remove(String chars) {
+      return remove(chars.codePoints().toArray());
+    }
+
+    private Builder put(int[] codepoints, LineIter.LboType lbo) {
+      for (int cp : codepoints) {
+        check(cp);
+      }
+      for (int cp : codepoints) {
+        this.changes.put(cp, lbo);
+      }
+      return this;
+    }
+
+    private static void check(int cp) {
+      if (cp < 0 || cp > CodepointTable.MAX_CODEPOINT) {
+        throw new IllegalArgumentException("Out of the Unicode range: " + cp);
+      }
+      int props = CodepointTable.get(cp);
+      var lbo = LineIter.LBO_TYPES[CodepointTable.lboOrdinal(props)];
+      if (lbo == LineIter.LboType.Break || CodepointTable.isSpace(props)) {
+        throw new IllegalArgumentException(
+          "A line break character or a space: U+" + Integer.toHexString(cp));
+      }
+    }
+
+    // the type without kinsoku rules, which is the same as that of
+    // CodepointTable for a codepoint neither in Befores nor in Afters.
+    private static LineIter.LboType baseType(int cp) {
+      int eaw = UnicodeData.EAST_ASIAN_WIDTH.get(cp);
+      if (eaw == UnicodeData.EAW_WIDE || eaw == UnicodeData.EAW_FULLWIDTH) {
+        return LineIter.LboType.Both;
+      }
+      return LineIter.LboType.Never;
+    }
+
+    /**
+     * Compiles the rules into a {@link KinsokuRules} instance.
+     *
+     * The lookup table is a copy of the built-in table (about 50 KB), to
+     * which a changed copy of each block containing the changed codepoints
+     * is appended.
+     * The built-in table is copied rather than shared, so that a lookup
+     * reads only one array as that of the built-in rules.
+     *
+     * @return  A {@link KinsokuRules} instance.
+     */
+    public KinsokuRules build() {
+      if (this.changes.isEmpty()) {
+        return DEFAULT;
+      }
+
+      char[] stage1 = CodepointTable.stage1().clone();
+      byte[] base = CodepointTable.stage2();
+      var copied = new HashMap<Integer, Integer>();
+      for (int cp : this.changes.keySet()) {
+        copied.putIfAbsent(cp >>> CodepointTable.BLOCK_SHIFT, base.length +
+          copied.size() * CodepointTable.BLOCK_SIZE);
+      }
+
+      byte[] stage2 = Arrays.copyOf(base,
+        base.length + copied.size() * CodepointTable.BLOCK_SIZE);
+      for (var e : copied.entrySet()) {
+        int i = e.getKey();
+        int from = stage1[i] << CodepointTable.BLOCK_SHIFT;
+        System.arraycopy(base, from, stage2, e.getValue(), CodepointTable.BLOCK_SIZE);
+        stage1[i] = (char) (e.getValue() >>> CodepointTable.BLOCK_SHIFT);
+      }
+
+      for (var e : this.changes.entrySet()) {
+        int cp = e.getKey();
+        int block = stage1[cp >>> CodepointTable.BLOCK_SHIFT];
+        int i = (block << CodepointTable.BLOCK_SHIFT) | (cp & CodepointTable.BLOCK_MASK);
+        int props = stage2[i];
+        props &= ~(CodepointTable.LBO_MASK << CodepointTable.LBO_SHIFT);
+        props &= ~CodepointTable.QUOTE_FLAG;
+        props |= e.getValue().ordinal() << CodepointTable.LBO_SHIFT;
+        stage2[i] = (byte) props;
+      }
+
+      return new KinsokuRules(stage1, stage2);
+    }
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * LineBoundaryIter class.
+ * Copyright (C) 2024 Takayuki Sato. All Rights Reserved.
+ */
+package com.github.sttk.linebreak;
+
+import java.util.Iterator;
+
+/**
+ * {@code LineBoundaryIter} is the class that outputs the boundaries of the
+ * lines into which the given string is broken, as UTF-16 offsets into that
+ * string.
+ * This class breaks lines in the same way as {@link LineIter}, but does not
+ * create any line strings.
+ * This is useful for renderers which already hold the text and need only the
+ * positions where each line starts and ends.
+ */
+public class LineBoundaryIter implements Iterator<LineBoundaryIter.Boundary> {
+
+  /**
+   * {@code BreakType} is the enum type which represents the reason why a
+   * line ends.
+   */
+  public enum BreakType {
+    /** The line ends at a line break character, LF or CR. */
+    Hard,
+    /** The line ends at a line break opportunity. */
+    Soft,
+    /** The line is broken forcely because it has no line break opportunity. */
+    Forced,
+    /** The line ends at the end of the text. */
+    End,
+  }
+
+  /**
+   * {@code Boundary} is the record class which represents a boundary of a
+   * line.
+   *
+   * The offsets are indexes of the code units of the original text, which
+   * are UTF-16 chars for {@link LineBoundaryIter} and bytes for
+   * {@link Utf8LineIter}.
+   * The range from {@code start} to {@code end} covers the codepoints which
+   * belong to the line, and {@code trimmedEnd} is the end of this range
+   * without the trailing spaces.
+   * Spaces at the head of a line are not included in that range.
+   * If a line has no character other than spaces, all offsets are the same
+   * position where the line is broken.
+   *
+   * @param start  The start offset of the line (inclusive).
+   * @param end  The end offset of the line (exclusive).
+   * @param trimmedEnd  The end offset of the line without trailing spaces.
+   * @param breakType  The reason why the line ends.
+   */
+  public record Boundary(int start, int end, int trimmedEnd, BreakType breakType) {}
+
+  private final LineIter iter;
+
+  /**
+   * Is the constructor that creates a {@code LineBoundaryIter} instance which
+   * outputs the boundaries of the lines of the given string.
+   *
+   * @param text  A string to be broken into lines.
+   * @param lineWidth  A width of the lines.
+   */
+  public LineBoundaryIter(String text, int lineWidth) {
+    this.iter = new LineIter(text, lineWidth);
+    this.iter.trackOffsets();
+  }
+
+  /**
+   * Sets an indentation for the subsequent lines.
+   * The indentation is not included in the boundaries, but its width is
+   * subtracted from the line width.
+   *
+   * @param indent  A string to be used for indentation.
+   */
+  public void setIndent(String indent) {
+    this.iter.setIndent(indent);
+  }
+
+  /**
+   * Re-initializes with an argument string for reusing this instance.
+   *
+   * @param text  A string to be broken into lines.
+   */
+  public void init(String text) {
+    this.iter.init(text);
+  }
+
+  /**
+   * Checks whether the remaining string exists or not.
+   *
+   * @return  True if the remaining string exists.
+   */
+  @Override
+  public boolean hasNext() {
+    return this.iter.hasNext();
+  }
+
+  /**
+   * Returns the boundary of the next line.
+   *
+   * @return  A {@link Boundary} of the next line.
+   */
+  @Override
+  public Boundary next() {
+    this.iter.nextLine(null);
+    return new Boundary(
+      this.iter.lineStart,
+      this.iter.lineEnd,
+      this.iter.lineTrimmedEnd,
+      this.iter.breakType);
+  }
+}
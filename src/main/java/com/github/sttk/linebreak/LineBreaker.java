@@ -0,0 +1,212 @@
+/*
+ * LineBreaker class.
+ * Copyright (C) 2024 Takayuki Sato. All Rights Reserved.
+ */
+package com.github.sttk.linebreak;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * {@code LineBreaker} is the immutable class which holds a configuration of
+ * line breaking, and can be shared by multiple threads.
+ *
+ * The width of the indentation is calculated only once when an instance is
+ * created.
+ * The {@link LineIter} instances used by {@link #wrap(String)} and
+ * {@link #forEachLine(String, Consumer)} are borrowed from a lock-free pool
+ * owned by this instance and returned after use, so they are not bound to
+ * any thread and work well with virtual threads.
+ * The pool is an array of slots, and each thread looks for an iterator or a
+ * free slot only in a few slots from the one chosen by its thread id.
+ * Therefore threads rarely contend on the same slot, and no object is
+ * allocated by borrowing and returning an iterator.
+ * When those slots are all empty or all full, an iterator is created or
+ * discarded instead.
+ */
+public final class LineBreaker {
+
+  private final int lineWidth;
+  private final String indent;
+  private final int indentWidth;
+  private final KinsokuRules rules;
+
+  // the count of the slots which a thread looks in.
+  static final int PROBES = 4;
+
+  private final AtomicReferenceArray<LineIter> pool;
+
+  /**
+   * Is the constructor that creates a {@code LineBreaker} instance which
+   * breaks texts into lines within the specified width.
+   *
+   * @param lineWidth  A width of the output lines.
+   */
+  public LineBreaker(int lineWidth) {
+    this(lineWidth, "");
+  }
+
+  /**
+   * Is the constructor that creates a {@code LineBreaker} instance which
+   * breaks texts into lines within the specified width, and prepends the
+   * specified indentation to every line.
+   *
+   * @param lineWidth  A width of the output lines including the indentation.
+   * @param indent  A string to be used for indentation of every line.
+   */
+  public LineBreaker(int lineWidth, String indent) {
+    this(lineWidth, indent, KinsokuRules.DEFAULT);
+  }
+
+  /**
+   * Is the constructor that creates a {@code LineBreaker} instance which
+   * breaks texts into lines within the specified width with the specified
+   * rule set of the characters which must not start or end a line, and
+   * prepends the specified indentation to every line.
+   *
+   * @param lineWidth  A width of the output lines including the indentation.
+   * @param indent  A string to be used for indentation of every line.
+   * @param rules  A {@link KinsokuRules} instance.
+   */
+  public LineBreaker(int lineWidth, String indent, KinsokuRules rules) {
+    this(lineWidth, indent, rules, Runtime.getRuntime().availableProcessors() * 4);
+  }
+
+  LineBreaker(int lineWidth, String indent, int maxPoolSize) {
+    this(lineWidth, indent, KinsokuRules.DEFAULT, maxPoolSize);
+  }
+
+  LineBreaker(int lineWidth, String indent, KinsokuRules rules, int maxPoolSize) {
+    if (indent == null) indent = "";
+    if (rules == null) rules = KinsokuRules.DEFAULT;
+    this.lineWidth = lineWidth;
+    this.indent = indent;
+    this.indentWidth = Unicode.getTextWidth(indent);
+    this.rules = rules;
+    this.pool = new AtomicReferenceArray<>(maxPoolSize);
+  }
+
+  /**
+   * Returns the width of the output lines.
+   *
+   * @return  The line width.
+   */
+  public int getLineWidth() {
+    return this.lineWidth;
+  }
+
+  /**
+   * Returns the indentation prepended to every line.
+   *
+   * @return  The indentation string.
+   */
+  public String getIndent() {
+    return this.indent;
+  }
+
+  /**
+   * Returns the rule set of the characters which must not start or end a
+   * line.
+   *
+   * @return  The {@link KinsokuRules} instance.
+   */
+  public KinsokuRules getKinsokuRules() {
+    return this.rules;
+  }
+
+  /**
+   * Creates a new {@link LineIter} instance configured with this instance,
+   * which outputs the given string line by line.
+   * The returned instance is owned by the caller and not pooled.
+   *
+   * @param text  A string to be output with line breaking.
+   * @return  A {@link LineIter} instance.
+   */
+  public LineIter newLineIter(String text) {
+    var iter = new LineIter(text, this.lineWidth);
+    iter.setIndent(this.indent, this.indentWidth);
+    iter.setKinsokuRules(this.rules);
+    return iter;
+  }
+
+  /**
+   * Breaks the specified text into lines.
+   *
+   * @param text  A string to be broken into lines.
+   * @return  A list of the lines.
+   */
+  public List<String> wrap(String text) {
+    var lines = new ArrayList<String>();
+    forEachLine(text, lines::add);
+    return lines;
+  }
+
+  /**
+   * Breaks the specified text into lines, and performs the specified action
+   * for each line.
+   *
+   * @param text  A string to be broken into lines.
+   * @param action  An action to be performed for each line.
+   */
+  public void forEachLine(String text, Consumer<? super String> action) {
+    var iter = borrow(text);
+    try {
+      while (iter.hasNext()) {
+        action.accept(iter.next());
+      }
+    } finally {
+      giveBack(iter);
+    }
+  }
+
+  LineIter borrow(String text) {
+    var pool = this.pool;
+    int n = pool.length();
+    int slot = slot(n);
+    for (int i = Math.min(PROBES, n); i > 0; i--) {
+      var iter = pool.get(slot);
+      if (iter != null && pool.compareAndSet(slot, iter, null)) {
+        iter.init(text);
+        return iter;
+      }
+      if (++slot == n) slot = 0;
+    }
+    return newLineIter(text);
+  }
+
+  void giveBack(LineIter iter) {
+    iter.init("");
+    var pool = this.pool;
+    int n = pool.length();
+    int slot = slot(n);
+    for (int i = Math.min(PROBES, n); i > 0; i--) {
+      if (pool.get(slot) == null && pool.compareAndSet(slot, null, iter)) {
+        return;
+      }
+      if (++slot == n) slot = 0;
+    }
+  }
+
+  // Returns the first slot which the current thread looks in.
+  // Thread ids are sequential, so they are scattered by a multiplicative
+  // hash.
+  private static int slot(int n) {
+    if (n == 0) {
+      return 0;
+    }
+    long h = Thread.currentThread().threadId() * 0x9e3779b97f4a7c15L;
+    return (int) ((h >>> 33) % n);
+  }
+
+  int pooledCount() {
+    int count = 0;
+    for (int i = 0; i < this.pool.length(); i++) {
+      if (this.pool.get(i) != null) {
+        count++;
+      }
+    }
+    return count;
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * LineFeeder class.
+ * Copyright (C) 2024 Takayuki Sato. All Rights Reserved.
+ */
+package com.github.sttk.linebreak;
+
+import java.util.function.Consumer;
+
+/**
+ * {@code LineFeeder} is the class that breaks a text fed chunk by chunk into
+ * lines, and passes each line to a callback as soon as the line becomes
+ * final, which means that no subsequent chunk can change it.
+ *
+ * This is useful for a text which arrives gradually, such as the output of a
+ * running process.
+ * Only the chars of the last unfinished line are held between chunks, and the
+ * state of the line breaking is kept by an internal {@link LineIter}.
+ * The lines passed to the callback are the same as those output by
+ * {@link LineIter#next()} for the whole text, including the last line which
+ * is passed by {@link #flush()}.
+ * This class is not thread-safe.
+ */
+public final class LineFeeder {
+
+  private final StringBuilder pending = new StringBuilder();
+  private final CharSequenceCodepointScanner scanner =
+    new CharSequenceCodepointScanner(this.pending);
+  private final LineIter iter;
+  private final Consumer<String> callback;
+  private final StringBuilder line = new StringBuilder();
+
+  /**
+   * Is the constructor that creates a {@code LineFeeder} instance which
+   * passes the lines within the specified width to the specified callback.
+   *
+   * @param lineWidth  A width of the output lines.
+   * @param callback  A callback which receives the lines.
+   */
+  public LineFeeder(int lineWidth, Consumer<String> callback) {
+    this(lineWidth, "", callback);
+  }
+
+  /**
+   * Is the constructor that creates a {@code LineFeeder} instance which
+   * passes the lines within the specified width to the specified callback,
+   * with the indentation prepended to every line.
+   *
+   * @param lineWidth  A width of the output lines including the indentation.
+   * @param indent  A string to be used for indentation of every line.
+   * @param callback  A callback which receives the lines.
+   */
+  public LineFeeder(int lineWidth, String indent, Consumer<String> callback) {
+    this.iter = new LineIter(this.scanner, lineWidth);
+    this.iter.setIndent(indent);
+    this.callback = callback;
+  }
+
+  /**
+   * Feeds the next chunk of the text, and passes the lines which have become
+   * final to the callback.
+   *
+   * A surrogate pair may be split between two chunks.
+   *
+   * @param chunk  A chunk of the text.
+   */
+  public void feed(CharSequence chunk) {
+    if (chunk != null) {
+      this.pending.append(chunk);
+    }
+    drain(false);
+  }
+
+  /**
+   * Ends the text, and passes the remaining lines to the callback.
+   * After this method, this instance can be used for a new text.
+   */
+  public void flush() {
+    drain(true);
+    this.iter.initScanner(this.scanner);
+  }
+
+  // A line which ends at the end of the fed chars is not final, so the state
+  // before that line is restored and its chars are left to be scanned again
+  // together with the next chunk.
+  private void drain(boolean last) {
+    int len = this.pending.length();
+    if (!last && len > 0 && Character.isHighSurrogate(this.pending.charAt(len - 1))) {
+      len--;
+    }
+    this.scanner.setLimit(len);
+
+    while (this.iter.hasNext()) {
+      var snapshot = this.iter.snapshot();
+      this.line.setLength(0);
+      this.iter.nextLine(this.line);
+      if (!this.iter.hasNext() && !last) {
+        this.iter.restore(snapshot);
+        break;
+      }
+      this.callback.accept(this.line.toString());
+    }
+
+    this.pending.delete(0, this.scanner.index());
+    this.scanner.setIndex(0);
+  }
+}
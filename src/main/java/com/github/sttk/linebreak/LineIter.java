@@ -4,12 +4,12 @@
  */
 package com.github.sttk.linebreak;
 
-import com.ibm.icu.lang.CharacterProperties;
-import com.ibm.icu.lang.UCharacter.EastAsianWidth;
-import com.ibm.icu.lang.UProperty;
-import com.ibm.icu.util.CodePointMap;
+import com.github.sttk.linebreak.LineBoundaryIter.BreakType;
+import java.io.Reader;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * {@code LineIter} is the class that outputs the given string line by line.
@@ -27,7 +27,9 @@ public class LineIter implements Iterator<String> {
     Space,
   }
 
-  class LboState {
+  static final LboType[] LBO_TYPES = LboType.values();
+
+  static final class LboState {
     LboType lboType;
     LboType lboPrev;
     byte openApos; // 0:not, 1:opened, 2:opened inside "..."
@@ -35,16 +37,31 @@ public class LineIter implements Iterator<String> {
   }
 
   private String text;
-  private final CodepointScanner scanner = new CodepointScanner();
+  private CodepointScanner scanner = new CodepointScanner();
   private final CodepointBuffer buffer;
   private final int[] width = new int[2];
   private int lboPos = 0;
   private int limit = 0;
   private String indent = "";
   private int indentWidth = 0;
+  private KinsokuRules rules = KinsokuRules.DEFAULT;
   private byte openQuot;
   private byte openApos;
   private boolean hasNext = true;
+  private final LboState state = new LboState();
+  private final StringBuilder line = new StringBuilder();
+  private char[] work;
+  private final Uax29.State grapheme = new Uax29.State();
+  private int clusterStart = -1; // the start of the last cluster in buffer.
+  private final Uax29.State measure = new Uax29.State();
+  private int[] steps;
+  private AnsiEscapes ansi;
+
+  // the boundary of the last line. The offsets are set only if tracked.
+  BreakType breakType;
+  int lineStart;
+  int lineEnd;
+  int lineTrimmedEnd;
 
   /**
    * Is the constructor that creates a {@code LineIter} instance which outputs
@@ -61,6 +78,66 @@ public class LineIter implements Iterator<String> {
     this.limit = lineWidth;
   }
 
+  /**
+   * Creates a {@code LineIter} instance which outputs the text read from the
+   * given {@link Reader} line by line.
+   *
+   * The text is read through an internal buffer of a fixed size, so the
+   * memory used by the returned instance is bounded by the line width and
+   * that buffer regardless of the length of the text.
+   * The returned instance does not close the reader.
+   * An {@link java.io.IOException} thrown by the reader is rethrown as an
+   * {@link java.io.UncheckedIOException} from {@link #next()}.
+   *
+   * @param reader  A reader of a text to be output with line breaking.
+   * @param lineWidth  A width of the output lines.
+   * @return  A {@code LineIter} instance.
+   */
+  public static LineIter fromReader(Reader reader, int lineWidth) {
+    return new LineIter(new ReaderCodepointScanner(reader), lineWidth);
+  }
+
+  /**
+   * Returns a sequential {@link Stream} of the lines into which the given
+   * string is broken.
+   *
+   * The stream can be made parallel with {@link Stream#parallel()}.
+   * Then the text is split into ranges only just after line break characters
+   * (LF or CR), and the paragraphs are broken into lines in parallel while
+   * keeping the encounter order.
+   *
+   * @param text  A string to be output with line breaking.
+   * @param lineWidth  A width of the output lines.
+   * @return  A stream of the lines.
+   */
+  public static Stream<String> lines(String text, int lineWidth) {
+    return lines(text, lineWidth, "");
+  }
+
+  /**
+   * Returns a sequential {@link Stream} of the lines into which the given
+   * string is broken, with the indentation prepended to every line.
+   *
+   * @param text  A string to be output with line breaking.
+   * @param lineWidth  A width of the output lines including the indentation.
+   * @param indent  A string to be used for indentation of every line.
+   * @return  A stream of the lines.
+   * @see #lines(String, int)
+   */
+  public static Stream<String> lines(String text, int lineWidth, String indent) {
+    if (text == null) text = "";
+    if (indent == null) indent = "";
+    var spliterator = new ParagraphSpliterator(text, lineWidth, indent);
+    return StreamSupport.stream(spliterator, false);
+  }
+
+  LineIter(CodepointScanner scanner, int lineWidth) {
+    this.text = "";
+    this.scanner = scanner;
+    this.buffer = new CodepointBuffer(lineWidth);
+    this.limit = lineWidth;
+  }
+
   /**
    * Sets an indentation for the subsequent lines.
    *
@@ -72,6 +149,45 @@ public class LineIter implements Iterator<String> {
     this.indentWidth = Unicode.getTextWidth(indent);
   }
 
+  void setIndent(String indent, int indentWidth) {
+    this.indent = indent;
+    this.indentWidth = indentWidth;
+  }
+
+  /**
+   * Sets a rule set of the characters which must not start or end a line.
+   * The rule set is used for the subsequent lines.
+   *
+   * @param rules  A {@link KinsokuRules} instance. If null, the built-in
+   *   rule set is used.
+   */
+  public void setKinsokuRules(KinsokuRules rules) {
+    this.rules = (rules != null) ? rules : KinsokuRules.DEFAULT;
+  }
+
+  /**
+   * Sets whether ANSI escape sequences in the text are passed through.
+   *
+   * If enabled, CSI sequences such as SGR ({@code ESC[...m}) and OSC sequences
+   * such as OSC 8 hyperlinks are output as they are at their positions,
+   * without any width, without being split across lines and without affecting
+   * line break opportunities.
+   * Then the SGR attributes and the hyperlink which are active at the end of
+   * a line are output again at the start of the next line, after the
+   * indentation.
+   * This setting is kept over {@link #init(String)}, but the active attributes
+   * are cleared by it.
+   *
+   * @param enabled  True to pass through ANSI escape sequences.
+   */
+  public void setAnsiEscapes(boolean enabled) {
+    if (!enabled) {
+      this.ansi = null;
+    } else if (this.ansi == null) {
+      this.ansi = new AnsiEscapes();
+    }
+  }
+
   /**
    * Re-initializes with an argument string for reusing this instance.
    *
@@ -80,14 +196,48 @@ public class LineIter implements Iterator<String> {
   public void init(String text) {
     if (text == null) text = "";
     this.text = text;
+    if (this.scanner.getClass() != CodepointScanner.class) {
+      this.scanner = new CodepointScanner();
+    }
     this.scanner.setText(text);
+    reset();
+  }
+
+  /**
+   * Re-initializes with an argument {@link Reader} for reusing this instance.
+   *
+   * @param reader  A reader of a text to be output with line breaking.
+   */
+  public void initReader(Reader reader) {
+    this.text = "";
+    if (this.scanner instanceof ReaderCodepointScanner rs) {
+      rs.setReader(reader);
+    } else {
+      this.scanner = new ReaderCodepointScanner(reader);
+    }
+    reset();
+  }
+
+  void initScanner(CodepointScanner scanner) {
+    this.text = "";
+    this.scanner = scanner;
+    reset();
+  }
+
+  private void reset() {
     this.buffer.length = 0;
+    this.buffer.setCapacity(this.limit);
     this.width[0] = 0;
     this.width[1] = 0;
     this.lboPos = 0;
     this.openQuot = 0;
     this.openApos = 0;
     this.hasNext = true;
+    this.grapheme.reset();
+    this.clusterStart = -1;
+    if (this.ansi != null) {
+      this.ansi.reset();
+    }
   }
 
   /**
@@ -107,74 +257,201 @@ public class LineIter implements Iterator<String> {
    */
   @Override
   public String next() {
+    this.line.setLength(0);
+    nextLine(this.line);
+    return this.line.toString();
+  }
+
+  /**
+   * Appends the next line to the specified {@link StringBuilder} instead of
+   * returning a new string.
+   * The indentation and the line are written directly from the internal
+   * buffer, so this method does not allocate any object by itself.
+   *
+   * @param sb  A {@link StringBuilder} to which the next line is appended.
+   */
+  public void nextInto(StringBuilder sb) {
+    nextLine(sb);
+  }
+
+  // the state between lines, which determines all the subsequent lines
+  // together with the scanner position.
+  // The codepoints are those of the effective part of the buffer, which can
+  // be longer than the length.
+  record Snapshot(
+    int index, int[] codepoints, int length, int capacity,
+    int width0, int width1, int lboPos, byte openQuot, byte openApos,
+    boolean hasNext, long grapheme, int clusterStart
+  ) {
+    Snapshot shift(int delta) {
+      return new Snapshot(index + delta, codepoints, length, capacity,
+        width0, width1, lboPos, openQuot, openApos, hasNext, grapheme,
+        clusterStart);
+    }
+  }
+
+  int scannerIndex() {
+    return this.scanner.index();
+  }
+
+  void seek(int index) {
+    this.scanner.setIndex(index);
+  }
+
+  Snapshot snapshot() {
+    return new Snapshot(
+      this.scanner.index(),
+      Arrays.copyOf(this.buffer.codepoints, effectiveLength()),
+      this.buffer.length, this.buffer.codepoints.length,
+      this.width[0], this.width[1], this.lboPos, this.openQuot, this.openApos, this.hasNext,
+      this.grapheme.pack(), this.clusterStart);
+  }
+
+  void restore(Snapshot s) {
+    this.scanner.setIndex(s.index());
+    int n = s.codepoints().length;
+    this.buffer.setCapacity(s.capacity());
+    System.arraycopy(s.codepoints(), 0, this.buffer.codepoints, 0, n);
+    this.buffer.length = s.length();
+    this.width[0] = s.width0();
+    this.width[1] = s.width1();
+    this.lboPos = s.lboPos();
+    this.openQuot = s.openQuot();
+    this.openApos = s.openApos();
+    this.hasNext = s.hasNext();
+    this.grapheme.unpack(s.grapheme());
+    this.clusterStart = s.clusterStart();
+  }
+
+  boolean matches(Snapshot s) {
+    return matches(s, 0);
+  }
+
+  // compares with the snapshot of which the index is shifted by delta.
+  boolean matches(Snapshot s, int delta) {
+    if (s.index() + delta != this.scanner.index() ||
+        s.width0() != this.width[0] || s.width1() != this.width[1] ||
+        s.lboPos() != this.lboPos || s.hasNext() != this.hasNext ||
+        s.openQuot() != this.openQuot || s.openApos() != this.openApos ||
+        s.grapheme() != this.grapheme.pack() ||
+        s.clusterStart() != this.clusterStart ||
+        s.capacity() != this.buffer.codepoints.length ||
+        s.length() != this.buffer.length) {
+      return false;
+    }
+    int n = s.codepoints().length;
+    return Arrays.equals(
+      s.codepoints(), 0, n, this.buffer.codepoints, 0, n);
+  }
+
+  // Returns the length of the part of the buffer which can be output by the
+  // subsequent lines.
+  // A line can be output until the last line break opportunity after the
+  // buffer is shrunk behind it, and then the codepoints left after the
+  // length are output again.
+  private int effectiveLength() {
+    return Math.min(Math.max(this.buffer.length, this.lboPos),
+      this.buffer.codepoints.length);
+  }
+
+  void trackOffsets() {
+    this.buffer.offsets = new int[this.buffer.codepoints.length];
+    this.buffer.ends = new int[this.buffer.codepoints.length];
+  }
+
+  void nextLine(StringBuilder out) {
     int limit = this.limit - this.indentWidth;
 
     if (this.width[0] > limit) {
         int diff = this.width[0] - limit;
         this.width[0] = diff;
+        int[] steps = stepClusters();
         for (int i = this.buffer.length - 1; i >= 0; i--) {
-            int cp = this.buffer.codepoints[i];
-            int cpWidth = Unicode.getCodepointWidth(cp);
-            if (diff <= cpWidth) {
-                String line = trimRightAndToString(this.buffer, 0, i);
-                this.buffer.cr(i);
-                if (! line.isEmpty()) {
-                  line = this.indent + line;
-                }
+            int cpWidth = Uax29.width(steps[i]);
+            if (diff <= cpWidth && Uax29.isBoundary(steps[i])) {
+                appendLine(out, i, BreakType.Forced);
+                cr(i);
                 this.hasNext = true;
-                return line;
+                return;
             }
             diff -= cpWidth;
         }
     } else if (this.width[0] == limit) {
         this.width[0] = 0;
-        String line = trimRightAndToString(this.buffer);
-        this.buffer.cr(0);
-        if (! line.isEmpty()) {
-          line = this.indent + line;
-        }
+        appendLine(out, this.buffer.length, BreakType.Soft);
+        cr(0);
         this.hasNext = true;
-        return line;
+        return;
     }
 
-    String line = "";
-
-    LboState state = new LboState();
+    LboState state = this.state;
+    state.lboType = null;
+    state.lboPrev = null;
     state.openQuot = this.openQuot;
     state.openApos = this.openApos;
 
     while (this.scanner.hasNext()) {
+      if (this.ansi != null && acceptEscapes()) {
+        continue;
+      }
+      if (this.buffer.offsets == null && !this.grapheme.isAfterPrepend() &&
+          (this.ansi == null || !this.ansi.inSequence())) {
+        LboType last = addLatin1Run(limit);
+        if (last != null) {
+          state.lboType = last;
+          continue;
+        }
+      }
+
       int cp = this.scanner.next();
-      lineBreakOpportunity(cp, state);
+      if (this.ansi != null && this.ansi.accept(cp, this.buffer.length)) {
+        continue;
+      }
+      int props = this.rules.get(cp);
+      int cpWidth = CodepointTable.width(props);
+
+      int step;
+      if (CodepointTable.hasGraphemeProps(props)) {
+        step = this.grapheme.step(cp, cpWidth);
+        cpWidth = Uax29.width(step);
+      } else {
+        step = this.grapheme.step(cp, Uax29.OTHER, cpWidth);
+      }
+      if (!Uax29.isBoundary(step) && this.clusterStart >= 0) {
+        if (addToCluster(out, cp, cpWidth, limit)) {
+          return;
+        }
+        continue;
+      }
+      this.clusterStart = -1;
+
+      lineBreakOpportunity(cp, props, state);
 
       if (state.lboType == LboType.Break) {
-        line = trimRightAndToString(this.buffer);
+        appendLine(out, this.buffer.length, BreakType.Hard);
         this.buffer.length = 0;
+        this.buffer.setCapacity(this.limit);
         this.width[0] = 0;
         this.width[1] = 0;
         this.openQuot = 0;
         this.openApos = 0;
         this.lboPos = 0;
-        if (! line.isEmpty()) {
-          line = this.indent + line;
-        }
         this.hasNext = true;
-        return line;
+        return;
       }
 
       if (this.buffer.length == 0 && state.lboType == LboType.Space) {
         continue;
       }
 
-      int cpWidth = Unicode.getCodepointWidth(cp);
       int lboPos = this.lboPos;
 
       if ((this.width[0] + this.width[1] + cpWidth) > limit) {
         if (state.lboPrev == LboType.Before) {
-          line = trimRightAndToString(this.buffer, 0, lboPos);
-          this.buffer.cr(lboPos);
+          appendLine(out, lboPos, BreakType.Soft);
+          cr(lboPos);
 
-          this.buffer.add(cp);
+          addBase(cp);
           this.width[0] = this.width[1] + cpWidth;
           this.width[1] = 0;
           this.lboPos = this.buffer.length;
@@ -182,11 +459,8 @@ public class LineIter implements Iterator<String> {
           this.openQuot = state.openQuot;
           this.openApos = state.openApos;
 
-          if (! line.isEmpty()) {
-            line = this.indent + line;
-          }
           this.hasNext = true;
-          return line;
+          return;
         }
 
         switch (state.lboType) {
@@ -195,14 +469,16 @@ public class LineIter implements Iterator<String> {
           break;
         }
         // break forcely when no lbo in the current line
+        var breakType = BreakType.Soft;
         if (lboPos == 0) {
           this.width[0] += this.width[1];
           this.width[1] = 0;
           lboPos = this.buffer.length;
+          breakType = BreakType.Forced;
         }
 
-        line = trimRightAndToString(this.buffer, 0, lboPos);
-        this.buffer.cr(lboPos);
+        appendLine(out, lboPos, breakType);
+        cr(lboPos);
 
         switch (state.lboType) {
         case LboType.Space:
@@ -211,19 +487,19 @@ public class LineIter implements Iterator<String> {
           this.lboPos = 0;
           break;
         case LboType.Before, LboType.Both:
-          this.buffer.add(cp);
+          addBase(cp);
           this.width[0] = cpWidth;
           this.width[1] = 0;
           this.lboPos = 0;
           break;
         case LboType.After:
-          this.buffer.add(cp);
+          addBase(cp);
           this.width[0] = this.width[1] + cpWidth;
           this.width[1] = 0;
           this.lboPos = this.buffer.length;
           break;
         default:
-          this.buffer.add(cp);
+          addBase(cp);
           this.width[0] = this.width[1] + cpWidth;
           this.width[1] = 0;
           this.lboPos = 0;
@@ -233,15 +509,12 @@ public class LineIter implements Iterator<String> {
         this.openQuot = state.openQuot;
         this.openApos = state.openApos;
 
-        if (! line.isEmpty()) {
-          line = this.indent + line;
-        }
         this.hasNext = true;
-        return line;
+        return;
       }
 
       if (cpWidth > 0) {
-        this.buffer.add(cp);
+        addBase(cp);
       }
       switch (state.lboType) {
       case LboType.Before:
@@ -267,73 +540,352 @@ public class LineIter implements Iterator<String> {
       }
     }
 
-    line = trimRightAndToString(this.buffer);
+    appendLine(out, this.buffer.length, BreakType.End);
     this.buffer.length = 0;
 
-    if (! line.isEmpty()) {
-      line = this.indent + line;
-    }
     this.hasNext = false;
-    return line;
   }
 
-  void lineBreakOpportunity(int codepoint, LboState state) {
-    state.lboPrev = state.lboType;
+  // Adds a run of Latin-1 characters which are ASCII spaces or have no line
+  // break opportunity and are neither spaces nor quotes nor pictographs, as
+  // long as they fit in the line.
+  // Each of them starts a new grapheme cluster, so only the last one is
+  // stepped by the state of grapheme clusters.
+  // Such a run changes only the buffer, the widths and the position of the
+  // last line break opportunity, so this loop over chars is equivalent to
+  // processing them one by one in nextLine.
+  // The ASCII part of a run is found at once by AsciiScan of the rule set.
+  // If ANSI escapes are enabled, the escape sequences in a run are held
+  // without ending it, because they change none of the above.
+  // This works only for a string text, and returns the LBO type of the last
+  // processed character, or null if no character is processed.
+  private LboType addLatin1Run(int limit) {
+    final String text = this.text;
+    final int n = text.length();
+    final int start = this.scanner.index();
+    if (start >= n) {
+      return null;
+    }
 
-    switch (codepoint) {
-    case 0x22: // "
-      if (state.openQuot == 0) { // open
-        state.openQuot = (byte)(state.openApos + 1);
-        state.lboType = LboType.Before;
-      } else { // close
-        if (state.openQuot < state.openApos) {
-          state.openApos = 0;
+    final byte[] latin1 = this.rules.latin1();
+    final int[] codepoints = this.buffer.codepoints;
+    int len = this.buffer.length;
+    int w0 = this.width[0];
+    int w1 = this.width[1];
+    int lboPos = this.lboPos;
+    LboType last = null;
+    char lastCh = 0;
+    boolean scan = true;
+    int i = start;
+
+    while (i < n) {
+      // The ASCII characters found by AsciiScan are of width 1, so the number
+      // of them is limited by the rest width of the line.
+      if (scan && len > 0) {
+        scan = false;
+        int to = Math.min(n, i + Math.min(limit - w0 - w1, codepoints.length - len));
+        if (to > i) {
+          if (this.work == null || this.work.length < codepoints.length) {
+            this.work = new char[codepoints.length];
+          }
+          long r = this.rules.asciiScan().scan(text, i, to, this.work);
+          int end = AsciiScan.end(r);
+          if (end > i) {
+            int space = AsciiScan.lastSpace(r);
+            int base = len - i;
+            for (int j = i; j < end; j++) {
+              codepoints[base + j] = text.charAt(j);
+            }
+            len = base + end;
+            if (space >= i) {
+              lboPos = base + space + 1;
+              w0 += w1 + (space + 1 - i);
+              w1 = end - space - 1;
+              last = (space == end - 1) ? LboType.Space : LboType.Never;
+            } else {
+              w1 += end - i;
+              last = LboType.Never;
+            }
+            lastCh = text.charAt(end - 1);
+            i = end;
+            continue;
+          }
         }
-        state.openQuot = 0;
-        state.lboType = LboType.After;
       }
-      return;
-    case 0x27: // '
-      if (state.openApos == 0) { // open
-        state.openApos = (byte)(state.openQuot + 1);
-        state.lboType = LboType.Before;
-      } else { // close
-        if (state.openApos < state.openQuot) {
-          state.openQuot = 0;
+
+      char ch = text.charAt(i);
+      if (ch >= CodepointTable.LATIN1_SIZE) {
+        break;
+      }
+      int props = latin1[ch];
+      int cpWidth = CodepointTable.width(props);
+      if (CodepointTable.isPlain(props)) {
+        if (w0 + w1 + cpWidth > limit || len >= codepoints.length) {
+          break;
+        }
+        codepoints[len++] = ch;
+        w1 += cpWidth;
+        last = LboType.Never;
+        lastCh = ch;
+      } else if (ch == ' ') {
+        if (len > 0) {
+          if (w0 + w1 + cpWidth > limit || len >= codepoints.length) {
+            break;
+          }
+          codepoints[len++] = ch;
+          lboPos = len;
+          w0 += w1 + cpWidth;
+          w1 = 0;
         }
-        state.openApos = 0;
-        state.lboType = LboType.After;
+        last = LboType.Space;
+        lastCh = ch;
+      } else if (ch == AnsiEscapes.ESC && this.ansi != null) {
+        i = this.ansi.accept(text, i, len);
+        scan = true;
+        continue;
+      } else {
+        break;
+      }
+      scan = true;
+      i++;
+    }
+
+    if (i == start) {
+      return null;
+    }
+    this.grapheme.step(lastCh, Uax29.OTHER,
+      CodepointTable.width(latin1[lastCh]));
+    this.clusterStart = len - 1;
+    this.buffer.length = len;
+    this.width[0] = w0;
+    this.width[1] = w1;
+    this.lboPos = lboPos;
+    this.scanner.setIndex(i);
+    return last;
+  }
+
+  // Holds the escape sequences at the current index of a string text at once,
+  // and returns true if any.
+  private boolean acceptEscapes() {
+    int i = this.scanner.index();
+    if (i >= this.text.length()) {
+      return false;
+    }
+    int end = this.ansi.accept(this.text, i, this.buffer.length);
+    if (end == i) {
+      return false;
+    }
+    this.scanner.setIndex(end);
+    return true;
+  }
+
+  // Adds a codepoint which joins the last grapheme cluster in the buffer.
+  // The codepoint is given the line break opportunity after the cluster, if
+  // any, and when the width added by it overflows the line, the whole
+  // cluster is moved to the next line.
+  // This returns true if a line is output.
+  private boolean addToCluster(
+    StringBuilder out, int cp, int addedWidth, int limit
+  ) {
+    int start = this.clusterStart;
+    if (addedWidth > 0 && start > 0 &&
+        this.width[0] + this.width[1] + addedWidth > limit) {
+      int lboPos = this.lboPos;
+      var breakType = BreakType.Soft;
+      if (lboPos == 0 || lboPos > start) {
+        lboPos = start;
+        breakType = BreakType.Forced;
+      }
+      int[] steps = stepClusters();
+      int w = 0;
+      for (int i = lboPos; i < this.buffer.length; i++) {
+        w += Uax29.width(steps[i]);
+      }
+
+      appendLine(out, lboPos, breakType);
+      cr(lboPos);
+
+      addJoined(cp);
+      this.width[0] = w + addedWidth;
+      this.width[1] = 0;
+      this.lboPos = 0;
+
+      this.openQuot = this.state.openQuot;
+      this.openApos = this.state.openApos;
+
+      this.hasNext = true;
+      return true;
+    }
+
+    boolean afterLbo = (this.lboPos == this.buffer.length);
+    addJoined(cp);
+    if (afterLbo) {
+      this.lboPos = this.buffer.length;
+      this.width[0] += addedWidth;
+    } else {
+      this.width[1] += addedWidth;
+    }
+    return false;
+  }
+
+  // Returns the results of Uax29.State#step for the codepoints in the buffer,
+  // which tell the grapheme cluster boundaries and the widths added by them.
+  private int[] stepClusters() {
+    int n = this.buffer.length;
+    if (this.steps == null || this.steps.length < n) {
+      this.steps = new int[this.buffer.codepoints.length];
+    }
+    var grapheme = this.measure;
+    grapheme.reset();
+    int[] codepoints = this.buffer.codepoints;
+    for (int i = 0; i < n; i++) {
+      int cp = codepoints[i];
+      this.steps[i] = grapheme.step(cp, Unicode.getCodepointWidth(cp));
+    }
+    return this.steps;
+  }
+
+  private boolean hasJoinedCodepoints() {
+    int[] steps = stepClusters();
+    for (int i = 0; i < this.buffer.length; i++) {
+      if (!Uax29.isBoundary(steps[i])) {
+        return true;
       }
-      return;
     }
+    return false;
+  }
+
+  private void addBase(int cp) {
+    addToBuffer(cp);
+    this.clusterStart = this.buffer.length - 1;
+  }
+
+  private void cr(int start) {
+    this.buffer.cr(start);
+    if (this.clusterStart >= start) {
+      this.clusterStart -= Math.max(start, 0);
+    } else {
+      this.clusterStart = -1;
+    }
+  }
+
+  // Adds a codepoint which joins the last grapheme cluster.
+  // Such a codepoint can make the count of the codepoints in the buffer
+  // exceed the line width, so the buffer is always grown if full.
+  // The grown capacity is restored to the line width at the start of every
+  // paragraph, so that the lines of a paragraph do not depend on what was
+  // processed before it.
+  private void addJoined(int cp) {
+    this.buffer.ensureCapacity(this.buffer.length + 1);
+    addToBuffer(cp);
+  }
+
+  private void addToBuffer(int cp) {
+    // The capacity of the buffer is the line width, which is not enough for
+    // a base codepoint only if zero-width codepoints are joined to grapheme
+    // clusters.
+    if (this.buffer.length >= this.buffer.codepoints.length &&
+        hasJoinedCodepoints()) {
+      this.buffer.ensureCapacity(this.buffer.length + 1);
+    }
+    if (this.buffer.offsets != null) {
+      this.buffer.addWithOffsets(
+        cp, this.scanner.lastIndex(), this.scanner.index());
+    } else {
+      this.buffer.add(cp);
+    }
+  }
 
-    if (contains(LboRule.Breaks, codepoint)) {
-      state.lboType = LboType.Break;
-      return;
+  private void appendLine(StringBuilder out, int end, BreakType breakType) {
+    this.breakType = breakType;
+
+    int[] codepoints = this.buffer.codepoints;
+    int i = end - 1;
+    for (; i >= 0; i--) {
+      if (!Unicode.isSpace(codepoints[i])) {
+        break;
+      }
     }
 
-    if (contains(LboRule.Befores, codepoint)) {
-      state.lboType = LboType.Before;
-      return;
+    if (this.ansi != null) {
+      appendLineWithEscapes(out, i, end);
+    } else if (out != null && i >= 0) {
+      out.append(this.indent);
+      for (int j = 0; j <= i; j++) {
+        out.appendCodePoint(codepoints[j]);
+      }
     }
 
-    if (contains(LboRule.Afters, codepoint)) {
-      state.lboType = LboType.After;
-      return;
+    int[] offsets = this.buffer.offsets;
+    if (offsets != null) {
+      if (i >= 0) {
+        this.lineStart = offsets[0];
+        this.lineEnd = this.buffer.ends[end - 1];
+        this.lineTrimmedEnd = this.buffer.ends[i];
+      } else {
+        int pos = this.scanner.index();
+        if (breakType == BreakType.Hard) {
+          pos = this.scanner.lastIndex();
+        }
+        this.lineStart = pos;
+        this.lineEnd = pos;
+        this.lineTrimmedEnd = pos;
+      }
     }
+  }
 
-    if (Unicode.isSpace(codepoint)) {
-      state.lboType = LboType.Space;
-      return;
+  // Appends a line with the escape sequences held before the end of it, and
+  // with the active attributes re-emitted at the start of it.
+  // The escape sequences after the trailing spaces are appended after the
+  // trimmed line, and the ones after the end are kept for the next line.
+  private void appendLineWithEscapes(StringBuilder out, int last, int end) {
+    var ansi = this.ansi;
+    if (out != null && last >= 0) {
+      out.append(this.indent);
+      ansi.appendActive(out);
+      int[] codepoints = this.buffer.codepoints;
+      for (int j = 0; j <= last; j++) {
+        ansi.appendUntil(out, j);
+        out.appendCodePoint(codepoints[j]);
+      }
     }
+    ansi.appendUntil(out, end);
+    ansi.cr(end);
+  }
+
+  static void lineBreakOpportunity(int codepoint, int props, LboState state) {
+    state.lboPrev = state.lboType;
 
-    switch (Unicode.getEastAsianWidth(codepoint)) {
-    case EastAsianWidth.WIDE, EastAsianWidth.FULLWIDTH:
-      state.lboType = LboType.Both;
-      return;
-    };
+    if (CodepointTable.isQuote(props)) {
+      switch (codepoint) {
+      case 0x22: // "
+        if (state.openQuot == 0) { // open
+          state.openQuot = (byte)(state.openApos + 1);
+          state.lboType = LboType.Before;
+        } else { // close
+          if (state.openQuot < state.openApos) {
+            state.openApos = 0;
+          }
+          state.openQuot = 0;
+          state.lboType = LboType.After;
+        }
+        return;
+      case 0x27: // '
+        if (state.openApos == 0) { // open
+          state.openApos = (byte)(state.openQuot + 1);
+          state.lboType = LboType.Before;
+        } else { // close
+          if (state.openApos < state.openQuot) {
+            state.openQuot = 0;
+          }
+          state.openApos = 0;
+          state.lboType = LboType.After;
+        }
+        return;
+      }
+    }
 
-    state.lboType = LboType.Never;
+    state.lboType = LBO_TYPES[CodepointTable.lboOrdinal(props)];
   }
 
   boolean contains(int[] candidates, int codepoint) {
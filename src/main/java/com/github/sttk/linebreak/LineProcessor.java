@@ -0,0 +1,256 @@
+/*
+ * LineProcessor class.
+ * Copyright (C) 2024 Takayuki Sato. All Rights Reserved.
+ */
+package com.github.sttk.linebreak;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@code LineProcessor} is a {@link Flow.Processor} which receives chunks of
+ * a text and publishes the lines into which the text is broken.
+ *
+ * This processor requests a chunk from the upstream publisher only when the
+ * subscriber has outstanding demand and all lines broken from the previous
+ * chunks have been published.
+ * Therefore the lines held by this processor are bounded by those of one
+ * chunk, regardless of how slow the subscriber is.
+ * The lines are the same as those output by {@link LineIter#next()} for the
+ * whole text, and the last line is published when the upstream completes.
+ *
+ * This processor accepts one subscriber.
+ */
+public final class LineProcessor implements Flow.Processor<CharSequence, String> {
+
+  private final Object lock = new Object();
+  private final ArrayDeque<String> queue = new ArrayDeque<>();
+  private final LineFeeder feeder;
+  private final AtomicInteger wip = new AtomicInteger();
+
+  private Flow.Subscription upstream;
+  private Flow.Subscriber<? super String> downstream;
+  private boolean subscribed;
+  private long demand;
+  private boolean requested;
+  private boolean done;
+  private Throwable error;
+  private boolean cancelled;
+  private boolean terminated;
+
+  /**
+   * Is the constructor that creates a {@code LineProcessor} instance which
+   * publishes the lines within the specified width.
+   *
+   * @param lineWidth  A width of the output lines.
+   */
+  public LineProcessor(int lineWidth) {
+    this(lineWidth, "");
+  }
+
+  /**
+   * Is the constructor that creates a {@code LineProcessor} instance which
+   * publishes the lines within the specified width, with the indentation
+   * prepended to every line.
+   *
+   * @param lineWidth  A width of the output lines including the indentation.
+   * @param indent  A string to be used for indentation of every line.
+   */
+  public LineProcessor(int lineWidth, String indent) {
+    this.feeder = new LineFeeder(lineWidth, indent, this.queue::add);
+  }
+
+  /**
+   * Subscribes the specified subscriber to the lines.
+   * If a subscriber has already subscribed, the specified subscriber receives
+   * an {@link IllegalStateException}.
+   *
+   * @param subscriber  A subscriber of the lines.
+   */
+  @Override
+  public void subscribe(Flow.Subscriber<? super String> subscriber) {
+    boolean first;
+    synchronized (this.lock) {
+      first = !this.subscribed;
+      this.subscribed = true;
+    }
+    if (first) {
+      // the lines are not signaled until onSubscribe returns.
+      subscriber.onSubscribe(new LineSubscription());
+      synchronized (this.lock) {
+        this.downstream = subscriber;
+      }
+      drain();
+      return;
+    }
+    subscriber.onSubscribe(new Flow.Subscription() {
+      @Override public void request(long n) {}
+      @Override public void cancel() {}
+    });
+    subscriber.onError(new IllegalStateException("Already subscribed"));
+  }
+
+  /**
+   * Receives the subscription of the upstream publisher.
+   *
+   * @param subscription  A subscription of the upstream publisher.
+   */
+  @Override
+  public void onSubscribe(Flow.Subscription subscription) {
+    synchronized (this.lock) {
+      if (this.upstream != null || this.cancelled || this.done) {
+        subscription.cancel();
+        return;
+      }
+      this.upstream = subscription;
+    }
+    drain();
+  }
+
+  /**
+   * Receives a chunk of the text, and breaks it into lines.
+   *
+   * @param chunk  A chunk of the text.
+   */
+  @Override
+  public void onNext(CharSequence chunk) {
+    synchronized (this.lock) {
+      this.requested = false;
+      if (!this.cancelled && !this.done) {
+        this.feeder.feed(chunk);
+      }
+    }
+    drain();
+  }
+
+  /**
+   * Receives the error of the upstream publisher, and passes it to the
+   * subscriber.
+   *
+   * @param throwable  An error of the upstream publisher.
+   */
+  @Override
+  public void onError(Throwable throwable) {
+    synchronized (this.lock) {
+      if (this.done) {
+        return;
+      }
+      this.queue.clear();
+      this.error = throwable;
+      this.done = true;
+    }
+    drain();
+  }
+
+  /**
+   * Receives the completion of the upstream publisher, and publishes the
+   * remaining lines.
+   */
+  @Override
+  public void onComplete() {
+    synchronized (this.lock) {
+      if (this.done) {
+        return;
+      }
+      if (!this.cancelled) {
+        this.feeder.flush();
+      }
+      this.done = true;
+    }
+    drain();
+  }
+
+  // Signals to the subscriber are serialized by the work-in-progress counter,
+  // and are sent outside of the lock.
+  private void drain() {
+    if (this.wip.getAndIncrement() != 0) {
+      return;
+    }
+    int missed = 1;
+    do {
+      while (true) {
+        Flow.Subscriber<? super String> s;
+        String line = null;
+        Throwable err = null;
+        boolean complete = false;
+        Flow.Subscription up = null;
+
+        synchronized (this.lock) {
+          s = this.downstream;
+          if (s == null || this.terminated) {
+            break;
+          }
+          if (this.cancelled) {
+            this.queue.clear();
+            break;
+          }
+          if (this.demand > 0 && !this.queue.isEmpty()) {
+            line = this.queue.poll();
+            this.demand--;
+          } else if (this.queue.isEmpty() && this.done) {
+            this.terminated = true;
+            err = this.error;
+            complete = (err == null);
+          } else if (this.queue.isEmpty() && this.demand > 0 &&
+              !this.requested && this.upstream != null) {
+            this.requested = true;
+            up = this.upstream;
+          } else {
+            break;
+          }
+        }
+
+        if (line != null) {
+          s.onNext(line);
+        } else if (err != null) {
+          s.onError(err);
+        } else if (complete) {
+          s.onComplete();
+        } else if (up != null) {
+          up.request(1);
+        }
+      }
+      missed = this.wip.addAndGet(-missed);
+    } while (missed != 0);
+  }
+
+  private final class LineSubscription implements Flow.Subscription {
+    @Override
+    public void request(long n) {
+      Flow.Subscription up = null;
+      synchronized (lock) {
+        if (n <= 0) {
+          if (!done) {
+            up = upstream;
+            queue.clear();
+            error = new IllegalArgumentException("Non-positive request: " + n);
+            done = true;
+          }
+        } else {
+          demand += n;
+          if (demand < 0) {
+            demand = Long.MAX_VALUE;
+          }
+        }
+      }
+      if (up != null) {
+        up.cancel();
+      }
+      drain();
+    }
+
+    @Override
+    public void cancel() {
+      Flow.Subscription up;
+      synchronized (lock) {
+        cancelled = true;
+        up = upstream;
+      }
+      if (up != null) {
+        up.cancel();
+      }
+      drain();
+    }
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * MappedFileCodepointScanner class.
+ * Copyright (C) 2024 Takayuki Sato. All Rights Reserved.
+ */
+package com.github.sttk.linebreak;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+
+/**
+ * {@code MappedFileCodepointScanner} is a {@link ByteBufferCodepointScanner}
+ * which decodes a UTF-8 file through a window mapped by
+ * {@link FileChannel#map}.
+ * When the scanner reaches the end of the window, the next window is mapped
+ * from the position of the first unread byte, so a sequence cut by a window
+ * is decoded as a whole.
+ */
+class MappedFileCodepointScanner extends ByteBufferCodepointScanner {
+  static final int DEFAULT_WINDOW_SIZE = 1 << 28;
+
+  private final FileChannel channel;
+  private final long size;
+  private final int windowSize;
+  private long windowStart;
+
+  MappedFileCodepointScanner(FileChannel channel, int windowSize)
+    throws IOException {
+    super(null);
+    this.channel = channel;
+    this.size = channel.size();
+    this.windowSize = Math.max(windowSize, 4);
+    this.windowStart = 0;
+    map(0);
+  }
+
+  @Override
+  boolean refill() {
+    if (this.windowStart + this.limit >= this.size) {
+      return false;
+    }
+    try {
+      map(this.windowStart + this.pos);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return this.pos < this.limit;
+  }
+
+  private void map(long start) throws IOException {
+    long len = Math.min(this.windowSize, this.size - start);
+    setBuffer(this.channel.map(FileChannel.MapMode.READ_ONLY, start, len));
+    this.windowStart = start;
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * MappedFileWrapper class.
+ * Copyright (C) 2024 Takayuki Sato. All Rights Reserved.
+ */
+package com.github.sttk.linebreak;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@code MappedFileWrapper} is the class that provides static methods to
+ * break the text of a UTF-8 file into lines and write them to a channel.
+ *
+ * The file is mapped into memory with {@link FileChannel#map} window by
+ * window and decoded incrementally, so no string of the whole file is
+ * created.
+ * The output lines are encoded in UTF-8 and separated by LF.
+ */
+public final class MappedFileWrapper {
+
+  private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+  private MappedFileWrapper() {}
+
+  /**
+   * Breaks the text of the specified UTF-8 file into lines within the
+   * specified width, and writes them to the target channel.
+   *
+   * @param source  A path of a UTF-8 file to be read.
+   * @param target  A channel to which the lines are written.
+   * @param lineWidth  A width of the output lines.
+   * @return  The count of the written lines.
+   * @throws IOException  If it failed to read the file or to write the lines.
+   */
+  public static long wrap(Path source, WritableByteChannel target, int lineWidth)
+    throws IOException {
+    return wrap(source, target, lineWidth, "");
+  }
+
+  /**
+   * Breaks the text of the specified UTF-8 file into lines within the
+   * specified width, and writes them to the target channel with the
+   * specified indentation.
+   *
+   * @param source  A path of a UTF-8 file to be read.
+   * @param target  A channel to which the lines are written.
+   * @param lineWidth  A width of the output lines including the indentation.
+   * @param indent  A string to be used for indentation of every line.
+   * @return  The count of the written lines.
+   * @throws IOException  If it failed to read the file or to write the lines.
+   */
+  public static long wrap(
+    Path source, WritableByteChannel target, int lineWidth, String indent
+  ) throws IOException {
+    return wrap(source, target, lineWidth, indent,
+      MappedFileCodepointScanner.DEFAULT_WINDOW_SIZE);
+  }
+
+  static long wrap(
+    Path source, WritableByteChannel target, int lineWidth, String indent,
+    int windowSize
+  ) throws IOException {
+    try (var channel = FileChannel.open(source, StandardOpenOption.READ)) {
+      var scanner = new MappedFileCodepointScanner(channel, windowSize);
+      var iter = new LineIter(scanner, lineWidth);
+      iter.setIndent(indent);
+      return write(iter, target);
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  static long write(LineIter iter, WritableByteChannel target)
+    throws IOException {
+    var line = new StringBuilder();
+    var out = ByteBuffer.allocate(OUTPUT_BUFFER_SIZE);
+    long count = 0;
+
+    while (iter.hasNext()) {
+      if (count > 0) {
+        if (out.remaining() < 1) {
+          flush(out, target);
+        }
+        out.put((byte) 0x0a);
+      }
+
+      line.setLength(0);
+      iter.nextInto(line);
+
+      for (int i = 0, n = line.length(); i < n; ) {
+        int cp = line.codePointAt(i);
+        i += Character.charCount(cp);
+        if (out.remaining() < 4) {
+          flush(out, target);
+        }
+        Utf8.encode(cp, out);
+      }
+      count++;
+    }
+
+    flush(out, target);
+    return count;
+  }
+
+  private static void flush(ByteBuffer out, WritableByteChannel target)
+    throws IOException {
+    out.flip();
+    while (out.hasRemaining()) {
+      target.write(out);
+    }
+    out.clear();
+  }
+}
@@ -0,0 +1,521 @@
+/*
+ * OptimalFitWrapper class.
+ * Copyright (C) 2024 Takayuki Sato. All Rights Reserved.
+ */
+package com.github.sttk.linebreak;
+
+import com.github.sttk.linebreak.LineIter.LboState;
+import com.github.sttk.linebreak.LineIter.LboType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@code OptimalFitWrapper} is the class that provides static methods to
+ * break a text into lines of which the right edges are as even as possible.
+ *
+ * While {@link LineIter} fills each line as much as possible, this class
+ * chooses the breaks of each paragraph so that the sum of the squares of the
+ * unused widths of the lines, except for the last line, is minimum.
+ * The breaks are chosen from the same line break opportunities as those of
+ * {@link LineIter}, and a word which is wider than a line is broken forcely
+ * at grapheme cluster boundaries in the same way.
+ * Paragraphs are separated by line break characters (LF or CR).
+ *
+ * Because this cost satisfies the quadrangle inequality, the best previous
+ * break of a break never goes backward as the break goes forward.
+ * So the best previous breaks are found with a monotone queue of the
+ * candidates, each of which is the best one for a range of the following
+ * breaks, and the time is {@code O(n log n)} for {@code n} breaks instead of
+ * {@code O(n^2)} of the straightforward dynamic programming.
+ */
+public final class OptimalFitWrapper {
+
+  // the flags of a codepoint.
+  static final byte SKIPPED = 1; // skipped at the head of a line.
+  static final byte TRIMMED = 2; // trimmed at the tail of a line.
+  static final byte DROPPED = 4; // not output, because it is of zero width.
+  static final byte JOINED = 8;  // joins the preceding grapheme cluster.
+
+  static final long INFEASIBLE = Long.MAX_VALUE;
+
+  private final int limit;
+  private final KinsokuRules rules;
+  private final LboState state = new LboState();
+  private final Uax29.State grapheme = new Uax29.State();
+
+  // the codepoints of a paragraph: the UTF-16 offsets, the flags, and the
+  // total widths of the preceding codepoints.
+  private int count;
+  private int[] offsets;
+  private byte[] flags;
+  private int[] widths;
+  private int lastSolid;
+
+  // the line break candidates of a paragraph as codepoint indexes, and the
+  // ranges of the codepoints output when a line starts or ends at each of
+  // them.
+  int breakCount;
+  int[] breaks = new int[16];
+  private int[] starts = new int[16];
+  private int[] ends = new int[16];
+
+  // for the dynamic programming over the breaks.
+  long[] costs = new long[16];
+  int[] prevs = new int[16];
+  private int[] reaches = new int[16];
+  private int[] queue = new int[16];
+  private int[] froms = new int[16];
+
+  // The capacity is the initial count of the codepoints of a paragraph,
+  // which is enough if it is the length of the whole text.
+  OptimalFitWrapper(int limit, KinsokuRules rules, int capacity) {
+    this.limit = limit;
+    this.rules = (rules != null) ? rules : KinsokuRules.DEFAULT;
+    this.offsets = new int[capacity + 1];
+    this.flags = new byte[capacity + 1];
+    this.widths = new int[capacity + 1];
+  }
+
+  /**
+   * Breaks the specified text into lines within the specified width.
+   *
+   * @param text  A string to be broken into lines.
+   * @param lineWidth  A width of the output lines.
+   * @return  A list of the lines.
+   */
+  public static List<String> wrap(String text, int lineWidth) {
+    return wrap(text, lineWidth, "", KinsokuRules.DEFAULT);
+  }
+
+  /**
+   * Breaks the specified text into lines within the specified width, and
+   * prepends the specified indentation to every line.
+   *
+   * @param text  A string to be broken into lines.
+   * @param lineWidth  A width of the output lines including the indentation.
+   * @param indent  A string to be used for indentation of every line.
+   * @return  A list of the lines.
+   */
+  public static List<String> wrap(String text, int lineWidth, String indent) {
+    return wrap(text, lineWidth, indent, KinsokuRules.DEFAULT);
+  }
+
+  /**
+   * Breaks the specified text into lines within the specified width with the
+   * specified rule set of the characters which must not start or end a line,
+   * and prepends the specified indentation to every line.
+   *
+   * @param text  A string to be broken into lines.
+   * @param lineWidth  A width of the output lines including the indentation.
+   * @param indent  A string to be used for indentation of every line.
+   * @param rules  A {@link KinsokuRules} instance. If null, the built-in rule
+   *   set is used.
+   * @return  A list of the lines.
+   */
+  public static List<String> wrap(
+    String text, int lineWidth, String indent, KinsokuRules rules
+  ) {
+    if (text == null) text = "";
+    if (indent == null) indent = "";
+
+    var wrapper = new OptimalFitWrapper(
+      lineWidth - Unicode.getTextWidth(indent), rules, text.length());
+    var lines = new ArrayList<String>();
+    var sb = new StringBuilder();
+
+    for (int start = 0; ; ) {
+      int end = wrapper.scan(text, start);
+      wrapper.optimize();
+      wrapper.appendLines(text, indent, sb, lines);
+      if (end >= text.length()) {
+        break;
+      }
+      start = end + Character.charCount(text.codePointAt(end));
+    }
+    return lines;
+  }
+
+  // Reads the paragraph from the start offset to a line break character or
+  // the end of the text, and returns the offset where it ends.
+  // The line break opportunities are the same as those of LineIter, and a
+  // break after a codepoint is moved after the codepoints joined to it.
+  int scan(String text, int start) {
+    var state = this.state;
+    state.lboType = null;
+    state.lboPrev = null;
+    state.openQuot = 0;
+    state.openApos = 0;
+    var grapheme = this.grapheme;
+    grapheme.reset();
+
+    this.count = 0;
+    this.lastSolid = -1;
+    this.breakCount = 1;
+    this.breaks[0] = 0;
+    boolean joinable = false;
+
+    final byte[] latin1 = this.rules.latin1();
+    char plain = 0; // the last of the plain codepoints just added, if any.
+
+    int i = start;
+    for (int n = text.length(); i < n; ) {
+      // Plain Latin-1 codepoints start new grapheme clusters and have no line
+      // break opportunity, so only the last one of a run of them is stepped
+      // by the states.
+      char ch = text.charAt(i);
+      if (ch < CodepointTable.LATIN1_SIZE && CodepointTable.isPlain(latin1[ch]) &&
+          (plain != 0 || !grapheme.isAfterPrepend())) {
+        add(i, (byte) 0, CodepointTable.width(latin1[ch]));
+        plain = ch;
+        i++;
+        continue;
+      }
+      if (plain != 0) {
+        grapheme.step(plain, Uax29.OTHER, CodepointTable.width(latin1[plain]));
+        state.lboType = LboType.Never;
+        joinable = true;
+        plain = 0;
+      }
+
+      int cp = text.codePointAt(i);
+      int props = this.rules.get(cp);
+      int cpWidth = CodepointTable.width(props);
+
+      int step;
+      if (CodepointTable.hasGraphemeProps(props)) {
+        step = grapheme.step(cp, cpWidth);
+        cpWidth = Uax29.width(step);
+      } else {
+        step = grapheme.step(cp, Uax29.OTHER, cpWidth);
+      }
+
+      int k = this.count;
+      byte flag = 0;
+      boolean breakAfter = false;
+      if (!Uax29.isBoundary(step) && joinable) {
+        flag = JOINED;
+        if (this.breaks[this.breakCount - 1] == k) {
+          this.breaks[this.breakCount - 1] = k + 1;
+        }
+      } else {
+        LineIter.lineBreakOpportunity(cp, props, state);
+        if (state.lboType == LboType.Break) {
+          break;
+        }
+        switch (state.lboType) {
+        case LboType.Before:
+          if (state.lboPrev != LboType.Before) {
+            addBreak(k);
+          }
+          break;
+        case LboType.Both:
+          addBreak(k);
+          break;
+        case LboType.After:
+          breakAfter = true;
+          break;
+        case LboType.Space:
+          flag = SKIPPED;
+          breakAfter = true;
+          break;
+        default:
+          break;
+        }
+        if (cpWidth == 0) {
+          flag |= DROPPED;
+        }
+        joinable = (cpWidth > 0);
+      }
+      if (CodepointTable.isSpace(props)) {
+        flag |= TRIMMED;
+      }
+
+      add(i, flag, cpWidth);
+      if (breakAfter) {
+        addBreak(k + 1);
+      }
+      i += Character.charCount(cp);
+    }
+
+    this.offsets[this.count] = i;
+    addBreak(this.count);
+    breakLongWords();
+    return i;
+  }
+
+  private void add(int offset, byte flag, int cpWidth) {
+    int k = this.count;
+    if (k + 1 >= this.offsets.length) {
+      int size = this.offsets.length * 2;
+      this.offsets = Arrays.copyOf(this.offsets, size);
+      this.flags = Arrays.copyOf(this.flags, size);
+      this.widths = Arrays.copyOf(this.widths, size);
+    }
+    this.offsets[k] = offset;
+    this.flags[k] = flag;
+    this.widths[k + 1] = this.widths[k] + cpWidth;
+    if ((flag & (SKIPPED | DROPPED)) == 0) {
+      this.lastSolid = k;
+    }
+    this.count = k + 1;
+  }
+
+  // Adds a line break candidate before the codepoint at the index.
+  // If only spaces are between the last candidate and this one, the last one
+  // is replaced, because the lines broken at them are the same.
+  // Spaces at the head of a paragraph have no candidate.
+  private void addBreak(int index) {
+    int last = this.breaks[this.breakCount - 1];
+    if (index <= last) {
+      return;
+    }
+    if (this.lastSolid < last) {
+      if (this.breakCount > 1) {
+        this.breaks[this.breakCount - 1] = index;
+      }
+      return;
+    }
+    if (this.breakCount >= this.breaks.length) {
+      this.breaks = Arrays.copyOf(this.breaks, this.breakCount * 2);
+    }
+    this.breaks[this.breakCount++] = index;
+  }
+
+  // Adds forced breaks at grapheme cluster boundaries into the ranges between
+  // the candidates which are wider than a line, and sets the ranges of the
+  // codepoints output for the candidates.
+  private void breakLongWords() {
+    int m = this.breakCount;
+    int[] breaks = this.breaks;
+    int[] widths = this.widths;
+    int limit = this.limit;
+
+    int[] result = null;
+    int r = 0;
+    for (int t = 0; t < m; t++) {
+      if (t > 0 && result != null) {
+        result = append(result, r++, breaks[t]);
+      }
+      if (t + 1 >= m) {
+        break;
+      }
+      int head = startOf(breaks[t]);
+      int tail = endOf(breaks[t + 1]);
+      if (widths[tail] - widths[head] <= limit) {
+        continue;
+      }
+      if (result == null) {
+        result = Arrays.copyOf(breaks, m * 2);
+        r = t + 1;
+      }
+      int lineStart = head;
+      for (int k = head + 1; k < tail; k++) {
+        if ((this.flags[k] & JOINED) != 0) {
+          continue;
+        }
+        int e = k + 1;
+        while (e < tail && (this.flags[e] & JOINED) != 0) {
+          e++;
+        }
+        if (widths[e] - widths[lineStart] > limit) {
+          result = append(result, r++, k);
+          lineStart = k;
+        }
+      }
+    }
+    if (result != null) {
+      this.breaks = result;
+      this.breakCount = r;
+      m = r;
+    }
+
+    if (this.starts.length < m) {
+      int size = Math.max(m, this.starts.length * 2);
+      this.starts = new int[size];
+      this.ends = new int[size];
+      this.costs = new long[size];
+      this.prevs = new int[size];
+      this.reaches = new int[size];
+      this.queue = new int[size];
+      this.froms = new int[size];
+    }
+    for (int t = 0; t < m; t++) {
+      this.starts[t] = startOf(this.breaks[t]);
+      this.ends[t] = endOf(this.breaks[t]);
+    }
+  }
+
+  private static int[] append(int[] array, int index, int value) {
+    if (index >= array.length) {
+      array = Arrays.copyOf(array, array.length * 2);
+    }
+    array[index] = value;
+    return array;
+  }
+
+  // Returns the index of the first codepoint output in a line which starts
+  // at the specified break.
+  private int startOf(int index) {
+    while (index < this.count && (this.flags[index] & (SKIPPED | DROPPED)) != 0) {
+      index++;
+    }
+    return index;
+  }
+
+  // Returns the index after the last codepoint output in a line which ends
+  // at the specified break.
+  private int endOf(int index) {
+    while (index > 0 && (this.flags[index - 1] & (TRIMMED | DROPPED)) != 0) {
+      index--;
+    }
+    return index;
+  }
+
+  // Returns the cost of a line from the i-th break to the j-th break, which
+  // is the square of the unused width.
+  // A line wider than the limit is infeasible unless it has only one word.
+  long cost(int i, int j) {
+    long w = this.widths[this.ends[j]] - this.widths[this.starts[i]];
+    if (w > this.limit) {
+      return (j == i + 1) ? 0 : INFEASIBLE;
+    }
+    long d = this.limit - w;
+    return d * d;
+  }
+
+  private long total(int i, int j) {
+    long c = cost(i, j);
+    return (c == INFEASIBLE) ? INFEASIBLE : this.costs[i] + c;
+  }
+
+  // Finds the breaks which minimize the total cost of the lines of the
+  // paragraph, where the last line costs nothing if it fits.
+  //
+  // The queue holds the candidates of the previous break in ascending order,
+  // with the first break for which each of them is the best.
+  // When a break is added to the queue, the candidates at the tail which are
+  // no better than it at their first breaks are removed, and the first break
+  // for which it becomes better than the last one is found by binary search.
+  // Because a later candidate is always better for the breaks which the
+  // earlier one cannot reach within a line, that search is only over the
+  // breaks reached by the earlier one.
+  void optimize() {
+    int m = this.breakCount;
+    if (m < 2) {
+      return;
+    }
+    int last = m - 1;
+    long[] costs = this.costs;
+    int[] prevs = this.prevs;
+    int[] reaches = this.reaches;
+    int[] queue = this.queue;
+    int[] froms = this.froms;
+
+    for (int i = 0, j = 1; i < last; i++) {
+      j = Math.max(j, i + 2);
+      while (j < m && this.widths[this.ends[j]] - this.widths[this.starts[i]] <= this.limit) {
+        j++;
+      }
+      reaches[i] = j;
+    }
+
+    costs[0] = 0;
+    int head = 0;
+    int tail = 0;
+    queue[0] = 0;
+    froms[0] = 1;
+
+    for (int j = 1; j < last; j++) {
+      while (head < tail && froms[head + 1] <= j) {
+        head++;
+      }
+      int i = queue[head];
+      costs[j] = total(i, j);
+      prevs[j] = i;
+
+      if (j + 1 >= last) {
+        continue;
+      }
+      int from = j + 1;
+      while (tail >= head) {
+        from = Math.max(froms[tail], j + 1);
+        if (total(j, from) <= total(queue[tail], from)) {
+          tail--;
+        } else {
+          break;
+        }
+      }
+      if (tail < head) {
+        queue[++tail] = j;
+        froms[tail] = j + 1;
+        continue;
+      }
+      int q = queue[tail];
+      int lo = from + 1;
+      int hi = Math.min(reaches[q], last);
+      while (lo < hi) {
+        int mid = (lo + hi) >>> 1;
+        if (total(j, mid) <= total(q, mid)) {
+          hi = mid;
+        } else {
+          lo = mid + 1;
+        }
+      }
+      if (lo < last) {
+        queue[++tail] = j;
+        froms[tail] = lo;
+      }
+    }
+
+    long best = INFEASIBLE;
+    int bestPrev = last - 1;
+    for (int i = last - 1; i >= 0; i--) {
+      long w = this.widths[this.ends[last]] - this.widths[this.starts[i]];
+      if (w > this.limit && i < last - 1) {
+        break;
+      }
+      if (costs[i] < best) {
+        best = costs[i];
+        bestPrev = i;
+      }
+    }
+    costs[last] = best;
+    prevs[last] = bestPrev;
+  }
+
+  private void appendLines(
+    String text, String indent, StringBuilder sb, List<String> lines
+  ) {
+    int m = this.breakCount;
+    if (m < 2) {
+      lines.add("");
+      return;
+    }
+    int[] chosen = this.queue;
+    int n = 0;
+    for (int j = m - 1; j > 0; j = this.prevs[j]) {
+      chosen[n++] = j;
+    }
+    while (n > 0) {
+      int j = chosen[--n];
+      int start = this.starts[this.prevs[j]];
+      int end = this.ends[j];
+      if (end <= start) {
+        lines.add("");
+        continue;
+      }
+      sb.setLength(0);
+      sb.append(indent);
+      int from = start;
+      for (int k = start; k < end; k++) {
+        if ((this.flags[k] & DROPPED) != 0) {
+          sb.append(text, this.offsets[from], this.offsets[k]);
+          from = k + 1;
+        }
+      }
+      sb.append(text, this.offsets[from], this.offsets[end]);
+      lines.add(sb.toString());
+    }
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * ParagraphSpliterator class.
+ * Copyright (C) 2024 Takayuki Sato. All Rights Reserved.
+ */
+package com.github.sttk.linebreak;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * {@code ParagraphSpliterator} is a {@link Spliterator} of the lines of a
+ * text, which splits the text only just after line break characters (LF or
+ * CR).
+ * Since {@link LineIter} resets all its state at a line break character,
+ * the lines of each split range are the same as those output sequentially.
+ */
+class ParagraphSpliterator implements Spliterator<String> {
+  private final String text;
+  private final int lineWidth;
+  private final String indent;
+  private int start;
+  private final int end;
+  private LineIter iter;
+  private boolean done;
+
+  ParagraphSpliterator(String text, int lineWidth, String indent) {
+    this(text, lineWidth, indent, 0, text.length());
+  }
+
+  private ParagraphSpliterator(
+    String text, int lineWidth, String indent, int start, int end
+  ) {
+    this.text = text;
+    this.lineWidth = lineWidth;
+    this.indent = indent;
+    this.start = start;
+    this.end = end;
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super String> action) {
+    if (this.done) {
+      return false;
+    }
+    if (this.iter == null) {
+      this.iter = new LineIter(this.text, this.lineWidth);
+      this.iter.setIndent(this.indent);
+      this.iter.seek(this.start);
+    }
+
+    action.accept(this.iter.next());
+
+    if (!this.iter.hasNext()) {
+      this.done = true;
+    } else if (this.end < this.text.length() &&
+               this.iter.scannerIndex() >= this.end) {
+      this.done = true;
+    }
+    return true;
+  }
+
+  @Override
+  public Spliterator<String> trySplit() {
+    if (this.iter != null || this.done) {
+      return null;
+    }
+
+    int mid = (this.start + this.end) >>> 1;
+    int p = findBreak(mid, this.end - 1);
+    if (p < 0) {
+      p = findBreakBackward(mid - 1, this.start);
+    }
+    if (p < 0) {
+      return null;
+    }
+
+    // p is just after a line break character and start < p < end.
+    var prefix = new ParagraphSpliterator(
+      this.text, this.lineWidth, this.indent, this.start, p);
+    this.start = p;
+    return prefix;
+  }
+
+  private int findBreak(int from, int to) {
+    for (int i = from; i < to; i++) {
+      char ch = this.text.charAt(i);
+      if (ch == 0x0a || ch == 0x0d) {
+        return i + 1;
+      }
+    }
+    return -1;
+  }
+
+  private int findBreakBackward(int from, int to) {
+    for (int i = from; i >= to; i--) {
+      char ch = this.text.charAt(i);
+      if (ch == 0x0a || ch == 0x0d) {
+        return i + 1;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public long estimateSize() {
+    return Long.MAX_VALUE;
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED | NONNULL | IMMUTABLE;
+  }
+}
@@ -0,0 +1,212 @@
+/*
+ * ParallelWrapper class.
+ * Copyright (C) 2024 Takayuki Sato. All Rights Reserved.
+ */
+package com.github.sttk.linebreak;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * {@code ParallelWrapper} is the class that provides static methods to break
+ * a long text into lines on multiple threads.
+ *
+ * The text is cut at arbitrary points into chunks, and each chunk is broken
+ * into lines speculatively on the common {@link ForkJoinPool} as if a line
+ * started there.
+ * Then the chunks are joined from the head: the lines of the preceding chunk
+ * are continued until the state between lines becomes the same as that of
+ * the speculative lines at the same position, and the rest are taken from
+ * the speculative lines.
+ * Therefore the result is always the same as the lines output by
+ * {@link LineIter#next()} sequentially, even within a single paragraph which
+ * has no line break character.
+ */
+public final class ParallelWrapper {
+
+  static final int MIN_CHUNK_SIZE = 1 << 15;
+
+  private ParallelWrapper() {}
+
+  /**
+   * Breaks the specified text into lines within the specified width.
+   *
+   * @param text  A string to be broken into lines.
+   * @param lineWidth  A width of the output lines.
+   * @return  A list of the lines.
+   */
+  public static List<String> wrap(String text, int lineWidth) {
+    return wrap(text, lineWidth, "");
+  }
+
+  /**
+   * Breaks the specified text into lines within the specified width, and
+   * prepends the specified indentation to every line.
+   *
+   * @param text  A string to be broken into lines.
+   * @param lineWidth  A width of the output lines including the indentation.
+   * @param indent  A string to be used for indentation of every line.
+   * @return  A list of the lines.
+   */
+  public static List<String> wrap(String text, int lineWidth, String indent) {
+    return wrap(text, lineWidth, indent,
+      ForkJoinPool.getCommonPoolParallelism(), MIN_CHUNK_SIZE);
+  }
+
+  static List<String> wrap(
+    String text, int lineWidth, String indent, int parallelism, int minChunkSize
+  ) {
+    if (text == null) text = "";
+    if (indent == null) indent = "";
+
+    int[] starts = splitPoints(text, lineWidth - Unicode.getTextWidth(indent),
+      parallelism, minChunkSize);
+
+    var tasks = new ArrayList<Callable<Chunk>>(starts.length);
+    for (int k = 0; k < starts.length; k++) {
+      int start = starts[k];
+      int end = (k + 1 < starts.length) ? starts[k + 1] : -1;
+      String t = text, ind = indent;
+      tasks.add(() -> Chunk.run(t, lineWidth, ind, start, end));
+    }
+
+    var chunks = new ArrayList<Chunk>(tasks.size());
+    if (tasks.size() == 1) {
+      chunks.add(Chunk.run(text, lineWidth, indent, 0, -1));
+    } else {
+      try {
+        for (var f : ForkJoinPool.commonPool().invokeAll(tasks)) {
+          chunks.add(f.get());
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException(e);
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException re) {
+          throw re;
+        }
+        throw new IllegalStateException(e.getCause());
+      }
+    }
+
+    return join(chunks);
+  }
+
+  // The chunk size is rounded up to a multiple of the line width, so that
+  // texts broken only forcely, such as base64 blobs, are resynchronized at
+  // the first line of each chunk.
+  static int[] splitPoints(
+    String text, int limit, int parallelism, int minChunkSize
+  ) {
+    int len = text.length();
+    int n = Math.max(1, Math.min(parallelism, len / Math.max(minChunkSize, 1)));
+    if (n == 1) {
+      return new int[]{0};
+    }
+
+    int size = (len + n - 1) / n;
+    if (limit > 0) {
+      size = ((size + limit - 1) / limit) * limit;
+    }
+
+    var starts = new ArrayList<Integer>(n);
+    starts.add(0);
+    for (int p = size; p < len; p += size) {
+      int q = p;
+      if (Character.isLowSurrogate(text.charAt(q)) &&
+          Character.isHighSurrogate(text.charAt(q - 1))) {
+        q++;
+      }
+      if (q < len) {
+        starts.add(q);
+      }
+    }
+    return starts.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  static List<String> join(List<Chunk> chunks) {
+    var head = chunks.get(0);
+    var lines = new ArrayList<String>(head.lines);
+    LineIter iter = head.iter;
+
+    for (int k = 1; k < chunks.size(); k++) {
+      var chunk = chunks.get(k);
+      int j = 0;
+
+      while (true) {
+        int index = iter.scannerIndex();
+        while (j < chunk.snapshots.size() &&
+               chunk.snapshots.get(j).index() < index) {
+          j++;
+        }
+        if (j >= chunk.snapshots.size()) {
+          break; // passed over this chunk without synchronization.
+        }
+        int m = matchedSnapshot(iter, chunk.snapshots, j, index);
+        if (m >= 0) {
+          lines.addAll(chunk.lines.subList(m + 1, chunk.lines.size()));
+          iter = chunk.iter;
+          break;
+        }
+        if (!iter.hasNext()) {
+          return lines;
+        }
+        lines.add(iter.next());
+      }
+    }
+
+    while (iter.hasNext()) {
+      lines.add(iter.next());
+    }
+    return lines;
+  }
+
+  // Several lines can be broken at the same position, so all snapshots at the
+  // position are checked.
+  private static int matchedSnapshot(
+    LineIter iter, List<LineIter.Snapshot> snapshots, int from, int index
+  ) {
+    for (int m = from; m < snapshots.size(); m++) {
+      var snapshot = snapshots.get(m);
+      if (snapshot.index() != index) {
+        break;
+      }
+      if (iter.matches(snapshot)) {
+        return m;
+      }
+    }
+    return -1;
+  }
+
+  static final class Chunk {
+    final List<String> lines = new ArrayList<>();
+    final List<LineIter.Snapshot> snapshots = new ArrayList<>();
+    LineIter iter;
+
+    // Breaks the text from the start into lines until the first line break
+    // at or after the end, or until the last line if the end is negative.
+    // The snapshot at index i is the state before the line at index i+1.
+    static Chunk run(
+      String text, int lineWidth, String indent, int start, int end
+    ) {
+      var chunk = new Chunk();
+      var iter = new LineIter(text, lineWidth);
+      iter.setIndent(indent);
+      iter.seek(start);
+
+      while (iter.hasNext()) {
+        chunk.lines.add(iter.next());
+        chunk.snapshots.add(iter.snapshot());
+        if (end >= 0 && iter.scannerIndex() >= end) {
+          break;
+        }
+      }
+
+      chunk.iter = iter;
+      return chunk;
+    }
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * ReaderCodepointScanner class.
+ * Copyright (C) 2024 Takayuki Sato. All Rights Reserved.
+ */
+package com.github.sttk.linebreak;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+
+/**
+ * {@code ReaderCodepointScanner} is a {@link CodepointScanner} which reads
+ * codepoints from a {@link Reader} through a fixed size buffer.
+ * A surrogate pair split between two reads is joined into one codepoint.
+ * An {@link IOException} thrown by the reader is rethrown as an
+ * {@link UncheckedIOException}.
+ */
+class ReaderCodepointScanner extends CodepointScanner {
+  static final int DEFAULT_BUFFER_SIZE = 8192;
+
+  private Reader reader;
+  private final char[] chars;
+  private int pos;
+  private int len;
+  private boolean eof;
+
+  ReaderCodepointScanner(Reader reader) {
+    this(reader, DEFAULT_BUFFER_SIZE);
+  }
+
+  ReaderCodepointScanner(Reader reader, int bufferSize) {
+    this.chars = new char[Math.max(bufferSize, 2)];
+    setReader(reader);
+  }
+
+  void setReader(Reader reader) {
+    this.reader = reader;
+    this.pos = 0;
+    this.len = 0;
+    this.eof = (reader == null);
+  }
+
+  @Override
+  boolean hasNext() {
+    if (this.pos < this.len) {
+      return true;
+    }
+    return fill();
+  }
+
+  @Override
+  int next() {
+    if (this.pos >= this.len && !fill()) {
+      throw new IndexOutOfBoundsException(this.pos);
+    }
+    char ch = this.chars[this.pos];
+    if (Character.isHighSurrogate(ch)) {
+      if (this.pos + 1 >= this.len) {
+        fill();
+      }
+      if (this.pos + 1 < this.len) {
+        char lo = this.chars[this.pos + 1];
+        if (Character.isLowSurrogate(lo)) {
+          this.pos += 2;
+          return Character.toCodePoint(ch, lo);
+        }
+      }
+    }
+    this.pos++;
+    return ch;
+  }
+
+  private boolean fill() {
+    if (this.eof) {
+      return this.pos < this.len;
+    }
+
+    int rest = this.len - this.pos;
+    if (rest > 0) {
+      System.arraycopy(this.chars, this.pos, this.chars, 0, rest);
+    }
+    this.pos = 0;
+    this.len = rest;
+
+    try {
+      while (this.len < this.chars.length) {
+        int n = this.reader.read(this.chars, this.len, this.chars.length - this.len);
+        if (n < 0) {
+          this.eof = true;
+          break;
+        }
+        this.len += n;
+        if (n > 0) {
+          break;
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    return this.pos < this.len;
+  }
+}
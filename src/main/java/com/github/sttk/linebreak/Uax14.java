@@ -0,0 +1,334 @@
+/*
+ * Uax14 class.
+ * Copyright (C) 2024 Takayuki Sato. All Rights Reserved.
+ */
+package com.github.sttk.linebreak;
+
+import java.util.ArrayList;
+
+/**
+ * {@code Uax14} is the implementation of the Unicode Line Breaking Algorithm
+ * (UAX #14) driven by a line break class table and a pair table.
+ *
+ * The line break classes of all codepoints are resolved by the rule LB1 at
+ * build time and are held in a two-stage table of {@link UnicodeData}.
+ * The East Asian variants of OP, CP and the initial and final variants of QU
+ * are given their own classes for LB15a, LB30 and so on.
+ * The pair table is computed from the rules LB7 to LB31 for every pair of
+ * classes, and tells whether a break between the pair is allowed directly,
+ * only after spaces, or never.
+ * A {@link State} looks up the pair table once per codepoint, and handles
+ * spaces, combining marks (LB9, LB10), ZWJ (LB8a), regional indicators
+ * (LB30a) and the rules which need the preceding classes (LB15a, LB20a,
+ * LB21a, LB25, LB28a) by itself.
+ *
+ * Mandatory breaks (BK, CR, LF, NL) are not handled by a {@link State}, but
+ * by its caller.
+ * The rules LB15b to LB15d, which need the codepoints after a quotation
+ * mark, are not applied, and LB19 and LB19a are applied in the form of
+ * Unicode 14 (no break around QU).
+ * LB20a is applied in the form of Unicode 16 (also after GL and before HL),
+ * but only for HY, because U+2010 is BA in the table of Unicode 15.1.
+ * The look-ahead parts of LB25 ({@code (PR | PO) × (OP | HY) NU}) and
+ * LB28a are applied without looking ahead, which means no break there.
+ */
+final class Uax14 {
+
+  static final int OP = 0;  // open punctuation (not East Asian)
+  static final int OW = 1;  // open punctuation (East Asian)
+  static final int CL = 2;
+  static final int CP = 3;  // close parenthesis (not East Asian)
+  static final int CW = 4;  // close parenthesis (East Asian)
+  static final int QU = 5;
+  static final int GL = 6;
+  static final int NS = 7;
+  static final int EX = 8;
+  static final int SY = 9;
+  static final int IS = 10;
+  static final int PR = 11;
+  static final int PO = 12;
+  static final int NU = 13;
+  static final int AL = 14;
+  static final int HL = 15;
+  static final int ID = 16;
+  static final int IN = 17;
+  static final int HY = 18;
+  static final int BA = 19;
+  static final int BB = 20;
+  static final int B2 = 21;
+  static final int ZW = 22;
+  static final int CM = 23;
+  static final int WJ = 24;
+  static final int H2 = 25;
+  static final int H3 = 26;
+  static final int JL = 27;
+  static final int JV = 28;
+  static final int JT = 29;
+  static final int RI = 30;
+  static final int EB = 31;
+  static final int EM = 32;
+  static final int ZWJ = 33;
+  static final int CB = 34;
+  static final int AK = 35;
+  static final int AP = 36;
+  static final int AS = 37;
+  static final int VF = 38;
+  static final int VI = 39;
+  static final int QI = 40;  // quotation (initial punctuation)
+  static final int QF = 41;  // quotation (final punctuation)
+  static final int SP = 42;
+  static final int BK = 43;
+  static final int CR = 44;
+  static final int LF = 45;
+  static final int NL = 46;
+
+  static final int CLASS_COUNT = 47;
+
+  private static final int NONE = -1;
+
+  static final byte DIRECT = 0;      // breaks between the pair.
+  static final byte INDIRECT = 1;    // breaks only if spaces are between.
+  static final byte PROHIBITED = 2;  // never breaks even if spaces are between.
+
+  private static final char[] stage1 = UnicodeData.LINE_BREAK.stage1;
+  private static final byte[] stage2 = UnicodeData.LINE_BREAK.stage2;
+  private static final byte[] pairs;
+
+  static {
+    pairs = new byte[CLASS_COUNT * CLASS_COUNT];
+    for (int a = 0; a < CLASS_COUNT; a++) {
+      for (int b = 0; b < CLASS_COUNT; b++) {
+        byte action = DIRECT;
+        if (isProhibited(a, b, true)) {
+          action = PROHIBITED;
+        } else if (isProhibited(a, b, false)) {
+          action = INDIRECT;
+        }
+        pairs[a * CLASS_COUNT + b] = action;
+      }
+    }
+  }
+
+  private Uax14() {}
+
+  /**
+   * Returns the resolved line break class of the specified codepoint.
+   */
+  static int classOf(int codepoint) {
+    if (codepoint < 0 || codepoint > CodepointTable.MAX_CODEPOINT) {
+      return AL;
+    }
+    int block = stage1[codepoint >>> UnicodeData.BLOCK_SHIFT];
+    return stage2[(block << UnicodeData.BLOCK_SHIFT) |
+      (codepoint & UnicodeData.BLOCK_MASK)];
+  }
+
+  static boolean isMandatory(int cls) {
+    return cls >= BK;
+  }
+
+  static byte pair(int before, int after) {
+    return pairs[before * CLASS_COUNT + after];
+  }
+
+  // Returns true if no break is allowed between the pair by the rules from
+  // LB7 to LB31, where spaced means that spaces are between them.
+  static boolean isProhibited(int a, int b, boolean spaced) {
+    // LB7
+    if (b == ZW) return true;
+    // LB8
+    if (a == ZW) return false;
+    // LB8a
+    if (!spaced && a == ZWJ) return true;
+    // LB11
+    if (b == WJ || (!spaced && a == WJ)) return true;
+    // LB12
+    if (!spaced && a == GL) return true;
+    // LB12a
+    if (!spaced && b == GL && a != BA && a != HY) return true;
+    // LB13
+    if (b == CL || b == CP || b == CW || b == EX || b == IS || b == SY) return true;
+    // LB14
+    if (a == OP || a == OW) return true;
+    // LB15a is handled by State, because it needs the class before QI.
+    // LB16
+    if ((a == CL || a == CP || a == CW) && b == NS) return true;
+    // LB17
+    if (a == B2 && b == B2) return true;
+    // LB18
+    if (spaced) return false;
+    // LB19
+    if (isQuotation(a) || isQuotation(b)) return true;
+    // LB20
+    if (a == CB || b == CB) return false;
+    // LB20a is handled by State, because it needs the class before HY.
+    // LB21
+    if (b == BA || b == HY || b == NS || a == BB) return true;
+    // LB21b
+    if (a == SY && b == HL) return true;
+    // LB22
+    if (b == IN) return true;
+    // LB23
+    if ((a == AL || a == HL) && b == NU) return true;
+    if (a == NU && (b == AL || b == HL)) return true;
+    // LB23a
+    if (a == PR && (b == ID || b == EB || b == EM)) return true;
+    if ((a == ID || a == EB || a == EM) && b == PO) return true;
+    // LB24
+    if ((a == PR || a == PO) && (b == AL || b == HL)) return true;
+    if ((a == AL || a == HL) && (b == PR || b == PO)) return true;
+    // LB25, except the parts after NU (NU | SY | IS)* which are handled by
+    // State.
+    if ((a == PR || a == PO) && (b == OP || b == OW || b == HY || b == NU)) return true;
+    if ((a == OP || a == OW || a == HY || a == IS) && b == NU) return true;
+    if (a == NU && (b == NU || b == SY || b == IS)) return true;
+    // LB26
+    if (a == JL && (b == JL || b == JV || b == H2 || b == H3)) return true;
+    if ((a == JV || a == H2) && (b == JV || b == JT)) return true;
+    if ((a == JT || a == H3) && b == JT) return true;
+    // LB27
+    boolean hangul = (b == JL || b == JV || b == JT || b == H2 || b == H3);
+    if ((a == JL || a == JV || a == JT || a == H2 || a == H3) && b == PO) return true;
+    if (a == PR && hangul) return true;
+    // LB28
+    if ((a == AL || a == HL) && (b == AL || b == HL)) return true;
+    // LB28a
+    if (a == AP && (b == AK || b == AS)) return true;
+    if ((a == AK || a == AS) && (b == VF || b == VI)) return true;
+    // LB29
+    if (a == IS && (b == AL || b == HL)) return true;
+    // LB30
+    if ((a == AL || a == HL || a == NU) && b == OP) return true;
+    if (a == CP && (b == AL || b == HL || b == NU)) return true;
+    // LB30a is handled by State, because it needs the count of RIs.
+    // LB30b
+    if (a == EB && b == EM) return true;
+    // LB31
+    return false;
+  }
+
+  private static boolean isQuotation(int cls) {
+    return cls == QU || cls == QI || cls == QF;
+  }
+
+  /**
+   * Returns the UTF-16 offsets of the specified text where a line can be
+   * broken, excluding zero and including the offsets after mandatory breaks.
+   */
+  static int[] breakOpportunities(String text) {
+    var list = new ArrayList<Integer>();
+    var state = new State();
+    for (int i = 0, n = text.length(); i < n; ) {
+      int cp = text.codePointAt(i);
+      int cls = classOf(cp);
+      int end = i + Character.charCount(cp);
+      if (isMandatory(cls)) {
+        if (cls == CR && end < n && text.charAt(end) == 0x0a) {
+          end++;
+        }
+        list.add(end);
+        state.reset();
+      } else if (state.step(cls) && i > 0) {
+        list.add(i);
+      }
+      i = end;
+    }
+    return list.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  /**
+   * {@code State} is the state machine which tells whether a line can be
+   * broken before each codepoint.
+   */
+  static final class State {
+    int prev = NONE;
+    boolean spaces;
+    boolean zwj;
+    int riCount;
+    boolean hlDash;   // for LB21a: HL (HY | BA) ×
+    boolean initialHyphen; // for LB20a: (sot | SP | ZW | CB | GL) HY ×
+    boolean akVirama; // for LB28a: (AK | AS) VI × AK
+    boolean openQuote; // for LB15a: (sot | OP | QU | GL | SP | ZW) QI SP* ×
+    boolean numeric;  // for LB25: NU (NU | SY | IS)*
+    boolean numericClose; // for LB25: NU (NU | SY | IS)* (CL | CP)
+
+    void reset() {
+      this.prev = NONE;
+      this.spaces = false;
+      this.zwj = false;
+      this.riCount = 0;
+      this.hlDash = false;
+      this.initialHyphen = false;
+      this.akVirama = false;
+      this.openQuote = false;
+      this.numeric = false;
+      this.numericClose = false;
+    }
+
+    /**
+     * Steps with the class of the next codepoint, which must not be a class
+     * of a mandatory break, and returns true if a line can be broken before
+     * that codepoint.
+     */
+    boolean step(int cls) {
+      if (cls == SP) {
+        this.spaces = true;
+        this.zwj = false;
+        return false;
+      }
+
+      int orig = cls;
+      if (cls == CM || cls == ZWJ) {
+        if (this.prev != NONE && this.prev != ZW && !this.spaces) { // LB9
+          this.zwj = (cls == ZWJ);
+          return false;
+        }
+        cls = AL; // LB10
+      }
+
+      boolean brk;
+      int prev = this.prev;
+      if (prev == NONE) {
+        // LB2, and the rules which apply after spaces at the start.
+        brk = this.spaces && pairs[SP * CLASS_COUNT + cls] != PROHIBITED;
+      } else if (prev == QI && this.openQuote) {
+        brk = false;
+      } else if (this.zwj && !this.spaces) {
+        brk = false;
+      } else {
+        byte action = pairs[prev * CLASS_COUNT + cls];
+        brk = (action == DIRECT) || (action == INDIRECT && this.spaces);
+        if (!this.spaces) {
+          if (prev == RI && cls == RI) {
+            brk = (this.riCount % 2) == 0;
+          } else if (this.hlDash || (this.akVirama && cls == AK)) {
+            brk = false;
+          } else if (this.initialHyphen && (cls == AL || cls == HL)) {
+            brk = false;
+          } else if (this.numeric && (cls == NU || cls == SY || cls == IS ||
+              cls == CL || cls == CP || cls == CW)) {
+            brk = false;
+          } else if ((this.numeric || this.numericClose) && (cls == PO || cls == PR)) {
+            brk = false;
+          }
+        }
+      }
+
+      boolean adjacent = (prev != NONE && !this.spaces);
+      this.riCount = (cls == RI) ? (adjacent && prev == RI ? this.riCount + 1 : 1) : 0;
+      this.hlDash = adjacent && prev == HL && (cls == HY || cls == BA);
+      this.initialHyphen = (cls == HY) && (!adjacent ||
+        prev == ZW || prev == CB || prev == GL);
+      this.akVirama = adjacent && (prev == AK || prev == AS) && cls == VI;
+      this.openQuote = (cls == QI) && (prev == NONE || this.spaces ||
+        prev == OP || prev == OW || isQuotation(prev) || prev == GL || prev == ZW);
+      boolean inNumber = adjacent && this.numeric;
+      this.numericClose = inNumber && (cls == CL || cls == CP || cls == CW);
+      this.numeric = (cls == NU) || (inNumber && (cls == SY || cls == IS));
+      this.zwj = (orig == ZWJ);
+      this.prev = cls;
+      this.spaces = false;
+      return brk;
+    }
+  }
+}
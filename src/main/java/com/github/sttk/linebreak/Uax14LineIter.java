@@ -0,0 +1,213 @@
+/*
+ * Uax14LineIter class.
+ * Copyright (C) 2024 Takayuki Sato. All Rights Reserved.
+ */
+package com.github.sttk.linebreak;
+
+import java.util.Iterator;
+
+/**
+ * {@code Uax14LineIter} is the class that outputs the given string line by
+ * line, breaking lines at the line break opportunities of the Unicode Line
+ * Breaking Algorithm (UAX #14) instead of the rules of {@link LineIter}.
+ *
+ * The line break opportunities are found by a state machine which looks up a
+ * precompiled pair table of line break classes once per codepoint.
+ * A line is broken at the last opportunity within the line width, or forcely
+ * at the line width if the line has no opportunity.
+ * Spaces at the end of a line are removed, and spaces at the head of a line
+ * are skipped.
+ * Mandatory breaks are BK, CR, LF, NL and CR LF, which is one break.
+ * The widths are measured per grapheme cluster as {@link Unicode#getTextWidth},
+ * and a line broken forcely is broken before the grapheme cluster which
+ * overflows the line.
+ */
+public class Uax14LineIter implements Iterator<String> {
+
+  private String text;
+  private final int lineWidth;
+  private String indent = "";
+  private int indentWidth = 0;
+  private final Uax14.State state = new Uax14.State();
+  private final Uax29.State grapheme = new Uax29.State();
+  private boolean hasNext = true;
+
+  private int pos;
+  private int lineStart;
+  private int width;
+  private int lastBreak;
+  private int widthAtBreak;
+  private boolean stepped;
+  private boolean steppedBreak;
+  private int steppedWidth;
+  private int clusterStart;
+  private int widthAtCluster;
+
+  /**
+   * Is the constructor that creates a {@code Uax14LineIter} instance which
+   * outputs the given string line by line.
+   *
+   * @param text  A string to be output with line breaking.
+   * @param lineWidth  A width of the output lines.
+   */
+  public Uax14LineIter(String text, int lineWidth) {
+    this.lineWidth = lineWidth;
+    reset(text);
+  }
+
+  /**
+   * Sets an indentation for the subsequent lines.
+   *
+   * @param indent  A string to be used for indentation.
+   */
+  public void setIndent(String indent) {
+    if (indent == null) indent = "";
+    this.indent = indent;
+    this.indentWidth = Unicode.getTextWidth(indent);
+  }
+
+  /**
+   * Re-initializes with an argument string for reusing this instance.
+   *
+   * @param text  A string to be output with line breaking.
+   */
+  public void init(String text) {
+    reset(text);
+  }
+
+  private void reset(String text) {
+    if (text == null) text = "";
+    this.text = text;
+    this.state.reset();
+    this.grapheme.reset();
+    this.hasNext = true;
+    this.pos = 0;
+    this.lineStart = 0;
+    this.width = 0;
+    this.lastBreak = -1;
+    this.stepped = false;
+  }
+
+  /**
+   * Checks whether the remaining string exists or not.
+   *
+   * @return  True if the remaining string exists.
+   */
+  @Override
+  public boolean hasNext() {
+    return this.hasNext;
+  }
+
+  /**
+   * Returns a string of the next line.
+   *
+   * @return  A next line string.
+   */
+  @Override
+  public String next() {
+    String text = this.text;
+    int len = text.length();
+    int limit = this.lineWidth - this.indentWidth;
+
+    while (this.pos < len) {
+      int cp = text.codePointAt(this.pos);
+      int end = this.pos + Character.charCount(cp);
+
+      boolean brk;
+      int cpWidth;
+      if (this.stepped) {
+        // the codepoint which overflowed the previous line is examined again.
+        this.stepped = false;
+        brk = this.steppedBreak;
+        cpWidth = this.steppedWidth;
+      } else {
+        int cls = Uax14.classOf(cp);
+        if (Uax14.isMandatory(cls)) {
+          if (cls == Uax14.CR && end < len && text.charAt(end) == 0x0a) {
+            end++;
+          }
+          String line = lineOf(this.lineStart, this.pos);
+          this.state.reset();
+          this.grapheme.reset();
+          this.pos = end;
+          startLine(end);
+          return line;
+        }
+        brk = this.state.step(cls);
+
+        int step = this.grapheme.step(cp, Unicode.getCodepointWidth(cp));
+        if (Uax29.isBoundary(step)) {
+          this.clusterStart = this.pos;
+          this.widthAtCluster = this.width;
+        }
+        cpWidth = Uax29.width(step);
+      }
+
+      boolean space = Unicode.isSpace(cp);
+      if (space && this.pos == this.lineStart) {
+        this.pos = end;
+        this.lineStart = end;
+        continue;
+      }
+
+      if (brk && this.pos > this.lineStart) {
+        this.lastBreak = this.pos;
+        this.widthAtBreak = this.width;
+      }
+
+      if (!space && this.width + cpWidth > limit &&
+          this.clusterStart > this.lineStart) {
+        String line;
+        if (this.lastBreak > this.lineStart) {
+          line = lineOf(this.lineStart, this.lastBreak);
+          this.width -= this.widthAtBreak;
+          this.widthAtCluster -= this.widthAtBreak;
+          this.lineStart = this.lastBreak;
+        } else {
+          line = lineOf(this.lineStart, this.clusterStart);
+          this.width -= this.widthAtCluster;
+          this.widthAtCluster = 0;
+          this.lineStart = this.clusterStart;
+        }
+        this.lastBreak = -1;
+        this.stepped = true;
+        this.steppedBreak = brk;
+        this.steppedWidth = cpWidth;
+        return line;
+      }
+
+      this.width += cpWidth;
+      this.pos = end;
+    }
+
+    this.hasNext = false;
+    return lineOf(this.lineStart, len);
+  }
+
+  private void startLine(int start) {
+    this.lineStart = start;
+    this.width = 0;
+    this.lastBreak = -1;
+  }
+
+  private String lineOf(int start, int end) {
+    while (start < end) {
+      int cp = this.text.codePointAt(start);
+      if (!Unicode.isSpace(cp)) {
+        break;
+      }
+      start += Character.charCount(cp);
+    }
+    while (end > start) {
+      int cp = this.text.codePointBefore(end);
+      if (!Unicode.isSpace(cp)) {
+        break;
+      }
+      end -= Character.charCount(cp);
+    }
+    if (end <= start) {
+      return "";
+    }
+    return this.indent + this.text.substring(start, end);
+  }
+}
@@ -0,0 +1,292 @@
+/*
+ * Uax29 class.
+ * Copyright (C) 2024 Takayuki Sato. All Rights Reserved.
+ */
+package com.github.sttk.linebreak;
+
+import java.util.ArrayList;
+
+/**
+ * {@code Uax29} is the implementation of the extended grapheme cluster
+ * boundaries of the Unicode Text Segmentation (UAX #29), and of the display
+ * widths of the grapheme clusters.
+ *
+ * The properties used by the rules, which are Grapheme_Cluster_Break,
+ * Extended_Pictographic and Indic_Conjunct_Break, are packed into a byte per
+ * codepoint and held in a two-stage table of {@link UnicodeData}.
+ * A {@link State} looks up the table once per codepoint, and keeps what the
+ * rules GB9c, GB11 and GB12/GB13 need of the preceding codepoints.
+ * Because most codepoints have none of these properties, which is flagged in
+ * {@link CodepointTable}, callers which have looked up that table pass
+ * {@link #OTHER} for them instead of looking up this table again.
+ *
+ * The width of a grapheme cluster is the width of its first codepoint plus
+ * the widths of the spacing marks and the other non-extending codepoints
+ * joined to it.
+ * Extending codepoints (Extend and ZWJ), conjoining Hangul jamos following
+ * the leading jamo and pictographs joined by ZWJ add no width, except that
+ * VS16 (U+FE0F) makes an emoji or a keycap base of width one two columns
+ * wide.
+ * Because this width never decreases by a joined codepoint, a State gives
+ * the width added by each codepoint, and the width of a text is the sum of
+ * them.
+ */
+final class Uax29 {
+
+  // The values of Grapheme_Cluster_Break.
+  static final int OTHER = 0;
+  static final int CR = 1;
+  static final int LF = 2;
+  static final int CONTROL = 3;
+  static final int EXTEND = 4;
+  static final int ZWJ = 5;
+  static final int RI = 6;
+  static final int PREPEND = 7;
+  static final int SPACING_MARK = 8;
+  static final int L = 9;
+  static final int V = 10;
+  static final int T = 11;
+  static final int LV = 12;
+  static final int LVT = 13;
+  static final int EXTEND_SPACING = 14; // Extend which is Mc or Lm.
+
+  static final int GCB_MASK = 0x0f;
+  static final int EXT_PICT_FLAG = 0x10;
+  static final int INCB_SHIFT = 5;
+  static final int INCB_MASK = 0x03;
+
+  // The values of Indic_Conjunct_Break.
+  static final int INCB_NONE = 0;
+  static final int INCB_CONSONANT = 1;
+  static final int INCB_LINKER = 2;
+  static final int INCB_EXTEND = 3;
+
+  static final int VS16 = 0xfe0f;
+
+  private static final int NONE = -1;
+
+  private static final char[] stage1 = UnicodeData.GRAPHEME.stage1;
+  private static final byte[] stage2 = UnicodeData.GRAPHEME.stage2;
+  private Uax29() {}
+
+  /**
+   * Returns the packed grapheme cluster break properties of the specified
+   * codepoint.
+   */
+  static int propsOf(int codepoint) {
+    if (codepoint < 0 || codepoint > CodepointTable.MAX_CODEPOINT) {
+      return OTHER;
+    }
+    int block = stage1[codepoint >>> UnicodeData.BLOCK_SHIFT];
+    return stage2[(block << UnicodeData.BLOCK_SHIFT) |
+      (codepoint & UnicodeData.BLOCK_MASK)];
+  }
+
+  static int gcb(int props) {
+    return props & GCB_MASK;
+  }
+
+  static boolean isExtPict(int props) {
+    return (props & EXT_PICT_FLAG) != 0;
+  }
+
+  static int incb(int props) {
+    return (props >>> INCB_SHIFT) & INCB_MASK;
+  }
+
+  private static boolean isHangul(int gcb) {
+    return L <= gcb && gcb <= LVT;
+  }
+
+  private static boolean isExtend(int gcb) {
+    return gcb == EXTEND || gcb == EXTEND_SPACING;
+  }
+
+  /**
+   * Returns the UTF-16 offsets of the specified text where grapheme clusters
+   * end.
+   */
+  static int[] clusterBoundaries(String text) {
+    var list = new ArrayList<Integer>();
+    var state = new State();
+    for (int i = 0, n = text.length(); i < n; ) {
+      int cp = text.codePointAt(i);
+      if (isBoundary(state.step(cp, 0)) && i > 0) {
+        list.add(i);
+      }
+      i += Character.charCount(cp);
+    }
+    if (!text.isEmpty()) {
+      list.add(text.length());
+    }
+    return list.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  /**
+   * Returns true if the result of {@link State#step} means that the stepped
+   * codepoint starts a new grapheme cluster.
+   */
+  static boolean isBoundary(int result) {
+    return (result & 1) != 0;
+  }
+
+  /**
+   * Returns the width added to the current grapheme cluster in the result of
+   * {@link State#step}.
+   */
+  static int width(int result) {
+    return result >> 1;
+  }
+
+  /**
+   * {@code State} is the state machine which tells whether a grapheme
+   * cluster boundary is before each codepoint, and the width added by it.
+   */
+  static final class State {
+    int prev = NONE;
+    boolean riOdd;     // for GB12, GB13: an odd number of RIs precede.
+    byte emoji;        // for GB11: 1 after ExtPict Extend*, 2 after its ZWJ.
+    byte conjunct;     // for GB9c: 1 after a consonant, 2 after its linker.
+    boolean emojiBase; // the cluster starts with an emoji or a keycap base.
+    int width;         // the width of the current cluster.
+
+    void reset() {
+      this.prev = NONE;
+      this.riOdd = false;
+      this.emoji = 0;
+      this.conjunct = 0;
+      this.emojiBase = false;
+      this.width = 0;
+    }
+
+    /**
+     * Returns true if the last codepoint is Prepend, after which a codepoint
+     * of which the properties are {@link #OTHER} does not start a new grapheme
+     * cluster.
+     */
+    boolean isAfterPrepend() {
+      return this.prev == PREPEND;
+    }
+
+    /**
+     * Returns this state packed into a long value.
+     */
+    long pack() {
+      long bits = (this.prev + 1) | (this.riOdd ? 0x10 : 0) |
+        (this.emoji << 5) | (this.conjunct << 7) | (this.emojiBase ? 0x200 : 0);
+      return ((long) this.width << 32) | bits;
+    }
+
+    /**
+     * Restores this state from a long value returned by {@link #pack}.
+     */
+    void unpack(long packed) {
+      int bits = (int) packed;
+      this.prev = (bits & 0x0f) - 1;
+      this.riOdd = (bits & 0x10) != 0;
+      this.emoji = (byte) ((bits >>> 5) & 0x03);
+      this.conjunct = (byte) ((bits >>> 7) & 0x03);
+      this.emojiBase = (bits & 0x200) != 0;
+      this.width = (int) (packed >>> 32);
+    }
+
+    /**
+     * Steps with the next codepoint and its width, and returns the result
+     * which tells whether the codepoint starts a new grapheme cluster and the
+     * width added by it.
+     *
+     * @see Uax29#isBoundary(int)
+     * @see Uax29#width(int)
+     */
+    int step(int codepoint, int cpWidth) {
+      return step(codepoint, propsOf(codepoint), cpWidth);
+    }
+
+    /**
+     * Steps with the next codepoint, its packed grapheme cluster break
+     * properties and its width.
+     *
+     * @see #step(int, int)
+     */
+    int step(int codepoint, int props, int cpWidth) {
+      int gcb = props & GCB_MASK;
+      int prev = this.prev;
+
+      boolean brk;
+      int added = cpWidth;
+      if (props == OTHER && prev != PREPEND) {
+        brk = true; // fast path: no rule joins it to the preceding ones.
+      } else if (prev == NONE) {
+        brk = true; // GB1
+      } else if (prev == CR && gcb == LF) {
+        brk = false; // GB3
+      } else if (prev == CR || prev == LF || prev == CONTROL) {
+        brk = true; // GB4
+      } else if (gcb == CR || gcb == LF || gcb == CONTROL) {
+        brk = true; // GB5
+      } else if (isHangul(prev) && isHangul(gcb) && (
+          (prev == L && gcb != T) || // GB6
+          ((prev == LV || prev == V) && (gcb == V || gcb == T)) || // GB7
+          ((prev == LVT || prev == T) && gcb == T))) { // GB8
+        brk = false;
+        added = 0;
+      } else if (isExtend(gcb) || gcb == ZWJ) {
+        brk = false; // GB9
+        if (gcb != EXTEND_SPACING) {
+          added = 0;
+          if (codepoint == VS16 && this.emojiBase && this.width < 2) {
+            added = 2 - this.width;
+          }
+        }
+      } else if (gcb == SPACING_MARK || prev == PREPEND) {
+        brk = false; // GB9a, GB9b
+      } else if (this.conjunct == 2 && incb(props) == INCB_CONSONANT) {
+        brk = false; // GB9c
+      } else if (this.emoji == 2 && isExtPict(props)) {
+        brk = false; // GB11
+        added = 0;
+      } else if (prev == RI && gcb == RI && this.riOdd) {
+        brk = false; // GB12, GB13
+      } else {
+        brk = true; // GB999
+      }
+
+      if (props == OTHER) {
+        this.riOdd = false;
+        this.emoji = 0;
+        this.conjunct = 0;
+      } else {
+        this.riOdd = (gcb == RI) && !(prev == RI && this.riOdd);
+        if (isExtPict(props)) {
+          this.emoji = 1;
+        } else if (this.emoji == 1 && gcb == ZWJ) {
+          this.emoji = 2;
+        } else if (this.emoji != 1 || !isExtend(gcb)) {
+          this.emoji = 0;
+        }
+        int incb = incb(props);
+        if (incb == INCB_CONSONANT) {
+          this.conjunct = 1;
+        } else if (this.conjunct != 0 && incb == INCB_LINKER) {
+          this.conjunct = 2;
+        } else if (incb != INCB_EXTEND) {
+          this.conjunct = 0;
+        }
+      }
+      this.prev = gcb;
+
+      if (brk) {
+        this.emojiBase = isExtPict(props) || isKeycapBase(codepoint);
+        this.width = cpWidth;
+        return (cpWidth << 1) | 1;
+      }
+      this.width += added;
+      return added << 1;
+    }
+  }
+
+  private static boolean isKeycapBase(int codepoint) {
+    return ('0' <= codepoint && codepoint <= '9') ||
+      codepoint == '#' || codepoint == '*';
+  }
+}
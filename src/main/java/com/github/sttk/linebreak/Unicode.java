@@ -4,10 +4,8 @@
  */
 package com.github.sttk.linebreak;
 
-import com.ibm.icu.lang.CharacterProperties;
-import com.ibm.icu.lang.UCharacter.EastAsianWidth;
-import com.ibm.icu.lang.UProperty;
-import com.ibm.icu.util.CodePointMap;
+import java.util.List;
+import java.util.Objects;
 
 /**
  * {@code Unicode} is the class that provides static methods to operate or
@@ -15,9 +13,6 @@ import com.ibm.icu.util.CodePointMap;
  */
 public final class Unicode {
 
-  private static final CodePointMap eastAsianWidthMap =
-    CharacterProperties.getIntPropertyMap(UProperty.EAST_ASIAN_WIDTH);
-
   private Unicode() {}
 
   /**
@@ -28,18 +23,7 @@ public final class Unicode {
    * @return  True, if the codepoint is a space character.
    */
   public static boolean isSpace(int codepoint) {
-    if (0x09 <= codepoint && codepoint <= 0x0d) {
-      return true;
-    }
-    return switch (codepoint) {
-      case 0x20, 0x85 -> true;
-      default -> switch (Character.getType(codepoint)) {
-        case Character.SPACE_SEPARATOR,
-             Character.LINE_SEPARATOR,
-             Character.PARAGRAPH_SEPARATOR -> true;
-        default -> false;
-      };
-    };
+    return CodepointTable.isSpace(CodepointTable.get(codepoint));
   }
 
   /**
@@ -83,7 +67,7 @@ public final class Unicode {
   }
 
   static int getEastAsianWidth(int codepoint) {
-    return eastAsianWidthMap.get(codepoint);
+    return UnicodeData.EAST_ASIAN_WIDTH.get(codepoint);
   }
 
   /**
@@ -91,22 +75,16 @@ public final class Unicode {
    * A display width is determined by the Unicode Standard Annex #11 (UAX11)
    * East-Asian-Width.
    *
+   * This is the width of the codepoint by itself.
+   * The width of a combining mark, an emoji sequence or a flag, which is a
+   * grapheme cluster of multiple codepoints, is given by
+   * {@link #getTextWidth(String)}.
+   *
    * @param codepoint  An Unicode codepoint.
    * @return  A codepoint display width.
    */
   public static int getCodepointWidth(int codepoint) {
-    if (! isPrint(codepoint)) {
-      return 0;
-    }
-
-    return switch (eastAsianWidthMap.get(codepoint)) {
-      case EastAsianWidth.NARROW,
-           EastAsianWidth.HALFWIDTH,
-           EastAsianWidth.NEUTRAL -> 1;
-      case EastAsianWidth.WIDE,
-           EastAsianWidth.FULLWIDTH -> 2;
-      default /* AMBIGUOUS */ -> 2;
-    };
+    return CodepointTable.width(CodepointTable.get(codepoint));
   }
 
   /**
@@ -114,6 +92,12 @@ public final class Unicode {
    * The display width is calculated by taking into account the letter width
    * determined by the Unicode Standard Annex #11 (UAX11) East-Asian-Width.
    *
+   * The width is summed up per extended grapheme cluster of the Unicode
+   * Standard Annex #29 (UAX29).
+   * Combining marks, ZWJ and emoji modifiers add no width to the character
+   * before them, so an emoji ZWJ sequence or a flag is two columns wide, and
+   * a variation selector VS16 makes a text-style emoji two columns wide.
+   *
    * @param text  A text of which the width is calculated.
    * @return  A text display width.
    */
@@ -121,14 +105,268 @@ public final class Unicode {
     if (text == null) {
       return 0;
     }
+    return textWidth(text, 0, text.length());
+  }
+
+  /**
+   * Returns the display width of the specified range of the text.
+   * This method does not create any substring.
+   * The only object which it creates is a small state of grapheme clusters,
+   * which can be removed by the JIT compiler when the texts measured have no
+   * codepoint which can join others, such as a combining mark or ZWJ.
+   *
+   * A surrogate pair which is split by the start or the end of the range is
+   * measured as lone surrogates, of which the widths are zero.
+   *
+   * @param text  A text of which the width is calculated. If null, this
+   *   method returns zero for an empty range.
+   * @param start  The start index of the range, inclusive.
+   * @param end  The end index of the range, exclusive.
+   * @return  A display width of the range.
+   * @throws IndexOutOfBoundsException  If the range is out of the text.
+   */
+  public static int getTextWidth(CharSequence text, int start, int end) {
+    Objects.checkFromToIndex(start, end, (text != null) ? text.length() : 0);
+    if (text instanceof String s) {
+      return textWidth(s, start, end);
+    }
+    if (text == null) {
+      return 0;
+    }
+    return textWidth(text, start, end);
+  }
+
+  /**
+   * Returns the display widths of the specified texts.
+   *
+   * @param texts  An array of texts. A null element is measured as an
+   *   empty text.
+   * @return  An array of the display widths of the texts.
+   */
+  public static int[] getTextWidths(CharSequence[] texts) {
+    var widths = new int[texts.length];
+    getTextWidths(texts, widths);
+    return widths;
+  }
+
+  /**
+   * Stores the display widths of the specified texts into the specified
+   * array, without creating any object other than a state of grapheme
+   * clusters, as {@link #getTextWidth(CharSequence, int, int)}.
+   *
+   * @param texts  An array of texts. A null element is measured as an
+   *   empty text.
+   * @param widths  An array to store the display widths, of which the length
+   *   is the number of the texts or more.
+   * @throws IndexOutOfBoundsException  If {@code widths} is shorter than
+   *   {@code texts}.
+   */
+  public static void getTextWidths(CharSequence[] texts, int[] widths) {
+    Objects.checkFromIndexSize(0, texts.length, widths.length);
+    for (int i = 0; i < texts.length; i++) {
+      widths[i] = width(texts[i]);
+    }
+  }
+
+  /**
+   * Returns the display widths of the texts in the specified list.
+   *
+   * @param texts  A list of texts. A null element is measured as an empty
+   *   text.
+   * @return  An array of the display widths of the texts.
+   */
+  public static int[] getTextWidths(List<? extends CharSequence> texts) {
+    var widths = new int[texts.size()];
+    int i = 0;
+    for (var text : texts) {
+      widths[i++] = width(text);
+    }
+    return widths;
+  }
+
+  /**
+   * Returns the cumulative display widths of the specified text.
+   * The element at an index {@code i} of the returned array is the display
+   * width of the text from the start to {@code i}, so the width of a range
+   * from {@code a} to {@code b} is {@code widths[b] - widths[a]} unless the
+   * range splits a surrogate pair or a grapheme cluster.
+   * Each codepoint in a grapheme cluster is given the width which it adds to
+   * the cluster, as in {@link #getTextWidth(String)}.
+   *
+   * @param text  A text. If null, it is treated as an empty text.
+   * @return  An array of the cumulative widths, of which the length is the
+   *   length of the text plus one.
+   */
+  public static int[] getCumulativeWidths(CharSequence text) {
+    int n = (text != null) ? text.length() : 0;
+    var widths = new int[n + 1];
+    if (n > 0) {
+      getCumulativeWidths(text, 0, n, widths);
+    }
+    return widths;
+  }
+
+  /**
+   * Stores the cumulative display widths of the specified range of the text
+   * into the specified array, without creating any object other than a
+   * state of grapheme clusters, as
+   * {@link #getTextWidth(CharSequence, int, int)}.
+   * The element at an index {@code i} of the array is set to the display
+   * width of the text from {@code start} to {@code start + i}.
+   * Both chars of a surrogate pair are given to the codepoint, so the
+   * element at the index between them is the width before the pair.
+   *
+   * @param text  A text.
+   * @param start  The start index of the range, inclusive.
+   * @param end  The end index of the range, exclusive.
+   * @param widths  An array to store the cumulative widths, of which the
+   *   length is {@code end - start + 1} or more.
+   * @throws IndexOutOfBoundsException  If the range is out of the text, or
+   *   {@code widths} is too short.
+   */
+  public static void getCumulativeWidths(
+    CharSequence text, int start, int end, int[] widths
+  ) {
+    Objects.checkFromToIndex(start, end, text.length());
+    Objects.checkIndex(end - start, widths.length);
+
+    final byte[] latin1 = CodepointTable.latin1();
+
+    var state = new Uax29.State();
+    int last = -1;
+    int lastWidth = 0;
+    int w = 0;
+    widths[0] = 0;
+    for (int i = start; i < end; ) {
+      char ch = text.charAt(i);
+      int cp, props;
+      if (ch < CodepointTable.LATIN1_SIZE) {
+        cp = ch;
+        props = latin1[ch];
+      } else {
+        cp = codepointAt(text, i, end);
+        props = CodepointTable.get(cp);
+        if (cp != ch) {
+          widths[++i - start] = w;
+        }
+      }
+      int cpWidth = CodepointTable.width(props);
+      if (!CodepointTable.hasGraphemeProps(props) &&
+          (last >= 0 || !state.isAfterPrepend())) {
+        w += cpWidth;
+        last = cp;
+        lastWidth = cpWidth;
+      } else {
+        if (last >= 0) {
+          state.step(last, Uax29.OTHER, lastWidth);
+          last = -1;
+        }
+        w += Uax29.width(state.step(cp, cpWidth));
+      }
+      widths[++i - start] = w;
+    }
+  }
+
+  private static int width(CharSequence text) {
+    if (text == null) {
+      return 0;
+    }
+    if (text instanceof String s) {
+      return textWidth(s, 0, s.length());
+    }
+    return textWidth(text, 0, text.length());
+  }
+
+  // The loop for a String is separated from the one for a CharSequence to keep
+  // the call of charAt monomorphic.
+  // A codepoint which no rule of UAX #29 joins to the preceding ones starts a
+  // new grapheme cluster of its own width, so the state of grapheme clusters
+  // is stepped only when other codepoints appear.
+  // The state does not escape from this method until it is stepped, so the
+  // allocation of it is removed by escape analysis while such codepoints do
+  // not appear.
+  private static int textWidth(String text, int start, int end) {
+    final byte[] latin1 = CodepointTable.latin1();
+
+    var state = new Uax29.State();
+    int last = -1; // the last codepoint which is not stepped by the state.
+    int lastWidth = 0;
+    int w = 0;
+    for (int i = start; i < end; ) {
+      char ch = text.charAt(i);
+      int cp, props;
+      if (ch < CodepointTable.LATIN1_SIZE) {
+        cp = ch;
+        props = latin1[ch];
+        i++;
+      } else {
+        cp = codepointAt(text, i, end);
+        props = CodepointTable.get(cp);
+        i += Character.charCount(cp);
+      }
+      int cpWidth = CodepointTable.width(props);
+      if (!CodepointTable.hasGraphemeProps(props) &&
+          (last >= 0 || !state.isAfterPrepend())) {
+        w += cpWidth;
+        last = cp;
+        lastWidth = cpWidth;
+        continue;
+      }
+      if (last >= 0) {
+        state.step(last, Uax29.OTHER, lastWidth);
+        last = -1;
+      }
+      w += Uax29.width(state.step(cp, cpWidth));
+    }
+    return w;
+  }
 
-    final CodepointScanner scanner = new CodepointScanner();
-    scanner.setText(text);
+  private static int textWidth(CharSequence text, int start, int end) {
+    final byte[] latin1 = CodepointTable.latin1();
 
+    var state = new Uax29.State();
+    int last = -1; // the last codepoint which is not stepped by the state.
+    int lastWidth = 0;
     int w = 0;
-    while (scanner.hasNext()) {
-      w += getCodepointWidth(scanner.next());
+    for (int i = start; i < end; ) {
+      char ch = text.charAt(i);
+      int cp, props;
+      if (ch < CodepointTable.LATIN1_SIZE) {
+        cp = ch;
+        props = latin1[ch];
+        i++;
+      } else {
+        cp = codepointAt(text, i, end);
+        props = CodepointTable.get(cp);
+        i += Character.charCount(cp);
+      }
+      int cpWidth = CodepointTable.width(props);
+      if (!CodepointTable.hasGraphemeProps(props) &&
+          (last >= 0 || !state.isAfterPrepend())) {
+        w += cpWidth;
+        last = cp;
+        lastWidth = cpWidth;
+        continue;
+      }
+      if (last >= 0) {
+        state.step(last, Uax29.OTHER, lastWidth);
+        last = -1;
+      }
+      w += Uax29.width(state.step(cp, cpWidth));
     }
     return w;
   }
+
+  // Returns the codepoint at the index, of which a surrogate pair is not
+  // beyond the end.
+  private static int codepointAt(CharSequence text, int index, int end) {
+    char hi = text.charAt(index);
+    if (Character.isHighSurrogate(hi) && index + 1 < end) {
+      char lo = text.charAt(index + 1);
+      if (Character.isLowSurrogate(lo)) {
+        return Character.toCodePoint(hi, lo);
+      }
+    }
+    return hi;
+  }
 }
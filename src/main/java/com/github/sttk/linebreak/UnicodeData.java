@@ -0,0 +1,111 @@
+/*
+ * UnicodeData class.
+ * Copyright (C) 2024 Takayuki Sato. All Rights Reserved.
+ */
+package com.github.sttk.linebreak;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * {@code UnicodeData} holds the Unicode property tables which are generated
+ * at build time from the Unicode Character Database and embedded in this
+ * library as a resource.
+ *
+ * The resource is generated by {@code UnicodeDataGenerator} in the test
+ * sources, which reads the properties with ICU4J, so ICU4J is not needed at
+ * runtime.
+ * Each table is a two-stage lookup table of which the first stage is indexed
+ * by the upper bits of a codepoint and points to a block of the second
+ * stage, and identical blocks are shared.
+ */
+final class UnicodeData {
+
+  static final String RESOURCE = "unicode.dat";
+  static final int MAGIC = 0x4c425544; // "LBUD"
+  static final int VERSION = 2;
+
+  // The values of East Asian Width, which are the same as those of ICU4J.
+  static final int EAW_NEUTRAL = 0;
+  static final int EAW_AMBIGUOUS = 1;
+  static final int EAW_HALFWIDTH = 2;
+  static final int EAW_FULLWIDTH = 3;
+  static final int EAW_NARROW = 4;
+  static final int EAW_WIDE = 5;
+
+  static final int MAX_CODEPOINT = 0x10ffff;
+
+  static final int BLOCK_SHIFT = 7;
+  static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+  static final int BLOCK_MASK = BLOCK_SIZE - 1;
+
+  /** The packed properties of {@link CodepointTable}. */
+  static final Table PROPS;
+  /** The East Asian Width property. */
+  static final Table EAST_ASIAN_WIDTH;
+  /** The line break classes of {@link Uax14}, resolved by the rule LB1. */
+  static final Table LINE_BREAK;
+  /** The grapheme cluster break properties of {@link Uax29}. */
+  static final Table GRAPHEME;
+
+  static {
+    var stream = UnicodeData.class.getResourceAsStream(RESOURCE);
+    if (stream == null) {
+      throw new IllegalStateException("Resource not found: " + RESOURCE);
+    }
+    try (var in = new DataInputStream(new BufferedInputStream(
+        new GZIPInputStream(stream)))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        throw new IllegalStateException("Bad resource: " + RESOURCE);
+      }
+      PROPS = Table.read(in);
+      EAST_ASIAN_WIDTH = Table.read(in);
+      LINE_BREAK = Table.read(in);
+      GRAPHEME = Table.read(in);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private UnicodeData() {}
+
+  /**
+   * {@code Table} is a two-stage lookup table of byte values.
+   * The tables are built and written by {@code UnicodeDataGenerator}, and
+   * this class only reads them.
+   */
+  static final class Table {
+    final char[] stage1;
+    final byte[] stage2;
+
+    Table(char[] stage1, byte[] stage2) {
+      this.stage1 = stage1;
+      this.stage2 = stage2;
+    }
+
+    /**
+     * Returns the value of the specified codepoint, or zero if the codepoint
+     * is out of the Unicode range.
+     */
+    int get(int codepoint) {
+      if (codepoint < 0 || codepoint > MAX_CODEPOINT) {
+        return 0;
+      }
+      int block = this.stage1[codepoint >>> BLOCK_SHIFT];
+      return this.stage2[(block << BLOCK_SHIFT) | (codepoint & BLOCK_MASK)];
+    }
+
+    static Table read(DataInputStream in) throws IOException {
+      var stage1 = new char[in.readInt()];
+      for (int i = 0; i < stage1.length; i++) {
+        stage1[i] = in.readChar();
+      }
+      var stage2 = new byte[in.readInt()];
+      in.readFully(stage2);
+      return new Table(stage1, stage2);
+    }
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Utf8 class.
+ * Copyright (C) 2024 Takayuki Sato. All Rights Reserved.
+ */
+package com.github.sttk.linebreak;
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@code Utf8} provides static methods to decode and encode UTF-8 byte
+ * sequences without going through {@link String}.
+ */
+final class Utf8 {
+
+  static final int REPLACEMENT_CHARACTER = 0xfffd;
+
+  private Utf8() {}
+
+  /**
+   * Returns the byte count of the sequence starting with the specified lead
+   * byte, or zero if it cannot be a lead byte.
+   */
+  static int sequenceLength(int lead) {
+    if (lead < 0x80) {
+      return 1;
+    } else if (lead < 0xc2) {
+      return 0;
+    } else if (lead < 0xe0) {
+      return 2;
+    } else if (lead < 0xf0) {
+      return 3;
+    } else if (lead < 0xf5) {
+      return 4;
+    }
+    return 0;
+  }
+
+  /**
+   * Decodes the sequence of the specified length at the specified index.
+   * Returns -1 if the sequence is malformed, overlong or a surrogate.
+   */
+  static int decode(ByteBuffer buf, int index, int len) {
+    int b0 = buf.get(index) & 0xff;
+    switch (len) {
+    case 1:
+      return b0;
+    case 2: {
+      int b1 = buf.get(index + 1) & 0xff;
+      if ((b1 & 0xc0) != 0x80) {
+        return -1;
+      }
+      return ((b0 & 0x1f) << 6) | (b1 & 0x3f);
+    }
+    case 3: {
+      int b1 = buf.get(index + 1) & 0xff;
+      int b2 = buf.get(index + 2) & 0xff;
+      if ((b1 & 0xc0) != 0x80 || (b2 & 0xc0) != 0x80) {
+        return -1;
+      }
+      int cp = ((b0 & 0x0f) << 12) | ((b1 & 0x3f) << 6) | (b2 & 0x3f);
+      if (cp < 0x800 || (0xd800 <= cp && cp <= 0xdfff)) {
+        return -1;
+      }
+      return cp;
+    }
+    case 4: {
+      int b1 = buf.get(index + 1) & 0xff;
+      int b2 = buf.get(index + 2) & 0xff;
+      int b3 = buf.get(index + 3) & 0xff;
+      if ((b1 & 0xc0) != 0x80 || (b2 & 0xc0) != 0x80 || (b3 & 0xc0) != 0x80) {
+        return -1;
+      }
+      int cp = ((b0 & 0x07) << 18) | ((b1 & 0x3f) << 12) |
+        ((b2 & 0x3f) << 6) | (b3 & 0x3f);
+      if (cp < 0x10000 || cp > 0x10ffff) {
+        return -1;
+      }
+      return cp;
+    }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the byte count of the UTF-8 encoding of the specified codepoint.
+   */
+  static int encodedLength(int codepoint) {
+    if (codepoint < 0x80) {
+      return 1;
+    } else if (codepoint < 0x800) {
+      return 2;
+    } else if (codepoint < 0x10000) {
+      return 3;
+    }
+    return 4;
+  }
+
+  /**
+   * Writes the UTF-8 encoding of the specified codepoint into the buffer,
+   * which must have at least four bytes remaining.
+   */
+  static void encode(int codepoint, ByteBuffer out) {
+    if (codepoint < 0x80) {
+      out.put((byte) codepoint);
+    } else if (codepoint < 0x800) {
+      out.put((byte) (0xc0 | (codepoint >> 6)));
+      out.put((byte) (0x80 | (codepoint & 0x3f)));
+    } else if (codepoint < 0x10000) {
+      out.put((byte) (0xe0 | (codepoint >> 12)));
+      out.put((byte) (0x80 | ((codepoint >> 6) & 0x3f)));
+      out.put((byte) (0x80 | (codepoint & 0x3f)));
+    } else {
+      out.put((byte) (0xf0 | (codepoint >> 18)));
+      out.put((byte) (0x80 | ((codepoint >> 12) & 0x3f)));
+      out.put((byte) (0x80 | ((codepoint >> 6) & 0x3f)));
+      out.put((byte) (0x80 | (codepoint & 0x3f)));
+    }
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Utf8LineIter class.
+ * Copyright (C) 2024 Takayuki Sato. All Rights Reserved.
+ */
+package com.github.sttk.linebreak;
+
+import com.github.sttk.linebreak.LineBoundaryIter.Boundary;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+
+/**
+ * {@code Utf8LineIter} is the class that breaks a UTF-8 encoded text into
+ * lines and outputs them as slices of the input bytes.
+ * The codepoints are decoded directly from the input bytes and classified in
+ * the same way as {@link LineIter}, without converting the text into a
+ * {@link String}.
+ *
+ * Each output slice shares its content with the input buffer and covers the
+ * line without the spaces at its head and tail.
+ * Unlike {@link LineIter}, a slice contains the bytes of non-printable
+ * codepoints which are inside the line as they are, and does not contain the
+ * indentation.
+ * The indentation set by {@link #setIndent} is only taken into account for
+ * the line width, so the caller writes it before each non-empty slice.
+ */
+public class Utf8LineIter implements Iterator<ByteBuffer> {
+
+  private ByteBuffer bytes;
+  private final ByteBufferCodepointScanner scanner;
+  private final LineIter iter;
+
+  /**
+   * Is the constructor that creates a {@code Utf8LineIter} instance which
+   * breaks the given UTF-8 bytes into lines.
+   *
+   * @param bytes  A UTF-8 encoded text.
+   * @param lineWidth  A width of the output lines.
+   */
+  public Utf8LineIter(byte[] bytes, int lineWidth) {
+    this(ByteBuffer.wrap(bytes != null ? bytes : new byte[0]), lineWidth);
+  }
+
+  /**
+   * Is the constructor that creates a {@code Utf8LineIter} instance which
+   * breaks the UTF-8 bytes from the position to the limit of the given
+   * buffer into lines.
+   * The position of the buffer is not changed.
+   *
+   * @param bytes  A buffer of a UTF-8 encoded text.
+   * @param lineWidth  A width of the output lines.
+   */
+  public Utf8LineIter(ByteBuffer bytes, int lineWidth) {
+    this.scanner = new ByteBufferCodepointScanner(bytes);
+    this.bytes = this.scanner.buf;
+    this.iter = new LineIter(this.scanner, lineWidth);
+    this.iter.trackOffsets();
+  }
+
+  /**
+   * Sets an indentation for the subsequent lines.
+   * The indentation is not included in the output slices, but its width is
+   * subtracted from the line width.
+   *
+   * @param indent  A string to be used for indentation.
+   */
+  public void setIndent(String indent) {
+    this.iter.setIndent(indent);
+  }
+
+  /**
+   * Re-initializes with an argument buffer for reusing this instance.
+   *
+   * @param bytes  A buffer of a UTF-8 encoded text.
+   */
+  public void init(ByteBuffer bytes) {
+    this.scanner.setBuffer(bytes);
+    this.bytes = this.scanner.buf;
+    this.iter.initScanner(this.scanner);
+  }
+
+  /**
+   * Checks whether the remaining text exists or not.
+   *
+   * @return  True if the remaining text exists.
+   */
+  @Override
+  public boolean hasNext() {
+    return this.iter.hasNext();
+  }
+
+  /**
+   * Returns a slice of the input bytes which is the next line.
+   *
+   * @return  A {@link ByteBuffer} which shares the content of the next line
+   *   with the input.
+   */
+  @Override
+  public ByteBuffer next() {
+    this.iter.nextLine(null);
+    int start = this.scanner.base + this.iter.lineStart;
+    return this.bytes.slice(start, this.iter.lineTrimmedEnd - this.iter.lineStart);
+  }
+
+  /**
+   * Returns the boundary of the next line as byte offsets from the position
+   * of the input buffer.
+   * This method is an alternative of {@link #next()} which creates no slice.
+   *
+   * @return  A {@link Boundary} of the next line.
+   */
+  public Boundary nextBoundary() {
+    this.iter.nextLine(null);
+    return new Boundary(
+      this.iter.lineStart,
+      this.iter.lineEnd,
+      this.iter.lineTrimmedEnd,
+      this.iter.breakType);
+  }
+}
@@ -0,0 +1,242 @@
+/*
+ * WrapCache class.
+ * Copyright (C) 2024 Takayuki Sato. All Rights Reserved.
+ */
+package com.github.sttk.linebreak;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code WrapCache} is the class that memoizes the lines into which texts are
+ * broken, paragraph by paragraph.
+ *
+ * A text is split into paragraphs at line break characters (LF or CR), and
+ * each paragraph is looked up with its content, the line width and the
+ * indentation.
+ * Since {@link LineIter} resets all its state at a line break character,
+ * the lines joined from the paragraphs are the same as those output by
+ * {@link LineIter} for the whole text, and only the changed paragraphs of a
+ * text are broken again.
+ *
+ * The lines of a paragraph are stored in one string with the end offsets of
+ * the lines.
+ * When the total count of the chars of the stored paragraphs and lines
+ * exceeds the maximum size, the least recently used paragraphs are evicted.
+ * The methods of this class are synchronized.
+ */
+public final class WrapCache {
+
+  private final long maxChars;
+  private long chars;
+  private long hitCount;
+  private long missCount;
+
+  private final LinkedHashMap<Key, Entry> map = new LinkedHashMap<>(16, 0.75f, true);
+
+  /**
+   * Is the constructor that creates a {@code WrapCache} instance of which the
+   * size is bounded by the specified char count.
+   *
+   * @param maxChars  The maximum count of the chars of the stored paragraphs
+   *   and lines.
+   */
+  public WrapCache(long maxChars) {
+    this.maxChars = maxChars;
+  }
+
+  /**
+   * Breaks the specified text into lines within the specified width, using
+   * the memoized lines of the paragraphs which were broken before.
+   *
+   * @param text  A string to be broken into lines.
+   * @param lineWidth  A width of the output lines.
+   * @return  A list of the lines.
+   */
+  public List<String> wrap(String text, int lineWidth) {
+    return wrap(text, lineWidth, "");
+  }
+
+  /**
+   * Breaks the specified text into lines within the specified width with the
+   * indentation prepended to every line, using the memoized lines of the
+   * paragraphs which were broken before.
+   *
+   * @param text  A string to be broken into lines.
+   * @param lineWidth  A width of the output lines including the indentation.
+   * @param indent  A string to be used for indentation of every line.
+   * @return  A list of the lines.
+   */
+  public synchronized List<String> wrap(String text, int lineWidth, String indent) {
+    if (text == null) text = "";
+    if (indent == null) indent = "";
+
+    var lines = new ArrayList<String>();
+    int start = 0;
+    for (int i = 0, n = text.length(); i <= n; i++) {
+      if (i == n || text.charAt(i) == 0x0a || text.charAt(i) == 0x0d) {
+        var key = new Key(text, start, i, lineWidth, indent);
+        var entry = this.map.get(key);
+        if (entry != null) {
+          this.hitCount++;
+        } else {
+          this.missCount++;
+          entry = put(key.copy(), lineWidth, indent);
+        }
+        entry.addLinesTo(lines);
+        start = i + 1;
+      }
+    }
+    return lines;
+  }
+
+  private Entry put(Key key, int lineWidth, String indent) {
+    var iter = new LineIter(key.text, lineWidth);
+    iter.setIndent(indent);
+
+    var sb = new StringBuilder();
+    var ends = new ArrayList<Integer>();
+    while (iter.hasNext()) {
+      iter.nextInto(sb);
+      ends.add(sb.length());
+    }
+    var entry = new Entry(sb.toString(), ends.stream().mapToInt(Integer::intValue).toArray());
+
+    this.map.put(key, entry);
+    this.chars += key.text.length() + entry.lines.length();
+
+    Iterator<Map.Entry<Key, Entry>> it = this.map.entrySet().iterator();
+    while (this.chars > this.maxChars && it.hasNext()) {
+      var e = it.next();
+      if (e.getValue() == entry) {
+        break;
+      }
+      this.chars -= e.getKey().text.length() + e.getValue().lines.length();
+      it.remove();
+    }
+    return entry;
+  }
+
+  /**
+   * Returns the count of the paragraphs of which the lines were found in this
+   * cache.
+   *
+   * @return  The hit count.
+   */
+  public synchronized long getHitCount() {
+    return this.hitCount;
+  }
+
+  /**
+   * Returns the count of the paragraphs of which the lines were not found in
+   * this cache.
+   *
+   * @return  The miss count.
+   */
+  public synchronized long getMissCount() {
+    return this.missCount;
+  }
+
+  /**
+   * Returns the count of the paragraphs stored in this cache.
+   *
+   * @return  The paragraph count.
+   */
+  public synchronized int size() {
+    return this.map.size();
+  }
+
+  /**
+   * Returns the total count of the chars of the stored paragraphs and lines.
+   *
+   * @return  The char count.
+   */
+  public synchronized long charCount() {
+    return this.chars;
+  }
+
+  /**
+   * Removes all paragraphs from this cache and resets the counters.
+   */
+  public synchronized void clear() {
+    this.map.clear();
+    this.chars = 0;
+    this.hitCount = 0;
+    this.missCount = 0;
+  }
+
+  // A key can refer to a range of a text for lookups without copying, and
+  // the key stored in the map refers to a whole string copied from the range.
+  static final class Key {
+    final String text;
+    final int start;
+    final int end;
+    final int lineWidth;
+    final String indent;
+    final int hash;
+
+    Key(String text, int start, int end, int lineWidth, String indent) {
+      this.text = text;
+      this.start = start;
+      this.end = end;
+      this.lineWidth = lineWidth;
+      this.indent = indent;
+
+      int h = 1;
+      for (int i = start; i < end; i++) {
+        h = 31 * h + text.charAt(i);
+      }
+      this.hash = (h * 31 + lineWidth) * 31 + indent.hashCode();
+    }
+
+    private Key(Key key) {
+      this.text = key.text.substring(key.start, key.end);
+      this.start = 0;
+      this.end = this.text.length();
+      this.lineWidth = key.lineWidth;
+      this.indent = key.indent;
+      this.hash = key.hash;
+    }
+
+    Key copy() {
+      return new Key(this);
+    }
+
+    @Override
+    public int hashCode() {
+      return this.hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Key k)) {
+        return false;
+      }
+      int len = this.end - this.start;
+      return this.hash == k.hash && this.lineWidth == k.lineWidth &&
+        len == k.end - k.start && this.indent.equals(k.indent) &&
+        this.text.regionMatches(this.start, k.text, k.start, len);
+    }
+  }
+
+  static final class Entry {
+    final String lines;
+    final int[] ends;
+
+    Entry(String lines, int[] ends) {
+      this.lines = lines;
+      this.ends = ends;
+    }
+
+    void addLinesTo(List<String> list) {
+      int start = 0;
+      for (int end : this.ends) {
+        list.add(this.lines.substring(start, end));
+        start = end;
+      }
+    }
+  }
+}
@@ -8,6 +8,5 @@
  */
 module com.github.sttk.linebreak {
   exports com.github.sttk.linebreak;
-  requires transitive com.ibm.icu;
   requires transitive com.sun.jna;
 }
@@ -0,0 +1,106 @@
+package com.github.sttk.linebreak;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings("missing-explicit-ctor")
+public class AnsiEscapesTest {
+
+  String accepted(String text) {
+    var ansi = new AnsiEscapes();
+    var sb = new StringBuilder();
+    text.codePoints().forEach(cp -> {
+      sb.append(ansi.accept(cp, 0) ? '^' : '.');
+    });
+    return sb.toString();
+  }
+
+  String active(String... escapes) {
+    var ansi = new AnsiEscapes();
+    for (var escape : escapes) {
+      escape.codePoints().forEach(cp -> ansi.accept(cp, 0));
+    }
+    ansi.appendUntil(null, 0);
+    var sb = new StringBuilder();
+    ansi.appendActive(sb);
+    return sb.toString();
+  }
+
+  @Test
+  void testStep() {
+    var ansi = new AnsiEscapes();
+    assertThat(ansi.step('a')).isEqualTo(AnsiEscapes.NOT_ESCAPE);
+    assertThat(ansi.step(0x1b)).isEqualTo(AnsiEscapes.START);
+    assertThat(ansi.inSequence()).isTrue();
+    assertThat(ansi.step('[')).isEqualTo(AnsiEscapes.CONTINUE);
+    assertThat(ansi.step('1')).isEqualTo(AnsiEscapes.CONTINUE);
+    assertThat(ansi.step('m')).isEqualTo(AnsiEscapes.CONTINUE);
+    assertThat(ansi.inSequence()).isFalse();
+    assertThat(ansi.step('m')).isEqualTo(AnsiEscapes.NOT_ESCAPE);
+  }
+
+  @Test
+  void testAccept() {
+    assertThat(accepted("a\u001b[1;31mb")).isEqualTo(".^^^^^^^.");
+    assertThat(accepted("\u009b0mb")).isEqualTo("^^^.");
+    assertThat(accepted("\u001b]8;;x\u0007y")).isEqualTo("^^^^^^^.");
+    assertThat(accepted("\u001b]8;;x\u001b\\y")).isEqualTo("^^^^^^^^.");
+    assertThat(accepted("\u001b]0;あ\u009cy")).isEqualTo("^^^^^^.");
+    assertThat(accepted("\u001b7a\u001b(Bc")).isEqualTo("^^.^^^.");
+    // interrupted sequences.
+    assertThat(accepted("\u001b[31\nb")).isEqualTo("^^^^..");
+    assertThat(accepted("\u001b]8;;x\na")).isEqualTo("^^^^^^..");
+    assertThat(accepted("\u001b\u001b[m")).isEqualTo("^^^^");
+    assertThat(accepted("\u001b]0;x\u001b[1m")).isEqualTo("^^^^^^^^^");
+    assertThat(accepted("\u001bあ")).isEqualTo("^.");
+  }
+
+  @Test
+  void testAppendUntil_and_cr() {
+    var ansi = new AnsiEscapes();
+    "\u001b[1m".codePoints().forEach(cp -> ansi.accept(cp, 0));
+    "\u001b[2m".codePoints().forEach(cp -> ansi.accept(cp, 3));
+    "\u001b[3m".codePoints().forEach(cp -> ansi.accept(cp, 5));
+
+    var sb = new StringBuilder();
+    ansi.appendUntil(sb, 2);
+    assertThat(sb.toString()).isEqualTo("\u001b[1m");
+    ansi.appendUntil(sb, 3);
+    assertThat(sb.toString()).isEqualTo("\u001b[1m\u001b[2m");
+    ansi.cr(3);
+
+    sb.setLength(0);
+    ansi.appendUntil(sb, 1);
+    assertThat(sb.toString()).isEqualTo("");
+    ansi.appendUntil(sb, 2);
+    assertThat(sb.toString()).isEqualTo("\u001b[3m");
+    ansi.cr(2);
+
+    sb.setLength(0);
+    ansi.appendActive(sb);
+    assertThat(sb.toString()).isEqualTo("\u001b[1;2;3m");
+  }
+
+  @Test
+  void testAppendActive() {
+    assertThat(active()).isEqualTo("");
+    assertThat(active("\u001b[1m", "\u001b[31m")).isEqualTo("\u001b[1;31m");
+    assertThat(active("\u001b[1;4:3;31m", "\u001b[0m")).isEqualTo("");
+    assertThat(active("\u001b[1;31m", "\u001b[m")).isEqualTo("");
+    assertThat(active("\u001b[1;2;3m", "\u001b[22m")).isEqualTo("\u001b[3m");
+    assertThat(active("\u001b[4:3m")).isEqualTo("\u001b[4:3m");
+    assertThat(active("\u001b[38;5;208;48;2;1;2;3m"))
+      .isEqualTo("\u001b[38;5;208;48;2;1;2;3m");
+    assertThat(active("\u001b[38:2::1:2:3m", "\u001b[39m")).isEqualTo("");
+    assertThat(active("\u001b[31m", "\u001b[92m")).isEqualTo("\u001b[92m");
+    assertThat(active("\u001b[1m", "\u001b[2J")).isEqualTo("\u001b[1m");
+    assertThat(active("\u001b[?25l")).isEqualTo("");
+    assertThat(active("\u001b]0;title\u001b[1m")).isEqualTo("\u001b[1m");
+
+    var link = "\u001b]8;id=1;https://example.com/\u0007";
+    assertThat(active(link)).isEqualTo(link);
+    assertThat(active("\u001b[1m", link)).isEqualTo("\u001b[1m" + link);
+    assertThat(active(link, "\u001b]8;;\u0007")).isEqualTo("");
+    assertThat(active("\u001b]8;;https://example.com/")).isEqualTo("");
+  }
+}
@@ -0,0 +1,95 @@
+package com.github.sttk.linebreak;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.fail;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+@SuppressWarnings("missing-explicit-ctor")
+public class AsciiScanTest {
+
+  @Test
+  void testScan() {
+    var scan = new AsciiScan(CodepointTable.latin1());
+    var text = "ab cd, ef";
+
+    long r = scan.scan(text, 0, text.length(), null);
+    assertThat(AsciiScan.end(r)).isEqualTo(5);
+    assertThat(AsciiScan.lastSpace(r)).isEqualTo(2);
+
+    r = scan.scan(text, 5, text.length(), null);
+    assertThat(AsciiScan.end(r)).isEqualTo(5);
+    assertThat(AsciiScan.lastSpace(r)).isEqualTo(-1);
+
+    r = scan.scan(text, 6, text.length(), null);
+    assertThat(AsciiScan.end(r)).isEqualTo(9);
+    assertThat(AsciiScan.lastSpace(r)).isEqualTo(6);
+
+    r = scan.scan(text, 0, 2, null);
+    assertThat(AsciiScan.end(r)).isEqualTo(2);
+    assertThat(AsciiScan.lastSpace(r)).isEqualTo(-1);
+
+    r = scan.scan("abcé", 0, 4, null);
+    assertThat(AsciiScan.end(r)).isEqualTo(3);
+  }
+
+  @Test
+  void testOf() {
+    var scan = AsciiScan.of(CodepointTable.latin1());
+    if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+      assertThat(scan.getClass().getSimpleName()).isEqualTo("VectorAsciiScan");
+    } else {
+      assertThat(scan.getClass()).isEqualTo(AsciiScan.class);
+    }
+  }
+
+  @Test
+  void testFindVectorFactory_nativeImage() {
+    var saved = System.getProperty(AsciiScan.IMAGE_CODE_PROPERTY);
+    try {
+      System.setProperty(AsciiScan.IMAGE_CODE_PROPERTY, "buildtime");
+      assertThat(AsciiScan.findVectorFactory()).isNull();
+      System.setProperty(AsciiScan.IMAGE_CODE_PROPERTY, "runtime");
+      assertThat(AsciiScan.findVectorFactory()).isNull();
+    } finally {
+      if (saved == null) {
+        System.clearProperty(AsciiScan.IMAGE_CODE_PROPERTY);
+      } else {
+        System.setProperty(AsciiScan.IMAGE_CODE_PROPERTY, saved);
+      }
+    }
+  }
+
+  @Test
+  void testOf_sameAsScalar() {
+    var rules = KinsokuRules.builder()
+      .lineStartProhibited("x-").lineEndProhibited("#").build();
+    var chars = "abcdefghij     ,.()\"'!?x-#~\t\néあ";
+    var rnd = new Random(1);
+
+    for (var latin1 : new byte[][]{ CodepointTable.latin1(), rules.latin1() }) {
+      var scalar = new AsciiScan(latin1);
+      var scan = AsciiScan.of(latin1);
+
+      for (int t = 0; t < 2000; t++) {
+        var sb = new StringBuilder();
+        int len = rnd.nextInt(200);
+        for (int i = 0; i < len; i++) {
+          int k = rnd.nextInt(chars.length() * 4);
+          sb.append(k < chars.length() ? chars.charAt(k) : (char) ('a' + k % 26));
+        }
+        var text = sb.toString();
+        int from = rnd.nextInt(len + 1);
+        int to = from + rnd.nextInt(len - from + 1);
+        var work = new char[to - from];
+
+        long expected = scalar.scan(text, from, to, work);
+        long actual = scan.scan(text, from, to, work);
+        if (actual != expected) {
+          fail(String.format("text=%s from=%d to=%d", text, from, to));
+        }
+      }
+    }
+  }
+}
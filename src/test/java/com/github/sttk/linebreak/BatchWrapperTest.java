@@ -0,0 +1,64 @@
+package com.github.sttk.linebreak;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.fail;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@SuppressWarnings("missing-explicit-ctor")
+public class BatchWrapperTest {
+
+  @Test
+  void testWrap_empty() {
+    var result = BatchWrapper.wrap(List.of(), 20);
+    assertThat(result.chars()).isEmpty();
+    assertThat(result.lineOffsets()).containsExactly(0);
+    assertThat(result.lineCounts()).isEmpty();
+    assertThat(result.lineCount()).isEqualTo(0);
+  }
+
+  @Test
+  void testWrap_list() {
+    var texts = new ArrayList<String>();
+    texts.add("abc def ghi");
+    texts.add("");
+    texts.add(null);
+    texts.add("あいうえお\nxyz");
+
+    var result = BatchWrapper.wrap(texts, 6);
+    assertThat(result.lineCounts()).containsExactly(3, 1, 1, 3);
+    assertThat(result.lineCount()).isEqualTo(8);
+    assertThat(result.lineOffsets()).containsExactly(0, 3, 6, 9, 9, 9, 12, 14, 17);
+    assertThat(new String(result.chars())).isEqualTo("abcdefghiあいうえおxyz");
+
+    var lines = new ArrayList<String>();
+    for (int i = 0; i < result.lineCount(); i++) {
+      lines.add(result.line(i));
+    }
+    assertThat(lines).containsExactly("abc", "def", "ghi", "", "", "あいう", "えお", "xyz");
+  }
+
+  @Test
+  void testWrap_arrayWithIndent() {
+    var texts = new String[]{
+      "Java is a programming language and computing platform first released",
+      "by Sun Microsystems in 1995.",
+    };
+    var result = BatchWrapper.wrap(texts, 20, "  ");
+
+    int k = 0;
+    for (int i = 0; i < texts.length; i++) {
+      var iter = new LineIter(texts[i], 20);
+      iter.setIndent("  ");
+      int count = 0;
+      while (iter.hasNext()) {
+        assertThat(result.line(k++)).isEqualTo(iter.next());
+        count++;
+      }
+      assertThat(result.lineCounts()[i]).isEqualTo(count);
+    }
+    assertThat(result.lineCount()).isEqualTo(k);
+  }
+}
@@ -0,0 +1,90 @@
+package com.github.sttk.linebreak;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.fail;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+@SuppressWarnings("missing-explicit-ctor")
+public class ByteBufferCodepointScannerTest {
+
+  ByteBufferCodepointScanner scanner(String text) {
+    return new ByteBufferCodepointScanner(
+      ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  void testConstructor_null() {
+    var scanner = new ByteBufferCodepointScanner(null);
+    assertThat(scanner.hasNext()).isFalse();
+    try {
+      scanner.next();
+      fail();
+    } catch (IndexOutOfBoundsException e) {
+      assertThat(e).isNotNull();
+    }
+  }
+
+  @Test
+  void testNext_variousLengths() {
+    var scanner = scanner("aé あ😊");
+    assertThat(scanner.hasNext()).isTrue();
+    assertThat(scanner.next()).isEqualTo(0x61);
+    assertThat(scanner.lastIndex()).isEqualTo(0);
+    assertThat(scanner.next()).isEqualTo(0xe9);
+    assertThat(scanner.lastIndex()).isEqualTo(1);
+    assertThat(scanner.next()).isEqualTo(0x20);
+    assertThat(scanner.next()).isEqualTo(0x3042);
+    assertThat(scanner.lastIndex()).isEqualTo(4);
+    assertThat(scanner.next()).isEqualTo(0x1f60a);
+    assertThat(scanner.lastIndex()).isEqualTo(7);
+    assertThat(scanner.index()).isEqualTo(11);
+    assertThat(scanner.hasNext()).isFalse();
+  }
+
+  @Test
+  void testNext_malformed() {
+    var bytes = new byte[]{
+      (byte) 0x61,
+      (byte) 0x80,             // unexpected continuation byte
+      (byte) 0xc0, (byte) 0xaf, // overlong
+      (byte) 0xed, (byte) 0xa0, (byte) 0x80, // surrogate
+      (byte) 0xe3, (byte) 0x81, // truncated at the end
+    };
+    var scanner = new ByteBufferCodepointScanner(ByteBuffer.wrap(bytes));
+    assertThat(scanner.next()).isEqualTo(0x61);
+    while (scanner.hasNext()) {
+      assertThat(scanner.next()).isEqualTo(0xfffd);
+    }
+    assertThat(scanner.index()).isEqualTo(bytes.length);
+  }
+
+  @Test
+  void testSetBuffer_fromPosition() {
+    var buf = ByteBuffer.wrap("abcあ".getBytes(StandardCharsets.UTF_8));
+    buf.position(2);
+    var scanner = new ByteBufferCodepointScanner(buf);
+    assertThat(scanner.next()).isEqualTo(0x63);
+    assertThat(scanner.next()).isEqualTo(0x3042);
+    assertThat(scanner.lastIndex()).isEqualTo(1);
+    assertThat(scanner.hasNext()).isFalse();
+    assertThat(buf.position()).isEqualTo(2);
+  }
+
+  @Test
+  void testUtf8_encode() {
+    var out = ByteBuffer.allocate(16);
+    Utf8.encode(0x61, out);
+    Utf8.encode(0xe9, out);
+    Utf8.encode(0x3042, out);
+    Utf8.encode(0x1f60a, out);
+    assertThat(new String(out.array(), 0, out.position(), StandardCharsets.UTF_8))
+      .isEqualTo("aéあ😊");
+    assertThat(Utf8.encodedLength(0x61)).isEqualTo(1);
+    assertThat(Utf8.encodedLength(0xe9)).isEqualTo(2);
+    assertThat(Utf8.encodedLength(0x3042)).isEqualTo(3);
+    assertThat(Utf8.encodedLength(0x1f60a)).isEqualTo(4);
+  }
+}
@@ -128,4 +128,54 @@ public class CodepointBufferTest {
       0x31, 0x32, 0x33, 0x34, 0x35
     });
   }
+
+  @Test
+  void testEnsureCapacity() {
+    var buf = new CodepointBuffer(2);
+    buf.add(0x31, 0x32);
+    assertThat(buf.add(0x33)).isFalse();
+
+    buf.ensureCapacity(3);
+    assertThat(buf.codepoints.length).isEqualTo(4);
+    assertThat(buf.add(0x33)).isTrue();
+    assertThat(buf.full()).isEqualTo(new int[]{0x31, 0x32, 0x33});
+
+    buf.ensureCapacity(2);
+    assertThat(buf.codepoints.length).isEqualTo(4);
+  }
+
+  @Test
+  void testEnsureCapacity_withOffsets() {
+    var buf = new CodepointBuffer(1);
+    buf.offsets = new int[1];
+    buf.ends = new int[1];
+    buf.addWithOffsets(0x31, 0, 1);
+
+    buf.ensureCapacity(2);
+    assertThat(buf.addWithOffsets(0x32, 1, 2)).isTrue();
+    assertThat(buf.offsets).startsWith(0, 1);
+    assertThat(buf.ends).startsWith(1, 2);
+  }
+
+  @Test
+  void testSetCapacity() {
+    var buf = new CodepointBuffer(2);
+    buf.offsets = new int[2];
+    buf.ends = new int[2];
+    buf.ensureCapacity(3);
+    buf.addWithOffsets(0x31, 0, 1);
+    buf.addWithOffsets(0x32, 1, 2);
+    buf.addWithOffsets(0x33, 2, 3);
+
+    buf.setCapacity(2);
+    assertThat(buf.codepoints).isEqualTo(new int[]{0x31, 0x32});
+    assertThat(buf.offsets).hasSize(2);
+    assertThat(buf.ends).hasSize(2);
+    assertThat(buf.length).isEqualTo(2);
+    assertThat(buf.add(0x33)).isFalse();
+
+    buf.setCapacity(3);
+    assertThat(buf.codepoints).isEqualTo(new int[]{0x31, 0x32, 0});
+    assertThat(buf.add(0x33)).isTrue();
+  }
 }
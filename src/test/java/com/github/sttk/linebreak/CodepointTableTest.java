@@ -0,0 +1,87 @@
+package com.github.sttk.linebreak;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.fail;
+import org.junit.jupiter.api.Test;
+
+import com.ibm.icu.lang.CharacterProperties;
+import com.ibm.icu.lang.UProperty;
+import com.ibm.icu.util.CodePointMap;
+
+@SuppressWarnings("missing-explicit-ctor")
+public class CodepointTableTest {
+
+  @Test
+  void testGet_allCodepoints() {
+    CodePointMap eaw =
+      CharacterProperties.getIntPropertyMap(UProperty.EAST_ASIAN_WIDTH);
+
+    for (int cp = 0; cp <= CodepointTable.MAX_CODEPOINT; cp++) {
+      int props = CodepointTable.get(cp);
+      if (props != UnicodeDataGenerator.computeProps(cp, eaw.get(cp))) {
+        fail(String.format("codepoint=%x", cp));
+      }
+    }
+  }
+
+  @Test
+  void testGet_outOfRange() {
+    assertThat(CodepointTable.get(-1)).isEqualTo(0);
+    assertThat(CodepointTable.get(Integer.MIN_VALUE)).isEqualTo(0);
+    assertThat(CodepointTable.get(0x110000)).isEqualTo(0);
+    assertThat(CodepointTable.get(Integer.MAX_VALUE)).isEqualTo(0);
+  }
+
+  @Test
+  void testWidth() {
+    assertThat(CodepointTable.width(CodepointTable.get('a'))).isEqualTo(1);
+    assertThat(CodepointTable.width(CodepointTable.get('あ'))).isEqualTo(2);
+    assertThat(CodepointTable.width(CodepointTable.get(0x1f60a))).isEqualTo(2);
+    assertThat(CodepointTable.width(CodepointTable.get(0x02))).isEqualTo(0);
+    assertThat(CodepointTable.width(CodepointTable.get(0x0a))).isEqualTo(0);
+  }
+
+  @Test
+  void testLboOrdinal() {
+    assertThat(CodepointTable.lboOrdinal(CodepointTable.get('a')))
+      .isEqualTo(LineIter.LboType.Never.ordinal());
+    assertThat(CodepointTable.lboOrdinal(CodepointTable.get('(')))
+      .isEqualTo(LineIter.LboType.Before.ordinal());
+    assertThat(CodepointTable.lboOrdinal(CodepointTable.get(',')))
+      .isEqualTo(LineIter.LboType.After.ordinal());
+    assertThat(CodepointTable.lboOrdinal(CodepointTable.get('あ')))
+      .isEqualTo(LineIter.LboType.Both.ordinal());
+    assertThat(CodepointTable.lboOrdinal(CodepointTable.get('\n')))
+      .isEqualTo(LineIter.LboType.Break.ordinal());
+    assertThat(CodepointTable.lboOrdinal(CodepointTable.get('\r')))
+      .isEqualTo(LineIter.LboType.Break.ordinal());
+    assertThat(CodepointTable.lboOrdinal(CodepointTable.get(' ')))
+      .isEqualTo(LineIter.LboType.Space.ordinal());
+    // 「 is included in both Befores and Afters, and Befores takes precedence.
+    assertThat(CodepointTable.lboOrdinal(CodepointTable.get('「')))
+      .isEqualTo(LineIter.LboType.Before.ordinal());
+  }
+
+  @Test
+  void testIsSpaceAndIsQuote() {
+    assertThat(CodepointTable.isSpace(CodepointTable.get(' '))).isTrue();
+    assertThat(CodepointTable.isSpace(CodepointTable.get('\n'))).isTrue();
+    assertThat(CodepointTable.isSpace(CodepointTable.get(0x3000))).isTrue();
+    assertThat(CodepointTable.isSpace(CodepointTable.get('a'))).isFalse();
+
+    assertThat(CodepointTable.isQuote(CodepointTable.get('"'))).isTrue();
+    assertThat(CodepointTable.isQuote(CodepointTable.get('\''))).isTrue();
+    assertThat(CodepointTable.isQuote(CodepointTable.get('a'))).isFalse();
+  }
+
+  @Test
+  void testHasGraphemeProps() {
+    assertThat(CodepointTable.hasGraphemeProps(CodepointTable.get('a'))).isFalse();
+    assertThat(CodepointTable.hasGraphemeProps(CodepointTable.get('あ'))).isFalse();
+    assertThat(CodepointTable.hasGraphemeProps(CodepointTable.get('\n'))).isTrue();
+    assertThat(CodepointTable.hasGraphemeProps(CodepointTable.get(0x0301))).isTrue();
+    assertThat(CodepointTable.hasGraphemeProps(CodepointTable.get(0x200d))).isTrue();
+    assertThat(CodepointTable.hasGraphemeProps(CodepointTable.get(0x1f60a))).isTrue();
+    assertThat(CodepointTable.isPlain(CodepointTable.get(0xa9))).isFalse();
+  }
+}
@@ -0,0 +1,139 @@
+package com.github.sttk.linebreak;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.fail;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+@SuppressWarnings("missing-explicit-ctor")
+public class IncrementalWrapperTest {
+
+  List<String> expected(String text, int width, String indent) {
+    var iter = new LineIter(text, width);
+    iter.setIndent(indent);
+    var lines = new ArrayList<String>();
+    while (iter.hasNext()) {
+      lines.add(iter.next());
+    }
+    return lines;
+  }
+
+  final String text = "Java is a programming language and computing platform. " +
+    "東アジアの全角文字は基本的に、文字の前後どちらに行の終わりが来ても改行が" +
+    "行われます。\n" +
+    "abc def \" ghi j ' kl mno pq' rst uvw\" xyz 😊😊😊 " +
+    "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa\r\n";
+
+  @Test
+  void testNew() {
+    var w = new IncrementalWrapper(20);
+    assertThat(w.getText()).isEqualTo("");
+    assertThat(w.getLines()).containsExactly("");
+    assertThat(w.lineCount()).isEqualTo(1);
+  }
+
+  @Test
+  void testAppend() {
+    var w = new IncrementalWrapper(20, "  ");
+    var sb = new StringBuilder();
+    for (int i = 0; i < text.length(); i += 7) {
+      var s = text.substring(i, Math.min(i + 7, text.length()));
+      w.append(s);
+      sb.append(s);
+      assertThat(w.getLines()).isEqualTo(expected(sb.toString(), 20, "  "));
+    }
+    assertThat(w.getText()).isEqualTo(text);
+  }
+
+  @Test
+  void testAppend_rewrapOnlyLastLines() {
+    var w = new IncrementalWrapper(30);
+    for (int i = 0; i < 1000; i++) {
+      w.append("The quick brown fox jumps over the lazy dog. ");
+    }
+    assertThat(w.lineCount()).isGreaterThan(1000);
+    w.append("xyz");
+    assertThat(w.rewrappedCount()).isLessThanOrEqualTo(2);
+    assertThat(w.getLines()).isEqualTo(expected(w.getText(), 30, ""));
+  }
+
+  @Test
+  void testReplace_rewrapOnlyAffectedLines() {
+    var w = new IncrementalWrapper(30);
+    for (int i = 0; i < 1000; i++) {
+      w.append("The quick brown fox jumps over the lazy dog.\n");
+    }
+    w.replace(4500, 4505, "slow");
+    assertThat(w.rewrappedCount()).isLessThanOrEqualTo(3);
+    assertThat(w.getLines()).isEqualTo(expected(w.getText(), 30, ""));
+
+    w.insert(100, "The quick brown fox jumps over the lazy dog. ");
+    assertThat(w.rewrappedCount()).isLessThanOrEqualTo(5);
+    assertThat(w.getLines()).isEqualTo(expected(w.getText(), 30, ""));
+
+    w.delete(200, 300);
+    assertThat(w.rewrappedCount()).isLessThanOrEqualTo(8);
+    assertThat(w.getLines()).isEqualTo(expected(w.getText(), 30, ""));
+  }
+
+  @Test
+  void testReplace_random() {
+    var rnd = new Random(12345L);
+    for (int width : new int[]{7, 13, 30}) {
+      var w = new IncrementalWrapper(width, " ");
+      w.append(text + text + text);
+      for (int n = 0; n < 300; n++) {
+        int len = w.getText().length();
+        int start = rnd.nextInt(len + 1);
+        int end = Math.min(len, start + rnd.nextInt(10));
+        int from = rnd.nextInt(text.length() - 10);
+        var s = text.substring(from, from + rnd.nextInt(10));
+        w.replace(start, end, s);
+        assertThat(w.getLines()).isEqualTo(expected(w.getText(), width, " "));
+      }
+    }
+  }
+
+  @Test
+  void testReplace_random_narrowLines() {
+    // In narrow lines, a line can be output again from the codepoints left
+    // in the buffer after its length, which must be restored as they were.
+    String[] parts = {
+      "\uff21", "\"", "\u300d", ",", "[", "\uac00", " ", "\u30c3", "\u3002",
+      "'", "(", "!", "x", "e\u0301", "\u0301", "\ud83d\udc4d", "\u200d", "\n",
+    };
+    var rnd = new Random(54321L);
+    for (int n = 0; n < 2000; n++) {
+      int width = 1 + rnd.nextInt(4);
+      var w = new IncrementalWrapper(width);
+      for (int k = 0; k < 4; k++) {
+        var sb = new StringBuilder();
+        for (int m = rnd.nextInt(20); m > 0; m--) {
+          sb.append(parts[rnd.nextInt(parts.length)]);
+        }
+        var text = w.getText();
+        int start = rnd.nextInt(text.length() + 1);
+        int end = start + rnd.nextInt(text.length() - start + 1);
+        w.replace(start, end, sb.toString());
+        assertThat(w.getLines()).as(w.getText())
+          .isEqualTo(expected(w.getText(), width, ""));
+      }
+    }
+  }
+
+  @Test
+  void testReplace_outOfRange() {
+    var w = new IncrementalWrapper(10);
+    w.append("abc");
+    assertThatThrownBy(() -> w.replace(2, 4, "x"))
+      .isInstanceOf(IndexOutOfBoundsException.class);
+    assertThatThrownBy(() -> w.replace(2, 1, "x"))
+      .isInstanceOf(IndexOutOfBoundsException.class);
+    assertThat(w.getText()).isEqualTo("abc");
+    assertThat(w.line(0)).isEqualTo("abc");
+  }
+}
@@ -0,0 +1,117 @@
+package com.github.sttk.linebreak;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.fail;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@SuppressWarnings("missing-explicit-ctor")
+public class KinsokuRulesTest {
+
+  List<String> lines(String text, int width, KinsokuRules rules) {
+    var iter = new LineIter(text, width);
+    iter.setKinsokuRules(rules);
+    var lines = new ArrayList<String>();
+    while (iter.hasNext()) {
+      lines.add(iter.next());
+    }
+    return lines;
+  }
+
+  @Test
+  void testDefault() {
+    var rules = KinsokuRules.DEFAULT;
+    assertThat(rules.isLineStartProhibited(0x3002)).isTrue(); // 。
+    assertThat(rules.isLineEndProhibited(0x3002)).isFalse();
+    assertThat(rules.isLineEndProhibited(0x300c)).isTrue(); // 「
+    assertThat(rules.isLineStartProhibited(0x3042)).isFalse(); // あ
+    assertThat(rules.isLineEndProhibited(0x3042)).isFalse();
+    assertThat(rules.isLineStartProhibited(-1)).isFalse();
+    assertThat(rules.isLineStartProhibited(0x110000)).isFalse();
+
+    for (int cp = 0; cp <= 0x10ffff; cp++) {
+      if (rules.get(cp) != CodepointTable.get(cp)) {
+        fail(Integer.toHexString(cp));
+      }
+    }
+    assertThat(KinsokuRules.builder().build()).isSameAs(KinsokuRules.DEFAULT);
+  }
+
+  @Test
+  void testLineStartProhibited() {
+    var rules = KinsokuRules.builder().lineStartProhibited("お").build();
+    assertThat(rules.isLineStartProhibited(0x304a)).isTrue();
+    assertThat(rules.isLineStartProhibited(0x3002)).isTrue();
+
+    assertThat(lines("あいうえおかきくけこ", 8, KinsokuRules.DEFAULT))
+      .containsExactly("あいうえ", "おかきく", "けこ");
+    assertThat(lines("あいうえおかきくけこ", 8, rules))
+      .containsExactly("あいう", "えおかき", "くけこ");
+  }
+
+  @Test
+  void testLineEndProhibited() {
+    var rules = KinsokuRules.builder().lineEndProhibited(0x3048).build(); // え
+    assertThat(rules.isLineEndProhibited(0x3048)).isTrue();
+    assertThat(lines("あいうえおかきくけこ", 8, rules))
+      .containsExactly("あいう", "えおかき", "くけこ");
+  }
+
+  @Test
+  void testRemove() {
+    var rules = KinsokuRules.builder().remove("。").build();
+    assertThat(rules.isLineStartProhibited(0x3002)).isFalse();
+    assertThat(rules.isLineEndProhibited(0x3002)).isFalse();
+    assertThat(rules.get(0x3002)).isEqualTo((CodepointTable.get(0x3042)));
+
+    assertThat(lines("あいうえ。かきくけこ", 8, KinsokuRules.DEFAULT))
+      .containsExactly("あいう", "え。かき", "くけこ");
+    assertThat(lines("あいうえ。かきくけこ", 8, rules))
+      .containsExactly("あいうえ", "。かきく", "けこ");
+  }
+
+  @Test
+  void testClear() {
+    var rules = KinsokuRules.builder().clear().build();
+    for (int cp : LboRule.Befores) {
+      assertThat(rules.isLineEndProhibited(cp)).isFalse();
+    }
+    for (int cp : LboRule.Afters) {
+      assertThat(rules.isLineStartProhibited(cp)).isFalse();
+    }
+    assertThat(lines("あいう「えお」かきくけこ", 8, KinsokuRules.DEFAULT))
+      .containsExactly("あいう", "「えお」", "かきくけ", "こ");
+    assertThat(lines("あいう「えお」かきくけこ", 8, rules))
+      .containsExactly("あいう「", "えお」か", "きくけこ");
+
+    rules = KinsokuRules.builder().clear().lineStartProhibited("」").build();
+    assertThat(rules.isLineStartProhibited(0x300d)).isTrue();
+    assertThat(rules.isLineStartProhibited(0x3002)).isFalse();
+  }
+
+  @Test
+  void testQuotationMark() {
+    var rules = KinsokuRules.builder().lineEndProhibited("\"").build();
+    assertThat(lines("ab\"cd\"ef", 5, KinsokuRules.DEFAULT))
+      .containsExactly("ab", "\"cd\"", "ef");
+    assertThat(lines("ab\"cd\"ef", 5, rules))
+      .containsExactly("ab\"cd", "\"ef");
+  }
+
+  @Test
+  void testIllegalCodepoints() {
+    var builder = KinsokuRules.builder();
+    assertThatThrownBy(() -> builder.lineStartProhibited("\n"))
+      .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> builder.lineEndProhibited(0x20))
+      .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> builder.remove("　"))
+      .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> builder.lineStartProhibited(0x110000))
+      .isInstanceOf(IllegalArgumentException.class);
+    assertThat(builder.build()).isSameAs(KinsokuRules.DEFAULT);
+  }
+}
@@ -0,0 +1,107 @@
+package com.github.sttk.linebreak;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.fail;
+import org.junit.jupiter.api.Test;
+
+import com.github.sttk.linebreak.LineBoundaryIter.Boundary;
+import com.github.sttk.linebreak.LineBoundaryIter.BreakType;
+
+@SuppressWarnings("missing-explicit-ctor")
+public class LineBoundaryIterTest {
+
+  @Test
+  void testNext_emptyText() {
+    var iter = new LineBoundaryIter("", 20);
+
+    assertThat(iter.hasNext()).isTrue();
+    assertThat(iter.next()).isEqualTo(new Boundary(0, 0, 0, BreakType.End));
+
+    assertThat(iter.hasNext()).isFalse();
+  }
+
+  @Test
+  void testNext_softAndForcedBreaks() {
+    var text = "1234567890 abcdefghijklmnopqrstuvwxyz";
+    var iter = new LineBoundaryIter(text, 20);
+
+    assertThat(iter.hasNext()).isTrue();
+    assertThat(iter.next()).isEqualTo(new Boundary(0, 11, 10, BreakType.Soft));
+
+    assertThat(iter.hasNext()).isTrue();
+    assertThat(iter.next()).isEqualTo(new Boundary(11, 31, 31, BreakType.Forced));
+
+    assertThat(iter.hasNext()).isTrue();
+    assertThat(iter.next()).isEqualTo(new Boundary(31, 37, 37, BreakType.End));
+
+    assertThat(iter.hasNext()).isFalse();
+  }
+
+  @Test
+  void testNext_hardBreaks() {
+    var text = "abc  \n\ndef";
+    var iter = new LineBoundaryIter(text, 20);
+
+    assertThat(iter.hasNext()).isTrue();
+    assertThat(iter.next()).isEqualTo(new Boundary(0, 5, 3, BreakType.Hard));
+
+    assertThat(iter.hasNext()).isTrue();
+    assertThat(iter.next()).isEqualTo(new Boundary(6, 6, 6, BreakType.Hard));
+
+    assertThat(iter.hasNext()).isTrue();
+    assertThat(iter.next()).isEqualTo(new Boundary(7, 10, 10, BreakType.End));
+
+    assertThat(iter.hasNext()).isFalse();
+  }
+
+  @Test
+  void testNext_surrogatePairs() {
+    var text = "😊😊😊 😊";
+    var iter = new LineBoundaryIter(text, 6);
+
+    assertThat(iter.hasNext()).isTrue();
+    assertThat(iter.next()).isEqualTo(new Boundary(0, 6, 6, BreakType.Soft));
+
+    assertThat(iter.hasNext()).isTrue();
+    assertThat(iter.next()).isEqualTo(new Boundary(7, 9, 9, BreakType.End));
+
+    assertThat(iter.hasNext()).isFalse();
+  }
+
+  @Test
+  void testNext_sameLinesAsLineIter() {
+    var text = "東アジアの全角文字は基本的に、文字の前後どちらに行の終わりが" +
+      "来ても改行が行われます。\nabc def \" ghi j ' kl mno pq' rst uvw\" xyz";
+
+    for (int width = 5; width < 40; width++) {
+      var lineIter = new LineIter(text, width);
+      var boundIter = new LineBoundaryIter(text, width);
+      lineIter.setIndent("  ");
+      boundIter.setIndent("  ");
+
+      while (lineIter.hasNext()) {
+        assertThat(boundIter.hasNext()).isTrue();
+        var line = lineIter.next();
+        var b = boundIter.next();
+        var s = text.substring(b.start(), b.trimmedEnd());
+        assertThat(line).isEqualTo(s.isEmpty() ? "" : "  " + s);
+      }
+      assertThat(boundIter.hasNext()).isFalse();
+    }
+  }
+
+  @Test
+  void testInit() {
+    var iter = new LineBoundaryIter("abc", 20);
+
+    assertThat(iter.hasNext()).isTrue();
+    assertThat(iter.next()).isEqualTo(new Boundary(0, 3, 3, BreakType.End));
+    assertThat(iter.hasNext()).isFalse();
+
+    iter.init("  de");
+
+    assertThat(iter.hasNext()).isTrue();
+    assertThat(iter.next()).isEqualTo(new Boundary(2, 4, 4, BreakType.End));
+    assertThat(iter.hasNext()).isFalse();
+  }
+}
@@ -0,0 +1,148 @@
+package com.github.sttk.linebreak;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.fail;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@SuppressWarnings("missing-explicit-ctor")
+public class LineBreakerTest {
+
+  final String text = "Java is a programming language and computing platform " +
+    "first released by Sun Microsystems in 1995.\n東アジアの全角文字は基本的に、" +
+    "文字の前後どちらに行の終わりが来ても改行が行われます。";
+
+  List<String> expected(String text, int width, String indent) {
+    var iter = new LineIter(text, width);
+    iter.setIndent(indent);
+    var lines = new ArrayList<String>();
+    while (iter.hasNext()) {
+      lines.add(iter.next());
+    }
+    return lines;
+  }
+
+  @Test
+  void testGetters() {
+    var lb = new LineBreaker(20, "  ");
+    assertThat(lb.getLineWidth()).isEqualTo(20);
+    assertThat(lb.getIndent()).isEqualTo("  ");
+
+    lb = new LineBreaker(30, null);
+    assertThat(lb.getIndent()).isEqualTo("");
+    assertThat(lb.getKinsokuRules()).isSameAs(KinsokuRules.DEFAULT);
+
+    lb = new LineBreaker(30, "", null);
+    assertThat(lb.getKinsokuRules()).isSameAs(KinsokuRules.DEFAULT);
+  }
+
+  @Test
+  void testWrap_kinsokuRules() {
+    var rules = KinsokuRules.builder().remove("。").build();
+    var lb = new LineBreaker(8, "", rules);
+    assertThat(lb.getKinsokuRules()).isSameAs(rules);
+    assertThat(lb.wrap("あいうえ。かきくけこ")).containsExactly("あいうえ", "。かきく", "けこ");
+    assertThat(new LineBreaker(8).wrap("あいうえ。かきくけこ"))
+      .containsExactly("あいう", "え。かき", "くけこ");
+  }
+
+  @Test
+  void testWrap() {
+    var lb = new LineBreaker(20, "__ああ__");
+    assertThat(lb.wrap(text)).isEqualTo(expected(text, 20, "__ああ__"));
+    assertThat(lb.wrap("abc def")).isEqualTo(expected("abc def", 20, "__ああ__"));
+    assertThat(lb.wrap(null)).containsExactly("");
+  }
+
+  @Test
+  void testNewLineIter() {
+    var lb = new LineBreaker(20, "  ");
+    var iter = lb.newLineIter(text);
+    var lines = new ArrayList<String>();
+    while (iter.hasNext()) {
+      lines.add(iter.next());
+    }
+    assertThat(lines).isEqualTo(expected(text, 20, "  "));
+  }
+
+  @Test
+  void testForEachLine_returnsIterToPool() {
+    var lb = new LineBreaker(20, "", 2);
+    assertThat(lb.pooledCount()).isEqualTo(0);
+
+    var lines = new ArrayList<String>();
+    lb.forEachLine(text, lines::add);
+    assertThat(lines).isEqualTo(expected(text, 20, ""));
+    assertThat(lb.pooledCount()).isEqualTo(1);
+
+    var iter1 = lb.borrow("a");
+    var iter2 = lb.borrow("b");
+    var iter3 = lb.borrow("c");
+    assertThat(lb.pooledCount()).isEqualTo(0);
+    lb.giveBack(iter1);
+    lb.giveBack(iter2);
+    lb.giveBack(iter3);
+    assertThat(lb.pooledCount()).isEqualTo(2);
+
+    try {
+      lb.forEachLine(text, line -> { throw new IllegalStateException(); });
+      fail();
+    } catch (IllegalStateException e) {
+      assertThat(lb.pooledCount()).isEqualTo(2);
+    }
+  }
+
+  @Test
+  void testWrap_sameForPooledIter() {
+    var lb = new LineBreaker(3, "", 1);
+    var text = "\uff21\"\u300d,[\uac00 \u30c3";
+    var exp = expected(text, 3, "");
+    assertThat(lb.wrap(text)).isEqualTo(exp);
+
+    // the pooled iterator has grown its buffer for the joined codepoints.
+    lb.wrap("\ud83d\udc68\u200d\ud83d\udc69\u200d\ud83d\udc67 e\u0301\u0301\u0301\u0301");
+    assertThat(lb.pooledCount()).isEqualTo(1);
+    assertThat(lb.wrap(text)).isEqualTo(exp);
+  }
+
+  @Test
+  void testForEachLine_poolSizeIsBounded() throws Exception {
+    var lb = new LineBreaker(24, " ", 3);
+    var exp = expected(text, 24, " ");
+
+    try (var exec = Executors.newFixedThreadPool(8)) {
+      var futures = new ArrayList<Future<List<String>>>();
+      for (int i = 0; i < 1000; i++) {
+        futures.add(exec.submit(() -> lb.wrap(text)));
+      }
+      for (var f : futures) {
+        assertThat(f.get()).isEqualTo(exp);
+      }
+    }
+    assertThat(lb.pooledCount()).isBetween(1, 3);
+
+    var none = new LineBreaker(24, " ", 0);
+    assertThat(none.wrap(text)).isEqualTo(exp);
+    assertThat(none.pooledCount()).isEqualTo(0);
+  }
+
+  @Test
+  void testWrap_virtualThreads() throws Exception {
+    var lb = new LineBreaker(24, " ");
+    var exp = expected(text, 24, " ");
+
+    try (var exec = Executors.newVirtualThreadPerTaskExecutor()) {
+      var futures = new ArrayList<Future<List<String>>>();
+      for (int i = 0; i < 1000; i++) {
+        futures.add(exec.submit(() -> lb.wrap(text)));
+      }
+      for (var f : futures) {
+        assertThat(f.get()).isEqualTo(exp);
+      }
+    }
+  }
+}
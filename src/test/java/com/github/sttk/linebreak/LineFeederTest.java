@@ -0,0 +1,91 @@
+package com.github.sttk.linebreak;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.fail;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@SuppressWarnings("missing-explicit-ctor")
+public class LineFeederTest {
+
+  List<String> expected(String text, int width, String indent) {
+    var iter = new LineIter(text, width);
+    iter.setIndent(indent);
+    var lines = new ArrayList<String>();
+    while (iter.hasNext()) {
+      lines.add(iter.next());
+    }
+    return lines;
+  }
+
+  final String text = "Java is a programming language and computing platform. " +
+    "東アジアの全角文字は基本的に、文字の前後どちらに行の終わりが来ても改行が" +
+    "行われます。\n" +
+    "abc def \" ghi j ' kl mno pq' rst uvw\" xyz 😊😊😊 " +
+    "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa\r\n\n   ";
+
+  @Test
+  void testFeed_sameAsLineIter() {
+    for (int width : new int[]{5, 12, 30}) {
+      for (int size = 1; size < 20; size += 3) {
+        var lines = new ArrayList<String>();
+        var feeder = new LineFeeder(width, "  ", lines::add);
+        for (int i = 0; i < text.length(); i += size) {
+          feeder.feed(text.substring(i, Math.min(i + size, text.length())));
+        }
+        feeder.flush();
+        assertThat(lines).isEqualTo(expected(text, width, "  "));
+      }
+    }
+  }
+
+  @Test
+  void testFeed_emitFinalLinesOnly() {
+    var lines = new ArrayList<String>();
+    var feeder = new LineFeeder(10, lines::add);
+
+    feeder.feed("abc def");
+    assertThat(lines).isEmpty();
+
+    feeder.feed(" ghi jkl");
+    assertThat(lines).containsExactly("abc def");
+
+    feeder.feed("\nmno");
+    assertThat(lines).containsExactly("abc def", "ghi jkl");
+
+    feeder.flush();
+    assertThat(lines).containsExactly("abc def", "ghi jkl", "mno");
+  }
+
+  @Test
+  void testFeed_splitSurrogatePair() {
+    var lines = new ArrayList<String>();
+    var feeder = new LineFeeder(4, lines::add);
+    feeder.feed("a\ud83d");
+    feeder.feed("\ude0a\ud83d");
+    feeder.feed("\ude0ab");
+    feeder.flush();
+    assertThat(lines).containsExactly("a😊", "😊b");
+  }
+
+  @Test
+  void testFlush_reuse() {
+    var lines = new ArrayList<String>();
+    var feeder = new LineFeeder(10, lines::add);
+    feeder.flush();
+    assertThat(lines).containsExactly("");
+
+    lines.clear();
+    feeder.feed("abc def ghi");
+    feeder.flush();
+    assertThat(lines).containsExactly("abc def", "ghi");
+
+    lines.clear();
+    feeder.feed("xyz");
+    feeder.feed(null);
+    feeder.flush();
+    assertThat(lines).containsExactly("xyz");
+  }
+}
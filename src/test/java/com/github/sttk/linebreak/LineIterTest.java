@@ -672,6 +672,418 @@ public class LineIterTest {
     }
   }
 
+  @Test
+  void testNextInto() {
+    var iter1 = new LineIter(longText, 20);
+    var iter2 = new LineIter(longText, 20);
+    var sb = new StringBuilder();
+
+    iter1.setIndent("  ");
+    iter2.setIndent("  ");
+
+    while (iter1.hasNext()) {
+      assertThat(iter2.hasNext()).isTrue();
+      sb.setLength(0);
+      iter2.nextInto(sb);
+      assertThat(sb.toString()).isEqualTo(iter1.next());
+    }
+    assertThat(iter2.hasNext()).isFalse();
+  }
+
+  @Test
+  void testNextInto_appendToExistingContent() {
+    var text = "abc def\nghi";
+    var iter = new LineIter(text, 5);
+    iter.setIndent("> ");
+    var sb = new StringBuilder("[");
+
+    assertThat(iter.hasNext()).isTrue();
+    iter.nextInto(sb);
+    assertThat(sb.toString()).isEqualTo("[> abc");
+
+    assertThat(iter.hasNext()).isTrue();
+    iter.nextInto(sb);
+    assertThat(sb.toString()).isEqualTo("[> abc> def");
+
+    assertThat(iter.hasNext()).isTrue();
+    iter.nextInto(sb);
+    assertThat(sb.toString()).isEqualTo("[> abc> def> ghi");
+
+    assertThat(iter.hasNext()).isFalse();
+    iter.nextInto(sb);
+    assertThat(sb.toString()).isEqualTo("[> abc> def> ghi");
+  }
+
+  @Test
+  void testNext_reader() {
+    var text = longText + "\n東アジアの全角文字は基本的に、文字の前後どちらに行の終わり" +
+      "が来ても改行が行われます。\nabc def \" ghi j ' kl mno pq' rst uvw\" xyz😊";
+
+    for (int width = 5; width < 40; width++) {
+      var iter1 = new LineIter(text, width);
+      var iter2 = LineIter.fromReader(
+        new ReaderCodepointScannerTest.OneCharReader(text), width);
+
+      while (iter1.hasNext()) {
+        assertThat(iter2.hasNext()).isTrue();
+        assertThat(iter2.next()).isEqualTo(iter1.next());
+      }
+      assertThat(iter2.hasNext()).isFalse();
+    }
+  }
+
+  @Test
+  void testNext_latin1Run() {
+    var sb = new StringBuilder();
+    for (int cp = 0x20; cp < 0x100; cp++) {
+      sb.append("abc").appendCodePoint(cp).append("defgh ").appendCodePoint(cp);
+    }
+    var text = sb.toString() + "\nlatin1 Ça, ½ ± ×÷ and あいう😊";
+    var rules = KinsokuRules.builder()
+      .lineStartProhibited("é§").lineEndProhibited("b¿").build();
+
+    for (int width = 3; width < 40; width++) {
+      for (var r : new KinsokuRules[]{ KinsokuRules.DEFAULT, rules }) {
+        var iter1 = new LineIter(text, width);
+        var iter2 = LineIter.fromReader(new java.io.StringReader(text), width);
+        iter1.setKinsokuRules(r);
+        iter2.setKinsokuRules(r);
+
+        while (iter1.hasNext()) {
+          assertThat(iter2.hasNext()).isTrue();
+          assertThat(iter1.next()).isEqualTo(iter2.next());
+        }
+        assertThat(iter2.hasNext()).isFalse();
+      }
+    }
+  }
+
+  @Test
+  void testNext_latin1Run_ambiguousWidth() {
+    var iter = new LineIter("ab§cd ef", 4);
+    assertThat(iter.next()).isEqualTo("ab§");
+    assertThat(iter.next()).isEqualTo("cd");
+    assertThat(iter.next()).isEqualTo("ef");
+    assertThat(iter.hasNext()).isFalse();
+  }
+
+  @Test
+  void testNext_graphemeClusters() {
+    var iter = new LineIter("cafe\u0301 👨\u200d👩\u200d👧 👍🏽 🇯🇵🇺🇸🇬🇧", 8);
+    assertThat(iter.next()).isEqualTo("cafe\u0301 👨\u200d👩\u200d👧");
+    assertThat(iter.next()).isEqualTo("👍🏽");
+    assertThat(iter.next()).isEqualTo("🇯🇵🇺🇸🇬🇧");
+    assertThat(iter.hasNext()).isFalse();
+  }
+
+  @Test
+  void testNext_graphemeClusters_notSplit() {
+    var iter = new LineIter("🇯🇵🇺🇸🇬🇧", 5);
+    assertThat(iter.next()).isEqualTo("🇯🇵🇺🇸");
+    assertThat(iter.next()).isEqualTo("🇬🇧");
+    assertThat(iter.hasNext()).isFalse();
+
+    // VS16 widens the emoji at the end of the line, which is moved to the
+    // next line together.
+    iter = new LineIter("abc\u263a\ufe0fd", 4);
+    assertThat(iter.next()).isEqualTo("abc");
+    assertThat(iter.next()).isEqualTo("\u263a\ufe0fd");
+    assertThat(iter.hasNext()).isFalse();
+
+    iter = new LineIter("ab c\u263a\ufe0f", 5);
+    assertThat(iter.next()).isEqualTo("ab");
+    assertThat(iter.next()).isEqualTo("c\u263a\ufe0f");
+    assertThat(iter.hasNext()).isFalse();
+  }
+
+  @Test
+  void testNext_graphemeClusters_manyZeroWidthCodepoints() {
+    var text = "a" + "\u0301".repeat(10) + "bc de";
+    var iter = new LineIter(text, 4);
+    assertThat(iter.next()).isEqualTo("a" + "\u0301".repeat(10) + "bc");
+    assertThat(iter.next()).isEqualTo("de");
+    assertThat(iter.hasNext()).isFalse();
+  }
+
+  @Test
+  void testNext_graphemeClusters_joinedAtLimit() {
+    // a codepoint joining the last cluster when the line is exactly full.
+    var iter = new LineIter("abcde\u0301", 5);
+    assertThat(iter.next()).isEqualTo("abcde\u0301");
+    assertThat(iter.hasNext()).isFalse();
+
+    iter = new LineIter("abcd\u200d", 4);
+    assertThat(iter.next()).isEqualTo("abcd\u200d");
+    assertThat(iter.hasNext()).isFalse();
+
+    iter = new LineIter("abcdef\ufe0f", 6);
+    assertThat(iter.next()).isEqualTo("abcdef\ufe0f");
+    assertThat(iter.hasNext()).isFalse();
+
+    iter = new LineIter("abcde\u0301 fg", 5);
+    assertThat(iter.next()).isEqualTo("abcde\u0301");
+    assertThat(iter.next()).isEqualTo("fg");
+    assertThat(iter.hasNext()).isFalse();
+
+    iter = new LineIter("longwordwith\u0301outb", 8);
+    assertThat(iter.next()).isEqualTo("longword");
+    assertThat(iter.next()).isEqualTo("with\u0301outb");
+    assertThat(iter.hasNext()).isFalse();
+  }
+
+  @Test
+  void testNext_graphemeClusters_joinedAtLimit_sameForAnyState() {
+    String[] texts = {
+      "abcde\u0301", "abcd\u200d", "abcdef\ufe0f", "abcde\u0301 fg hijkl\u0301m",
+      "longwordwithoutb", "longwordw\u0301ithoutb longwordwithout\u0301b",
+    };
+    for (var text : texts) {
+      for (int w = 4; w <= 8; w++) {
+        var expected = new java.util.ArrayList<String>();
+        var iter = new LineIter(text, w);
+        while (iter.hasNext()) {
+          expected.add(iter.next());
+        }
+        for (var line : expected) {
+          assertThat(Unicode.getTextWidth(line)).as(text + " " + w)
+            .isLessThanOrEqualTo(w);
+        }
+
+        // reused after a text which grew the buffer.
+        var reused = new LineIter("a" + "\u0301".repeat(20), w);
+        while (reused.hasNext()) {
+          reused.next();
+        }
+        reused.init(text);
+        var lines = new java.util.ArrayList<String>();
+        while (reused.hasNext()) {
+          lines.add(reused.next());
+        }
+        assertThat(lines).as(text + " " + w).isEqualTo(expected);
+
+        var reader = LineIter.fromReader(new java.io.StringReader(text), w);
+        lines.clear();
+        while (reader.hasNext()) {
+          lines.add(reader.next());
+        }
+        assertThat(lines).as(text + " " + w).isEqualTo(expected);
+
+        assertThat(LineIter.lines(text, w).toList()).as(text + " " + w)
+          .isEqualTo(expected);
+        var wrapper = new IncrementalWrapper(w);
+        wrapper.append(text);
+        assertThat(wrapper.getLines()).as(text + " " + w).isEqualTo(expected);
+        assertThat(new WrapCache(1 << 16).wrap(text, w)).as(text + " " + w)
+          .isEqualTo(expected);
+      }
+    }
+  }
+
+  @Test
+  void testInit_capacityNotKeptFromPreviousText() {
+    var text = "\uff21\"\u300d,[\uac00 \u30c3";
+    var expected = new java.util.ArrayList<String>();
+    var iter = new LineIter(text, 3);
+    while (iter.hasNext()) {
+      expected.add(iter.next());
+    }
+
+    // the buffer is grown by the codepoints joining grapheme clusters.
+    iter = new LineIter("\ud83d\udc68\u200d\ud83d\udc69\u200d\ud83d\udc67" +
+      " e\u0301\u0301\u0301\u0301", 3);
+    while (iter.hasNext()) {
+      iter.next();
+    }
+    iter.init(text);
+    var lines = new java.util.ArrayList<String>();
+    while (iter.hasNext()) {
+      lines.add(iter.next());
+    }
+    assertThat(lines).isEqualTo(expected);
+
+    // and by those in the preceding paragraph of the same text.
+    var first = "e\u0301\u0301\u0301\u0301";
+    iter = new LineIter(first + "\n" + text, 3);
+    lines.clear();
+    while (iter.hasNext()) {
+      lines.add(iter.next());
+    }
+    assertThat(lines.get(0)).isEqualTo(first);
+    assertThat(lines.subList(1, lines.size())).isEqualTo(expected);
+  }
+
+  @Test
+  void testNext_graphemeClusters_reader() {
+    var text = "cafe\u0301 👨\u200d👩\u200d👧 👍🏽 🇯🇵🇺🇸🇬🇧 abc\u263a\ufe0fd";
+    for (int w = 4; w < 12; w++) {
+      var iter1 = new LineIter(text, w);
+      var iter2 = LineIter.fromReader(new java.io.StringReader(text), w);
+      while (iter1.hasNext()) {
+        assertThat(iter2.hasNext()).isTrue();
+        assertThat(iter2.next()).isEqualTo(iter1.next());
+      }
+      assertThat(iter2.hasNext()).isFalse();
+    }
+  }
+
+  @Test
+  void testNext_ansiEscapes() {
+    var text = "\u001b[31mhello world\u001b[0m foo bar";
+    var iter = new LineIter(text, 8);
+    iter.setAnsiEscapes(true);
+    assertThat(iter.next()).isEqualTo("\u001b[31mhello");
+    assertThat(iter.next()).isEqualTo("\u001b[31mworld\u001b[0m");
+    assertThat(iter.next()).isEqualTo("foo bar");
+    assertThat(iter.hasNext()).isFalse();
+
+    text = "abc de\u001b[1;31mfgh ijk\u001b[0m lmn";
+    iter.init(text);
+    assertThat(iter.next()).isEqualTo("abc");
+    assertThat(iter.next()).isEqualTo("de\u001b[1;31mfgh");
+    assertThat(iter.next()).isEqualTo("\u001b[1;31mijk\u001b[0m lmn");
+    assertThat(iter.hasNext()).isFalse();
+
+    iter = new LineIter(text, 6);
+    iter.setAnsiEscapes(true);
+    iter.setIndent("  ");
+    assertThat(iter.next()).isEqualTo("  abc");
+    assertThat(iter.next()).isEqualTo("  de\u001b[1;31mfg");
+    assertThat(iter.next()).isEqualTo("  \u001b[1;31mh");
+    assertThat(iter.next()).isEqualTo("  \u001b[1;31mijk\u001b[0m");
+    assertThat(iter.next()).isEqualTo("  lmn");
+    assertThat(iter.hasNext()).isFalse();
+  }
+
+  @Test
+  void testNext_ansiEscapes_hyperlink() {
+    var open = "\u001b]8;;https://example.com/\u001b\\";
+    var close = "\u001b]8;;\u001b\\";
+    var text = "see " + open + "the docs" + close + " here";
+    var iter = new LineIter(text, 8);
+    iter.setAnsiEscapes(true);
+    assertThat(iter.next()).isEqualTo("see " + open + "the");
+    assertThat(iter.next()).isEqualTo(open + "docs" + close);
+    assertThat(iter.next()).isEqualTo("here");
+    assertThat(iter.hasNext()).isFalse();
+  }
+
+  @Test
+  void testNext_ansiEscapes_notSplit() {
+    var text = "abcd\u001b[38;2;255;128;0mefgh\u001b[m";
+    var iter = new LineIter(text, 4);
+    iter.setAnsiEscapes(true);
+    assertThat(iter.next()).isEqualTo("abcd\u001b[38;2;255;128;0m");
+    assertThat(iter.next()).isEqualTo("\u001b[38;2;255;128;0mefgh\u001b[m");
+    assertThat(iter.hasNext()).isFalse();
+
+    text = "\u001b[31m\nabc\n\u001b[0m";
+    iter.init(text);
+    assertThat(iter.next()).isEqualTo("\u001b[31m");
+    assertThat(iter.next()).isEqualTo("\u001b[31mabc");
+    assertThat(iter.next()).isEqualTo("\u001b[0m");
+    assertThat(iter.hasNext()).isFalse();
+  }
+
+  @Test
+  void testNext_ansiEscapes_sameLinesAsStripped() {
+    String[] words = {
+      "a", "bc", "def", "ghij", " ", " ", "  ", "\u3042", "\u6f22\u5b57",
+      "(", ")", "\"", "e\u0301", "\ud83d\udc4d\ud83c\udffd", "\n",
+      "\u001b[1m", "\u001b[0m", "\u001b[38;5;208m", "\u001b[m",
+      "\u001b]8;;https://example.com/\u0007", "\u001b]8;;\u0007",
+    };
+    var random = new java.util.Random(24);
+    for (int n = 0; n < 2000; n++) {
+      var sb = new StringBuilder();
+      int len = random.nextInt(40);
+      for (int i = 0; i < len; i++) {
+        sb.append(words[random.nextInt(words.length)]);
+      }
+      var text = sb.toString();
+      int width = 4 + random.nextInt(16);
+
+      var iter1 = new LineIter(strip(text), width);
+      var iter2 = new LineIter(text, width);
+      iter2.setAnsiEscapes(true);
+      var iter3 = LineIter.fromReader(new java.io.StringReader(text), width);
+      iter3.setAnsiEscapes(true);
+      while (iter1.hasNext()) {
+        assertThat(iter2.hasNext()).isTrue();
+        var line = iter2.next();
+        assertThat(strip(line)).as(text).isEqualTo(iter1.next());
+        assertThat(iter3.next()).isEqualTo(line);
+      }
+      assertThat(iter2.hasNext()).isFalse();
+      assertThat(iter3.hasNext()).isFalse();
+    }
+  }
+
+  String strip(String text) {
+    return text.replaceAll("\u001b(\\[[0-9;]*m|\\][^\u0007]*\u0007)", "");
+  }
+
+  @Test
+  void testInit_reader() {
+    var iter = new LineIter("abc", 12);
+    assertThat(iter.next()).isEqualTo("abc");
+    assertThat(iter.hasNext()).isFalse();
+
+    iter.initReader(new java.io.StringReader("12345678901234567890"));
+
+    assertThat(iter.hasNext()).isTrue();
+    assertThat(iter.next()).isEqualTo("123456789012");
+    assertThat(iter.hasNext()).isTrue();
+    assertThat(iter.next()).isEqualTo("34567890");
+    assertThat(iter.hasNext()).isFalse();
+
+    iter.init("def");
+    assertThat(iter.hasNext()).isTrue();
+    assertThat(iter.next()).isEqualTo("def");
+    assertThat(iter.hasNext()).isFalse();
+  }
+
+  @Test
+  void testLines() {
+    var lines = LineIter.lines(longText, 20).toList();
+    var iter = new LineIter(longText, 20);
+    for (var line : lines) {
+      assertThat(iter.hasNext()).isTrue();
+      assertThat(line).isEqualTo(iter.next());
+    }
+    assertThat(iter.hasNext()).isFalse();
+
+    assertThat(LineIter.lines("", 20).toList()).containsExactly("");
+    assertThat(LineIter.lines(null, 20).toList()).containsExactly("");
+    assertThat(LineIter.lines("a\n", 20).toList()).containsExactly("a", "");
+  }
+
+  @Test
+  void testLines_parallel() {
+    var r = new java.util.Random(1);
+    var words = new String[]{
+      "abc ", "defgh ", "\"ij kl\" ", "'mn' ", "(op) ", "あいう", "、", "\n",
+      "\r\n", "\n\n", "  ",
+    };
+    var sb = new StringBuilder();
+    for (int i = 0; i < 20000; i++) {
+      sb.append(words[r.nextInt(words.length)]);
+    }
+    var text = sb.toString();
+
+    for (int width = 6; width < 50; width += 11) {
+      var iter = new LineIter(text, width);
+      iter.setIndent("> ");
+      var expected = new java.util.ArrayList<String>();
+      while (iter.hasNext()) {
+        expected.add(iter.next());
+      }
+      assertThat(LineIter.lines(text, width, "> ").parallel().toList())
+        .isEqualTo(expected);
+      assertThat(LineIter.lines(text, width, "> ").toList())
+        .isEqualTo(expected);
+    }
+  }
+
   @Test
   void testContains() {
     final int a = "a".codePointAt(0);
@@ -0,0 +1,188 @@
+package com.github.sttk.linebreak;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.fail;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+@SuppressWarnings("missing-explicit-ctor")
+public class LineProcessorTest {
+
+  List<String> expected(String text, int width) {
+    var iter = new LineIter(text, width);
+    var lines = new ArrayList<String>();
+    while (iter.hasNext()) {
+      lines.add(iter.next());
+    }
+    return lines;
+  }
+
+  // publishes the chunks synchronously, counting the requested chunks.
+  static class ChunkPublisher implements Flow.Publisher<CharSequence> {
+    final List<String> chunks;
+    int index;
+    long requested;
+    boolean cancelled;
+
+    ChunkPublisher(List<String> chunks) {
+      this.chunks = chunks;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super CharSequence> s) {
+      s.onSubscribe(new Flow.Subscription() {
+        @Override public void request(long n) {
+          requested += n;
+          while (n-- > 0 && !cancelled) {
+            if (index < chunks.size()) {
+              s.onNext(chunks.get(index++));
+            }
+            if (index >= chunks.size()) {
+              s.onComplete();
+              return;
+            }
+          }
+        }
+        @Override public void cancel() {
+          cancelled = true;
+        }
+      });
+    }
+  }
+
+  static class Collector implements Flow.Subscriber<String> {
+    final List<String> lines = new ArrayList<>();
+    Flow.Subscription subscription;
+    Throwable error;
+    boolean completed;
+
+    @Override public void onSubscribe(Flow.Subscription s) {
+      this.subscription = s;
+    }
+    @Override public void onNext(String line) {
+      this.lines.add(line);
+    }
+    @Override public void onError(Throwable t) {
+      this.error = t;
+    }
+    @Override public void onComplete() {
+      this.completed = true;
+    }
+  }
+
+  @Test
+  void testRequest_respectDemand() {
+    var publisher = new ChunkPublisher(List.of(
+      "abc def ghi ", "jkl mno pqr stu vwx ", "yz\n", "abc"));
+    var processor = new LineProcessor(8);
+    var collector = new Collector();
+    publisher.subscribe(processor);
+    processor.subscribe(collector);
+
+    assertThat(publisher.requested).isEqualTo(0);
+
+    collector.subscription.request(1);
+    assertThat(collector.lines).containsExactly("abc def");
+    assertThat(publisher.requested).isEqualTo(1);
+
+    collector.subscription.request(2);
+    assertThat(collector.lines).containsExactly("abc def", "ghi jkl", "mno pqr");
+    assertThat(publisher.requested).isEqualTo(2);
+
+    collector.subscription.request(Long.MAX_VALUE);
+    collector.subscription.request(Long.MAX_VALUE);
+    assertThat(collector.lines).containsExactly(
+      "abc def", "ghi jkl", "mno pqr", "stu vwx", "yz", "abc");
+    assertThat(collector.completed).isTrue();
+    assertThat(collector.error).isNull();
+  }
+
+  @Test
+  void testCancel() {
+    var publisher = new ChunkPublisher(List.of("abc def ghi jkl", "mno"));
+    var processor = new LineProcessor(8);
+    var collector = new Collector();
+    publisher.subscribe(processor);
+    processor.subscribe(collector);
+
+    collector.subscription.request(1);
+    collector.subscription.cancel();
+    collector.subscription.request(10);
+    assertThat(collector.lines).containsExactly("abc def");
+    assertThat(publisher.cancelled).isTrue();
+    assertThat(collector.completed).isFalse();
+  }
+
+  @Test
+  void testRequest_nonPositive() {
+    var publisher = new ChunkPublisher(List.of("abc def ghi jkl"));
+    var processor = new LineProcessor(8);
+    var collector = new Collector();
+    publisher.subscribe(processor);
+    processor.subscribe(collector);
+
+    collector.subscription.request(0);
+    assertThat(collector.error).isInstanceOf(IllegalArgumentException.class);
+    assertThat(publisher.cancelled).isTrue();
+  }
+
+  @Test
+  void testSubscribe_twice() {
+    var processor = new LineProcessor(8);
+    var first = new Collector();
+    var second = new Collector();
+    processor.subscribe(first);
+    processor.subscribe(second);
+    assertThat(first.error).isNull();
+    assertThat(second.error).isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void testAsync_sameAsLineIter() throws Exception {
+    var text = "Java is a programming language and computing platform. " +
+      "東アジアの全角文字は基本的に、文字の前後どちらに行の終わりが来ても改行が" +
+      "行われます。\nabc def \" ghi j ' kl mno pq' rst uvw\" xyz 😊😊😊\n";
+    var sb = new StringBuilder();
+    for (int i = 0; i < 50; i++) {
+      sb.append(text);
+    }
+    var all = sb.toString();
+
+    var latch = new CountDownLatch(1);
+    var lines = new ArrayList<String>();
+    var processor = new LineProcessor(20);
+    processor.subscribe(new Flow.Subscriber<String>() {
+      Flow.Subscription s;
+      @Override public void onSubscribe(Flow.Subscription s) {
+        this.s = s;
+        s.request(1);
+      }
+      @Override public void onNext(String line) {
+        lines.add(line);
+        s.request(1);
+      }
+      @Override public void onError(Throwable t) {
+        latch.countDown();
+      }
+      @Override public void onComplete() {
+        latch.countDown();
+      }
+    });
+
+    try (var publisher = new SubmissionPublisher<CharSequence>()) {
+      publisher.subscribe(processor);
+      for (int i = 0; i < all.length(); i += 13) {
+        publisher.submit(all.substring(i, Math.min(i + 13, all.length())));
+      }
+    }
+
+    assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(lines).isEqualTo(expected(all, 20));
+  }
+}
@@ -0,0 +1,84 @@
+package com.github.sttk.linebreak;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.fail;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+@SuppressWarnings("missing-explicit-ctor")
+public class MappedFileWrapperTest {
+
+  final String text = "Java is a programming language and computing platform " +
+    "first released by Sun Microsystems in 1995.\n東アジアの全角文字は基本的に、" +
+    "文字の前後どちらに行の終わりが来ても改行が行われます。\n\n" +
+    "abc def \" ghi j ' kl mno pq' rst uvw\" xyz 😊😊😊 é";
+
+  String expected(int width, String indent) {
+    var iter = new LineIter(text, width);
+    iter.setIndent(indent);
+    var lines = new ArrayList<String>();
+    while (iter.hasNext()) {
+      lines.add(iter.next());
+    }
+    return String.join("\n", lines);
+  }
+
+  @Test
+  void testWrap(@TempDir Path dir) throws IOException {
+    var file = dir.resolve("input.txt");
+    Files.writeString(file, text, StandardCharsets.UTF_8);
+
+    var out = new ByteArrayOutputStream();
+    long n = MappedFileWrapper.wrap(file, Channels.newChannel(out), 20);
+
+    var result = out.toString(StandardCharsets.UTF_8);
+    assertThat(result).isEqualTo(expected(20, ""));
+    assertThat(n).isEqualTo(result.split("\n", -1).length);
+  }
+
+  @Test
+  void testWrap_withIndentAndSmallWindows(@TempDir Path dir) throws IOException {
+    var file = dir.resolve("input.txt");
+    Files.writeString(file, text, StandardCharsets.UTF_8);
+
+    for (int window = 4; window < 12; window++) {
+      var out = new ByteArrayOutputStream();
+      MappedFileWrapper.wrap(file, Channels.newChannel(out), 16, "  ", window);
+      assertThat(out.toString(StandardCharsets.UTF_8))
+        .isEqualTo(expected(16, "  "));
+    }
+  }
+
+  @Test
+  void testWrap_emptyFile(@TempDir Path dir) throws IOException {
+    var file = dir.resolve("empty.txt");
+    Files.createFile(file);
+
+    var out = new ByteArrayOutputStream();
+    long n = MappedFileWrapper.wrap(file, Channels.newChannel(out), 20);
+    assertThat(out.size()).isEqualTo(0);
+    assertThat(n).isEqualTo(1);
+  }
+
+  @Test
+  void testWrap_fileNotFound(@TempDir Path dir) {
+    try {
+      MappedFileWrapper.wrap(dir.resolve("none.txt"),
+        Channels.newChannel(new ByteArrayOutputStream()), 20);
+      fail();
+    } catch (NoSuchFileException e) {
+      assertThat(e).isNotNull();
+    } catch (IOException e) {
+      fail(e);
+    }
+  }
+}
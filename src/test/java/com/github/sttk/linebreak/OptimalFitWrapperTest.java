@@ -0,0 +1,169 @@
+package com.github.sttk.linebreak;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+@SuppressWarnings("missing-explicit-ctor")
+public class OptimalFitWrapperTest {
+
+  static final String[] WORDS = {
+    "a", "an", "the", "word", "lines", "break", "optimal", "paragraph",
+    "minimum,", "raggedness.", "(note)", "\"quoted\"", "it's", "吾輩は",
+    "猫である。", "名前は", "まだ無い。", "😀", "👩‍💻", "é", "x-y/z",
+  };
+
+  String randomText(Random random, int words) {
+    var sb = new StringBuilder();
+    for (int i = 0; i < words; i++) {
+      if (i > 0) {
+        sb.append(random.nextInt(8) == 0 ? "  " : " ");
+      }
+      sb.append(WORDS[random.nextInt(WORDS.length)]);
+    }
+    return sb.toString();
+  }
+
+  String strip(List<String> lines) {
+    return String.join("", lines).replaceAll("\\s", "");
+  }
+
+  long cost(List<String> lines, int lineWidth) {
+    long cost = 0;
+    for (int i = 0; i < lines.size() - 1; i++) {
+      long d = lineWidth - Unicode.getTextWidth(lines.get(i));
+      cost += d * d;
+    }
+    return cost;
+  }
+
+  long quadraticCost(OptimalFitWrapper wrapper) {
+    int m = wrapper.breakCount;
+    var costs = new long[m];
+    for (int j = 1; j < m; j++) {
+      costs[j] = OptimalFitWrapper.INFEASIBLE;
+      for (int i = 0; i < j; i++) {
+        long c = wrapper.cost(i, j);
+        if (c == OptimalFitWrapper.INFEASIBLE) {
+          continue;
+        }
+        if (j == m - 1) {
+          c = 0;
+        }
+        costs[j] = Math.min(costs[j], costs[i] + c);
+      }
+    }
+    return costs[m - 1];
+  }
+
+  @Test
+  void testWrap_minimumRaggedness() {
+    assertThat(OptimalFitWrapper.wrap("aaa bb cc ddddd", 6))
+      .containsExactly("aaa", "bb cc", "ddddd");
+    assertThat(new LineBreaker(6).wrap("aaa bb cc ddddd"))
+      .containsExactly("aaa bb", "cc", "ddddd");
+  }
+
+  @Test
+  void testWrap_fitsInOneLine() {
+    assertThat(OptimalFitWrapper.wrap("aaa bb cc", 20))
+      .containsExactly("aaa bb cc");
+    assertThat(OptimalFitWrapper.wrap("  aaa   bb  ", 20))
+      .containsExactly("aaa   bb");
+  }
+
+  @Test
+  void testWrap_emptyAndLineBreaks() {
+    assertThat(OptimalFitWrapper.wrap("", 10)).containsExactly("");
+    assertThat(OptimalFitWrapper.wrap(null, 10)).containsExactly("");
+    assertThat(OptimalFitWrapper.wrap("   ", 10)).containsExactly("");
+    assertThat(OptimalFitWrapper.wrap("abc\n", 10)).containsExactly("abc", "");
+    assertThat(OptimalFitWrapper.wrap("a\r\nb", 10))
+      .containsExactly("a", "", "b");
+    assertThat(OptimalFitWrapper.wrap("aaa bb cc ddddd\n\naaa bb cc ddddd", 6))
+      .containsExactly("aaa", "bb cc", "ddddd", "", "aaa", "bb cc", "ddddd");
+  }
+
+  @Test
+  void testWrap_indent() {
+    assertThat(OptimalFitWrapper.wrap("aaa bb cc ddddd", 9, "..."))
+      .containsExactly("...aaa", "...bb cc", "...ddddd");
+    assertThat(OptimalFitWrapper.wrap("a\n\nb", 9, "..."))
+      .containsExactly("...a", "", "...b");
+  }
+
+  @Test
+  void testWrap_longWord() {
+    assertThat(OptimalFitWrapper.wrap("supercalifragilistic is long", 6))
+      .containsExactly("superc", "alifra", "gilist", "ic is", "long");
+    var e = "e\u0301";
+    assertThat(OptimalFitWrapper.wrap("ab " + e.repeat(7) + " cd", 5))
+      .containsExactly("ab", e.repeat(5), e.repeat(2) + " cd");
+    assertThat(OptimalFitWrapper.wrap("😀😀", 1))
+      .containsExactly("😀", "😀");
+  }
+
+  @Test
+  void testWrap_combiningMarks() {
+    var text = "ééé éé é";
+    assertThat(OptimalFitWrapper.wrap(text, 5))
+      .containsExactly("ééé", "éé é");
+  }
+
+  @Test
+  void testWrap_kinsoku() {
+    var text = "吾輩は猫である。名前はまだ無い。どこで生れたかとんと見当がつかぬ。";
+    var lines = OptimalFitWrapper.wrap(text, 16);
+    assertThat(String.join("", lines)).isEqualTo(text);
+    for (var line : lines) {
+      assertThat(Unicode.getTextWidth(line)).isLessThanOrEqualTo(16);
+      assertThat(line).doesNotStartWith("。");
+    }
+    assertThat(cost(lines, 16))
+      .isLessThanOrEqualTo(cost(new LineBreaker(16).wrap(text), 16));
+  }
+
+  @Test
+  void testWrap_randomNoWorseThanGreedy() {
+    var random = new Random(25);
+    for (int n = 0; n < 500; n++) {
+      var text = randomText(random, 1 + random.nextInt(60));
+      int width = 8 + random.nextInt(30);
+      var lines = OptimalFitWrapper.wrap(text, width);
+      var greedy = new LineBreaker(width).wrap(text);
+
+      assertThat(strip(lines)).as(text).isEqualTo(strip(greedy));
+      for (var line : lines) {
+        assertThat(Unicode.getTextWidth(line)).as(text).isLessThanOrEqualTo(width);
+      }
+      assertThat(cost(lines, width)).as(text)
+        .isLessThanOrEqualTo(cost(greedy, width));
+    }
+  }
+
+  @Test
+  void testOptimize_sameAsQuadratic() {
+    var random = new Random(2025);
+    for (int n = 0; n < 500; n++) {
+      var text = randomText(random, 1 + random.nextInt(80));
+      int limit = 1 + random.nextInt(40);
+      var wrapper = new OptimalFitWrapper(limit, null, 16);
+      wrapper.scan(text, 0);
+      wrapper.optimize();
+      assertThat(wrapper.costs[wrapper.breakCount - 1]).as(text + " " + limit)
+        .isEqualTo(quadraticCost(wrapper));
+    }
+  }
+
+  @Test
+  void testWrap_longParagraph() {
+    var text = randomText(new Random(10000), 10000);
+    var lines = OptimalFitWrapper.wrap(text, 80);
+    assertThat(strip(lines)).isEqualTo(text.replaceAll("\\s", ""));
+    for (var line : lines) {
+      assertThat(Unicode.getTextWidth(line)).isLessThanOrEqualTo(80);
+    }
+  }
+}
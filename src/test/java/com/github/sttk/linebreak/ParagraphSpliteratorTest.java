@@ -0,0 +1,65 @@
+package com.github.sttk.linebreak;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.fail;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Spliterator;
+
+@SuppressWarnings("missing-explicit-ctor")
+public class ParagraphSpliteratorTest {
+
+  @Test
+  void testTrySplit_noLineBreak() {
+    var sp = new ParagraphSpliterator("abc def ghi", 5, "");
+    assertThat(sp.trySplit()).isNull();
+
+    var lines = new ArrayList<String>();
+    sp.forEachRemaining(lines::add);
+    assertThat(lines).containsExactly("abc", "def", "ghi");
+  }
+
+  @Test
+  void testTrySplit_atLineBreak() {
+    var sp = new ParagraphSpliterator("abc def\nghi jkl\nmno", 5, "");
+    var prefix = sp.trySplit();
+    assertThat(prefix).isNotNull();
+
+    var lines1 = new ArrayList<String>();
+    prefix.forEachRemaining(lines1::add);
+    assertThat(lines1).containsExactly("abc", "def", "ghi", "jkl");
+
+    var lines2 = new ArrayList<String>();
+    sp.forEachRemaining(lines2::add);
+    assertThat(lines2).containsExactly("mno");
+  }
+
+  @Test
+  void testTrySplit_lineBreakAtEnd() {
+    var sp = new ParagraphSpliterator("abc\n", 5, "");
+    var prefix = sp.trySplit();
+    assertThat(prefix).isNull();
+
+    var lines = new ArrayList<String>();
+    sp.forEachRemaining(lines::add);
+    assertThat(lines).containsExactly("abc", "");
+  }
+
+  @Test
+  void testTrySplit_afterAdvance() {
+    var sp = new ParagraphSpliterator("abc\ndef", 5, "");
+    assertThat(sp.tryAdvance(line -> assertThat(line).isEqualTo("abc"))).isTrue();
+    assertThat(sp.trySplit()).isNull();
+    assertThat(sp.tryAdvance(line -> assertThat(line).isEqualTo("def"))).isTrue();
+    assertThat(sp.tryAdvance(line -> fail())).isFalse();
+  }
+
+  @Test
+  void testCharacteristics() {
+    var sp = new ParagraphSpliterator("", 5, "");
+    assertThat(sp.hasCharacteristics(Spliterator.ORDERED)).isTrue();
+    assertThat(sp.hasCharacteristics(Spliterator.NONNULL)).isTrue();
+    assertThat(sp.hasCharacteristics(Spliterator.SIZED)).isFalse();
+  }
+}
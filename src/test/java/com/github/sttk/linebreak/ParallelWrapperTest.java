@@ -0,0 +1,106 @@
+package com.github.sttk.linebreak;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.fail;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+@SuppressWarnings("missing-explicit-ctor")
+public class ParallelWrapperTest {
+
+  List<String> sequential(String text, int width, String indent) {
+    var iter = new LineIter(text, width);
+    iter.setIndent(indent);
+    var lines = new ArrayList<String>();
+    while (iter.hasNext()) {
+      lines.add(iter.next());
+    }
+    return lines;
+  }
+
+  String randomText(Random r, String[] words, int count) {
+    var sb = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      sb.append(words[r.nextInt(words.length)]);
+    }
+    return sb.toString();
+  }
+
+  @Test
+  void testWrap_emptyAndNull() {
+    assertThat(ParallelWrapper.wrap("", 20)).containsExactly("");
+    assertThat(ParallelWrapper.wrap(null, 20)).containsExactly("");
+  }
+
+  @Test
+  void testWrap_shortTextIsSequential() {
+    var text = "abc def ghi jkl mno pqr";
+    assertThat(ParallelWrapper.wrap(text, 8)).isEqualTo(sequential(text, 8, ""));
+  }
+
+  @Test
+  void testWrap_words() {
+    var r = new Random(1);
+    var words = new String[]{
+      "lorem ", "ipsum ", "dolor ", "sit ", "amet, ", "(consectetur) ",
+      "\"adipiscing\" ", "'elit' ", "東アジアの", "全角文字は、", "😊", "  ",
+    };
+    var text = randomText(r, words, 5000);
+
+    for (int width = 7; width < 60; width += 13) {
+      for (var indent : new String[]{"", "   "}) {
+        for (int n = 2; n <= 8; n += 3) {
+          assertThat(ParallelWrapper.wrap(text, width, indent, n, 64))
+            .isEqualTo(sequential(text, width, indent));
+        }
+      }
+    }
+  }
+
+  @Test
+  void testWrap_noLineBreakOpportunity() {
+    var r = new Random(2);
+    var sb = new StringBuilder();
+    var chars = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+    for (int i = 0; i < 20000; i++) {
+      sb.append(chars.charAt(r.nextInt(chars.length())));
+    }
+    var text = sb.toString();
+
+    for (int width = 10; width < 100; width += 29) {
+      assertThat(ParallelWrapper.wrap(text, width, "", 4, 64))
+        .isEqualTo(sequential(text, width, ""));
+    }
+  }
+
+  @Test
+  void testWrap_quotesAcrossChunks() {
+    var r = new Random(3);
+    var words = new String[]{
+      "ab ", "\"cd ", "ef\" ", "'gh ", "ij' ", "klmnopqrstu", "あいう",
+    };
+    var text = randomText(r, words, 3000);
+
+    for (int width = 5; width < 40; width += 7) {
+      assertThat(ParallelWrapper.wrap(text, width, "", 6, 32))
+        .isEqualTo(sequential(text, width, ""));
+    }
+  }
+
+  @Test
+  void testSplitPoints() {
+    var text = "a".repeat(1000);
+    assertThat(ParallelWrapper.splitPoints(text, 30, 1, 10)).containsExactly(0);
+    assertThat(ParallelWrapper.splitPoints(text, 30, 4, 10))
+      .containsExactly(0, 270, 540, 810);
+    assertThat(ParallelWrapper.splitPoints(text, 30, 4, 600)).containsExactly(0);
+
+    var emoji = "😊".repeat(100);
+    for (int p : ParallelWrapper.splitPoints(emoji, 3, 7, 1)) {
+      assertThat(Character.isLowSurrogate(emoji.charAt(p))).isFalse();
+    }
+  }
+}
@@ -0,0 +1,117 @@
+package com.github.sttk.linebreak;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.fail;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+
+@SuppressWarnings("missing-explicit-ctor")
+public class ReaderCodepointScannerTest {
+
+  static class OneCharReader extends Reader {
+    private final String text;
+    private int index;
+
+    OneCharReader(String text) {
+      this.text = text;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) {
+      if (this.index >= this.text.length()) {
+        return -1;
+      }
+      cbuf[off] = this.text.charAt(this.index++);
+      return 1;
+    }
+
+    @Override
+    public void close() {}
+  }
+
+  @Test
+  void testConstructor_null() {
+    var scanner = new ReaderCodepointScanner(null);
+    assertThat(scanner.hasNext()).isFalse();
+    try {
+      scanner.next();
+      fail();
+    } catch (IndexOutOfBoundsException e) {
+      assertThat(e).isNotNull();
+    }
+  }
+
+  @Test
+  void testNext_asciiChars() {
+    var scanner = new ReaderCodepointScanner(new StringReader("ab12"), 2);
+    assertThat(scanner.hasNext()).isTrue();
+    assertThat(scanner.next()).isEqualTo(0x61);
+    assertThat(scanner.hasNext()).isTrue();
+    assertThat(scanner.next()).isEqualTo(0x62);
+    assertThat(scanner.hasNext()).isTrue();
+    assertThat(scanner.next()).isEqualTo(0x31);
+    assertThat(scanner.hasNext()).isTrue();
+    assertThat(scanner.next()).isEqualTo(0x32);
+    assertThat(scanner.hasNext()).isFalse();
+  }
+
+  @Test
+  void testNext_surrogatePairSplitBetweenReads() {
+    var scanner = new ReaderCodepointScanner(new OneCharReader("a😊b😊"), 2);
+    assertThat(scanner.hasNext()).isTrue();
+    assertThat(scanner.next()).isEqualTo(0x61);
+    assertThat(scanner.hasNext()).isTrue();
+    assertThat(scanner.next()).isEqualTo(0x1f60a);
+    assertThat(scanner.hasNext()).isTrue();
+    assertThat(scanner.next()).isEqualTo(0x62);
+    assertThat(scanner.hasNext()).isTrue();
+    assertThat(scanner.next()).isEqualTo(0x1f60a);
+    assertThat(scanner.hasNext()).isFalse();
+  }
+
+  @Test
+  void testNext_loneHighSurrogateAtEnd() {
+    var scanner = new ReaderCodepointScanner(new OneCharReader("a\ud83d"), 2);
+    assertThat(scanner.hasNext()).isTrue();
+    assertThat(scanner.next()).isEqualTo(0x61);
+    assertThat(scanner.hasNext()).isTrue();
+    assertThat(scanner.next()).isEqualTo(0xd83d);
+    assertThat(scanner.hasNext()).isFalse();
+  }
+
+  @Test
+  void testSetReader_reset() {
+    var scanner = new ReaderCodepointScanner(new StringReader("ab"), 4);
+    assertThat(scanner.next()).isEqualTo(0x61);
+
+    scanner.setReader(new StringReader("cd"));
+    assertThat(scanner.hasNext()).isTrue();
+    assertThat(scanner.next()).isEqualTo(0x63);
+    assertThat(scanner.hasNext()).isTrue();
+    assertThat(scanner.next()).isEqualTo(0x64);
+    assertThat(scanner.hasNext()).isFalse();
+  }
+
+  @Test
+  void testNext_ioException() {
+    var reader = new Reader() {
+      @Override
+      public int read(char[] cbuf, int off, int len) throws IOException {
+        throw new IOException("fail");
+      }
+      @Override
+      public void close() {}
+    };
+    var scanner = new ReaderCodepointScanner(reader);
+    try {
+      scanner.hasNext();
+      fail();
+    } catch (UncheckedIOException e) {
+      assertThat(e.getCause()).hasMessage("fail");
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package com.github.sttk.linebreak;
+
+/**
+ * Measures the time to the first wrapped line of a freshly started process.
+ *
+ * This must be run in a new process, on a JVM or as a native image built by
+ * the {@code native} profile ({@code target/linebreak-startup}), because the
+ * first call is the one that initializes the Unicode tables.
+ * If a limit in milliseconds is given as the first argument, this exits with
+ * status 1 when the time to the first wrapped line exceeds it.
+ */
+public final class StartupBenchmark {
+
+  static final String TEXT =
+    "Lorem ipsum dolor sit amet, 吾輩は猫である。名前はまだ無い。";
+
+  private StartupBenchmark() {}
+
+  public static void main(String[] args) {
+    long start = System.nanoTime();
+    var iter = new LineIter(TEXT, 20);
+    String line = iter.next();
+    long end = System.nanoTime();
+    double firstLineMs = (end - start) / 1e6;
+
+    System.out.printf("first wrapped line: %.3f ms%n", firstLineMs);
+    System.out.printf("  [%s]%n", line);
+
+    if (args.length > 0 && firstLineMs > Double.parseDouble(args[0])) {
+      System.out.printf("exceeds the limit: %s ms%n", args[0]);
+      System.exit(1);
+    }
+  }
+}
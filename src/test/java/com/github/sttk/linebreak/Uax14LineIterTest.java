@@ -0,0 +1,102 @@
+package com.github.sttk.linebreak;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.fail;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@SuppressWarnings("missing-explicit-ctor")
+public class Uax14LineIterTest {
+
+  List<String> lines(Uax14LineIter iter) {
+    var lines = new ArrayList<String>();
+    while (iter.hasNext()) {
+      lines.add(iter.next());
+    }
+    return lines;
+  }
+
+  @Test
+  void testNext_empty() {
+    var iter = new Uax14LineIter("", 20);
+    assertThat(lines(iter)).containsExactly("");
+
+    iter = new Uax14LineIter(null, 20);
+    assertThat(lines(iter)).containsExactly("");
+  }
+
+  @Test
+  void testNext_english() {
+    var text = "Java is a programming language and computing platform first " +
+      "released by Sun Microsystems in 1995.";
+    var iter = new Uax14LineIter(text, 20);
+    assertThat(lines(iter)).containsExactly(
+      "Java is a",
+      "programming language",
+      "and computing",
+      "platform first",
+      "released by Sun",
+      "Microsystems in",
+      "1995.");
+  }
+
+  @Test
+  void testNext_noBreakBeforeClosePunctuation() {
+    var iter = new Uax14LineIter("abc (defgh ijk) lm, 12.345 !", 12);
+    assertThat(lines(iter)).containsExactly("abc (defgh", "ijk) lm,", "12.345 !");
+  }
+
+  @Test
+  void testNext_japanese() {
+    var text = "東アジアの全角文字は基本的に、文字の前後どちらに行の終わりが来ても" +
+      "改行が行われます。";
+    var iter = new Uax14LineIter(text, 20);
+    assertThat(lines(iter)).containsExactly(
+      "東アジアの全角文字は",
+      "基本的に、文字の前後",
+      "どちらに行の終わりが",
+      "来ても改行が行われま",
+      "す。");
+  }
+
+  @Test
+  void testNext_forcedBreak() {
+    var iter = new Uax14LineIter("aaaaaaaaaaaaaaa bb", 6);
+    assertThat(lines(iter)).containsExactly("aaaaaa", "aaaaaa", "aaa bb");
+  }
+
+  @Test
+  void testNext_graphemeClusters() {
+    var iter = new Uax14LineIter("cafe\u0301 👍🏽 🇯🇵🇺🇸🇬🇧", 7);
+    assertThat(lines(iter)).containsExactly("cafe\u0301 👍🏽", "🇯🇵🇺🇸🇬🇧");
+
+    iter = new Uax14LineIter("cafe\u0301 👍🏽 🇯🇵🇺🇸🇬🇧", 5);
+    assertThat(lines(iter)).containsExactly("cafe\u0301", "👍🏽 🇯🇵", "🇺🇸🇬🇧");
+
+    iter = new Uax14LineIter("abc\u263a\ufe0fd", 4);
+    assertThat(lines(iter)).containsExactly("abc", "\u263a\ufe0fd");
+  }
+
+  @Test
+  void testNext_mandatoryBreaks() {
+    var iter = new Uax14LineIter("abc def\r\nghi\n\n  jkl  \rmno ", 10);
+    assertThat(lines(iter)).containsExactly("abc def", "ghi", "", "jkl", "mno", "");
+  }
+
+  @Test
+  void testSetIndent() {
+    var iter = new Uax14LineIter("abc def ghi\n\njkl", 9);
+    iter.setIndent("  ");
+    assertThat(lines(iter)).containsExactly("  abc def", "  ghi", "", "  jkl");
+  }
+
+  @Test
+  void testInit() {
+    var iter = new Uax14LineIter("abc def", 4);
+    assertThat(lines(iter)).containsExactly("abc", "def");
+    iter.init("ghi jkl mno");
+    assertThat(lines(iter)).containsExactly("ghi", "jkl", "mno");
+  }
+}
@@ -0,0 +1,143 @@
+package com.github.sttk.linebreak;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.fail;
+import org.junit.jupiter.api.Test;
+
+import com.ibm.icu.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+@SuppressWarnings("missing-explicit-ctor")
+public class Uax14Test {
+
+  List<Integer> icuBreaks(String text) {
+    var bi = BreakIterator.getLineInstance(Locale.ROOT);
+    bi.setText(text);
+    var list = new ArrayList<Integer>();
+    for (int p = bi.next(); p != BreakIterator.DONE; p = bi.next()) {
+      list.add(p);
+    }
+    return list;
+  }
+
+  List<Integer> breaks(String text) {
+    var list = new ArrayList<Integer>();
+    for (int p : Uax14.breakOpportunities(text)) {
+      list.add(p);
+    }
+    if (list.isEmpty() || list.get(list.size() - 1) != text.length()) {
+      list.add(text.length());
+    }
+    return list;
+  }
+
+  @Test
+  void testClassOf() {
+    assertThat(Uax14.classOf('a')).isEqualTo(Uax14.AL);
+    assertThat(Uax14.classOf(' ')).isEqualTo(Uax14.SP);
+    assertThat(Uax14.classOf('(')).isEqualTo(Uax14.OP);
+    assertThat(Uax14.classOf(0xff08)).isEqualTo(Uax14.OW); // （
+    assertThat(Uax14.classOf(')')).isEqualTo(Uax14.CP);
+    assertThat(Uax14.classOf('"')).isEqualTo(Uax14.QU);
+    assertThat(Uax14.classOf(0xab)).isEqualTo(Uax14.QI); // «
+    assertThat(Uax14.classOf(0xbb)).isEqualTo(Uax14.QF); // »
+    assertThat(Uax14.classOf(0x3041)).isEqualTo(Uax14.NS); // ぁ (CJ)
+    assertThat(Uax14.classOf(0x3042)).isEqualTo(Uax14.ID); // あ
+    assertThat(Uax14.classOf(0x0e01)).isEqualTo(Uax14.AL); // ก (SA)
+    assertThat(Uax14.classOf(0x0e31)).isEqualTo(Uax14.CM); // ั (SA, Mn)
+    assertThat(Uax14.classOf(0x0a)).isEqualTo(Uax14.LF);
+    assertThat(Uax14.classOf(0x2028)).isEqualTo(Uax14.BK);
+    assertThat(Uax14.classOf(-1)).isEqualTo(Uax14.AL);
+    assertThat(Uax14.classOf(0x110000)).isEqualTo(Uax14.AL);
+  }
+
+  @Test
+  void testPair() {
+    assertThat(Uax14.pair(Uax14.AL, Uax14.AL)).isEqualTo(Uax14.INDIRECT);
+    assertThat(Uax14.pair(Uax14.AL, Uax14.ID)).isEqualTo(Uax14.DIRECT);
+    assertThat(Uax14.pair(Uax14.ID, Uax14.ID)).isEqualTo(Uax14.DIRECT);
+    assertThat(Uax14.pair(Uax14.AL, Uax14.CL)).isEqualTo(Uax14.PROHIBITED);
+    assertThat(Uax14.pair(Uax14.OP, Uax14.AL)).isEqualTo(Uax14.PROHIBITED);
+    assertThat(Uax14.pair(Uax14.AL, Uax14.BA)).isEqualTo(Uax14.INDIRECT);
+    assertThat(Uax14.pair(Uax14.B2, Uax14.B2)).isEqualTo(Uax14.PROHIBITED);
+    assertThat(Uax14.pair(Uax14.ZW, Uax14.AL)).isEqualTo(Uax14.DIRECT);
+  }
+
+  @Test
+  void testBreakOpportunities_sameAsIcu() {
+    String[] texts = {
+      "The quick (\"brown\") fox can't jump 32.3 feet, right? $100.00 or 50% off!",
+      "東アジアの全角文字は基本的に、文字の前後どちらに行の終わりが来ても改行が" +
+        "行われます。「括弧」（テスト）",
+      "e.g. http://example.com/path?x=1 - a-b -- c; d: e/f [g] {h} 1,000.5 −3",
+      "🇯🇵🇺🇸🇬🇧 👍🏽 👨‍👩‍👧 a​b c⁠d",
+      "한국어 문장은 띄어쓰기로 구분됩니다. 가나다라마바사",
+      "שלום-עולם abc-def אב־גד",
+      "Ａｂｃ　ｄｅｆ（ｇ）",
+      "\"Hello,\" she said. 'Yes' (no) x) (y «z» ¿que?",
+      " a", "   leading spaces", " ́b", "\u3000あ",
+      " .", " )", " \u2060x", "  !a", " \u200bx",
+      "-b", " -b", "x -b -1 a-b --b", "\u200b-b",
+      "a\n-b", "-\u0301b", "(-b)",
+    };
+    for (var text : texts) {
+      assertThat(breaks(text)).as(text).isEqualTo(icuBreaks(text));
+    }
+  }
+
+  @Test
+  void testBreakOpportunities_mandatory() {
+    assertThat(Uax14.breakOpportunities("ab\r\ncd\ref\ngh i"))
+      .containsExactly(4, 7, 10, 13);
+  }
+
+  @Test
+  void testBreakOpportunities_leadingSpaces() {
+    assertThat(Uax14.breakOpportunities(" a")).containsExactly(1);
+    assertThat(Uax14.breakOpportunities("  ab c")).containsExactly(2, 5);
+    assertThat(Uax14.breakOpportunities("a\n b")).containsExactly(2, 3);
+  }
+
+  @Test
+  void testBreakOpportunities_prohibitedAfterLeadingSpaces() {
+    // LB7, LB11 and LB13 take precedence over LB18.
+    assertThat(Uax14.breakOpportunities(" .")).isEmpty();
+    assertThat(Uax14.breakOpportunities(" )")).isEmpty();
+    assertThat(Uax14.breakOpportunities(" \u2060x")).isEmpty();
+    assertThat(Uax14.breakOpportunities(" \u200bx")).containsExactly(2);
+    assertThat(Uax14.breakOpportunities("  !a")).containsExactly(3);
+  }
+
+  @Test
+  void testBreakOpportunities_wordInitialHyphen() {
+    // LB20a
+    assertThat(Uax14.breakOpportunities("-b")).isEmpty();
+    assertThat(Uax14.breakOpportunities("a -b")).containsExactly(2);
+    assertThat(Uax14.breakOpportunities("a\u200b-b")).containsExactly(2);
+    assertThat(Uax14.breakOpportunities("a\n-b")).containsExactly(2);
+    assertThat(Uax14.breakOpportunities("-\u0301b")).isEmpty();
+    // ICU4J 75 breaks after the hyphens of these, by LB20a of Unicode 15.1.
+    assertThat(Uax14.breakOpportunities("-\u05d0")).isEmpty();
+    assertThat(Uax14.breakOpportunities("a\u00a0-b")).isEmpty();
+    // not word-initial
+    assertThat(Uax14.breakOpportunities("a-b")).containsExactly(2);
+    assertThat(Uax14.breakOpportunities("--b")).containsExactly(2);
+    assertThat(Uax14.breakOpportunities("-1")).isEmpty();
+  }
+
+  @Test
+  void testBreakOpportunities_combiningMarks() {
+    // a CM after a space is treated as AL.
+    assertThat(Uax14.breakOpportunities("a ́b")).containsExactly(2);
+    // a CM is attached to the preceding character.
+    assertThat(Uax14.breakOpportunities("あ゙あ")).containsExactly(2);
+  }
+
+  @Test
+  void testBreakOpportunities_regionalIndicators() {
+    String flags = "🇯🇵🇺🇸🇬🇧";
+    assertThat(Uax14.breakOpportunities(flags)).containsExactly(4, 8);
+  }
+}
@@ -0,0 +1,156 @@
+package com.github.sttk.linebreak;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.fail;
+import org.junit.jupiter.api.Test;
+
+import com.ibm.icu.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+@SuppressWarnings("missing-explicit-ctor")
+public class Uax29Test {
+
+  List<Integer> icuBoundaries(String text) {
+    var bi = BreakIterator.getCharacterInstance(Locale.ROOT);
+    bi.setText(text);
+    var list = new ArrayList<Integer>();
+    for (int p = bi.next(); p != BreakIterator.DONE; p = bi.next()) {
+      list.add(p);
+    }
+    return list;
+  }
+
+  List<Integer> boundaries(String text) {
+    var list = new ArrayList<Integer>();
+    for (int p : Uax29.clusterBoundaries(text)) {
+      list.add(p);
+    }
+    return list;
+  }
+
+  int width(String text) {
+    var state = new Uax29.State();
+    int w = 0;
+    for (int i = 0; i < text.length(); ) {
+      int cp = text.codePointAt(i);
+      w += Uax29.width(state.step(cp, Unicode.getCodepointWidth(cp)));
+      i += Character.charCount(cp);
+    }
+    return w;
+  }
+
+  @Test
+  void testPropsOf() {
+    assertThat(Uax29.propsOf('a')).isEqualTo(Uax29.OTHER);
+    assertThat(Uax29.gcb(Uax29.propsOf('\r'))).isEqualTo(Uax29.CR);
+    assertThat(Uax29.gcb(Uax29.propsOf('\n'))).isEqualTo(Uax29.LF);
+    assertThat(Uax29.gcb(Uax29.propsOf(0x0301))).isEqualTo(Uax29.EXTEND);
+    assertThat(Uax29.gcb(Uax29.propsOf(0xff9e))).isEqualTo(Uax29.EXTEND_SPACING);
+    assertThat(Uax29.gcb(Uax29.propsOf(0x200d))).isEqualTo(Uax29.ZWJ);
+    assertThat(Uax29.gcb(Uax29.propsOf(0x1f1ef))).isEqualTo(Uax29.RI);
+    assertThat(Uax29.gcb(Uax29.propsOf(0x1100))).isEqualTo(Uax29.L);
+    assertThat(Uax29.gcb(Uax29.propsOf(0xac00))).isEqualTo(Uax29.LV);
+    assertThat(Uax29.isExtPict(Uax29.propsOf(0x1f60a))).isTrue();
+    assertThat(Uax29.isExtPict(Uax29.propsOf(0xa9))).isTrue();
+    assertThat(Uax29.incb(Uax29.propsOf(0x0915))).isEqualTo(Uax29.INCB_CONSONANT);
+    assertThat(Uax29.incb(Uax29.propsOf(0x094d))).isEqualTo(Uax29.INCB_LINKER);
+    assertThat(Uax29.incb(Uax29.propsOf(0x200d))).isEqualTo(Uax29.INCB_EXTEND);
+    assertThat(Uax29.propsOf(-1)).isEqualTo(Uax29.OTHER);
+    assertThat(Uax29.propsOf(0x110000)).isEqualTo(Uax29.OTHER);
+  }
+
+  @Test
+  void testClusterBoundaries_sameAsIcu() {
+    String[] texts = {
+      "abc\r\nd\n\re",
+      "é ạ̈ ́x",
+      "🇯🇵🇺🇸🇬🇧🇫 👍🏽 👨‍👩‍👧 ❤️ ☺︎ 1️⃣ #️⃣ 🏴󠁧󠁢󠁥󠁮󠁧󠁿",
+      "한국어 각 ᄀ가 각",
+      "क्षत्रिय क्‍ष नमस्ते ন্দ্র",
+      "؀123 ؀ a‍b ©‍😊",
+      "ｶﾞｷﾞ が",
+    };
+    for (var text : texts) {
+      assertThat(boundaries(text)).as(text).isEqualTo(icuBoundaries(text));
+    }
+  }
+
+  @Test
+  void testClusterBoundaries_randomSameAsIcu() {
+    // some codepoints of each distinct property value.
+    var map = new LinkedHashMap<Integer, List<Integer>>();
+    for (int cp = 0; cp <= UnicodeData.MAX_CODEPOINT; cp++) {
+      if (Character.getType(cp) == Character.SURROGATE) {
+        continue;
+      }
+      var list = map.computeIfAbsent(Uax29.propsOf(cp), k -> new ArrayList<>());
+      if (list.size() < 8 || cp % 97 == 0) {
+        list.add(cp);
+      }
+    }
+    var pools = new ArrayList<>(map.values());
+
+    var random = new Random(29);
+    for (int n = 0; n < 20000; n++) {
+      var sb = new StringBuilder();
+      int len = 1 + random.nextInt(12);
+      for (int i = 0; i < len; i++) {
+        var pool = pools.get(random.nextInt(pools.size()));
+        sb.appendCodePoint(pool.get(random.nextInt(pool.size())));
+      }
+      var text = sb.toString();
+      if (!boundaries(text).equals(icuBoundaries(text))) {
+        fail(text.codePoints()
+          .mapToObj(Integer::toHexString).toList().toString());
+      }
+    }
+  }
+
+  @Test
+  void testClusterBoundaries_empty() {
+    assertThat(Uax29.clusterBoundaries("")).isEmpty();
+  }
+
+  @Test
+  void testStep_width() {
+    assertThat(width("abc")).isEqualTo(3);
+    assertThat(width("é")).isEqualTo(1);
+    assertThat(width("😊")).isEqualTo(2);
+    assertThat(width("👍🏽")).isEqualTo(2);
+    assertThat(width("👨‍👩‍👧")).isEqualTo(2);
+    assertThat(width("🇯🇵")).isEqualTo(2);
+    assertThat(width("🇯🇵🇺🇸")).isEqualTo(4);
+    assertThat(width("☺")).isEqualTo(1);
+    assertThat(width("☺️")).isEqualTo(2);
+    assertThat(width("1️⃣")).isEqualTo(2);
+    assertThat(width("🏴󠁧󠁢󠁥󠁮󠁧󠁿")).isEqualTo(2);
+    assertThat(width("각")).isEqualTo(2);
+    assertThat(width("각")).isEqualTo(2);
+    assertThat(width("ｶﾞ")).isEqualTo(2);
+    assertThat(width("が")).isEqualTo(2);
+  }
+
+  @Test
+  void testStep_boundaryAndAddedWidth() {
+    var state = new Uax29.State();
+    int r = state.step(0x263a, 1); // ☺
+    assertThat(Uax29.isBoundary(r)).isTrue();
+    assertThat(Uax29.width(r)).isEqualTo(1);
+    r = state.step(0xfe0f, 2); // VS16
+    assertThat(Uax29.isBoundary(r)).isFalse();
+    assertThat(Uax29.width(r)).isEqualTo(1);
+    r = state.step('a', 1);
+    assertThat(Uax29.isBoundary(r)).isTrue();
+    assertThat(Uax29.width(r)).isEqualTo(1);
+    r = state.step(0xfe0f, 2); // VS16 after a non-emoji
+    assertThat(Uax29.isBoundary(r)).isFalse();
+    assertThat(Uax29.width(r)).isEqualTo(0);
+
+    state.reset();
+    assertThat(Uax29.isBoundary(state.step(0x0301, 2))).isTrue();
+  }
+}
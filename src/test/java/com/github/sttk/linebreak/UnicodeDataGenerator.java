@@ -0,0 +1,292 @@
+package com.github.sttk.linebreak;
+
+import static com.github.sttk.linebreak.UnicodeData.BLOCK_SHIFT;
+import static com.github.sttk.linebreak.UnicodeData.BLOCK_SIZE;
+import static com.github.sttk.linebreak.UnicodeData.MAX_CODEPOINT;
+
+import com.github.sttk.linebreak.UnicodeData.Table;
+import com.ibm.icu.lang.CharacterProperties;
+import com.ibm.icu.lang.UCharacter;
+import com.ibm.icu.lang.UCharacter.EastAsianWidth;
+import com.ibm.icu.lang.UCharacter.GraphemeClusterBreak;
+import com.ibm.icu.lang.UCharacter.IndicSyllabicCategory;
+import com.ibm.icu.lang.UCharacter.LineBreak;
+import com.ibm.icu.lang.UProperty;
+import com.ibm.icu.lang.UScript;
+import com.ibm.icu.util.CodePointMap;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.function.IntUnaryOperator;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Generates the resource of {@link UnicodeData} from the Unicode properties
+ * of ICU4J.
+ *
+ * This is run by the {@code unicode-data} profile:
+ * {@code mvn -P unicode-data process-test-classes}.
+ */
+public final class UnicodeDataGenerator {
+
+  static final String DEFAULT_OUTPUT =
+    "src/main/resources/com/github/sttk/linebreak/" + UnicodeData.RESOURCE;
+
+  private UnicodeDataGenerator() {}
+
+  public static void main(String[] args) throws IOException {
+    var path = Path.of(args.length > 0 ? args[0] : DEFAULT_OUTPUT);
+    Files.createDirectories(path.getParent());
+    Files.write(path, generate());
+  }
+
+  static byte[] generate() throws IOException {
+    CodePointMap eaw =
+      CharacterProperties.getIntPropertyMap(UProperty.EAST_ASIAN_WIDTH);
+    CodePointMap lb = CharacterProperties.getIntPropertyMap(UProperty.LINE_BREAK);
+    CodePointMap gcb = CharacterProperties.getIntPropertyMap(
+      UProperty.GRAPHEME_CLUSTER_BREAK);
+
+    var bytes = new ByteArrayOutputStream();
+    try (var out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+      out.writeInt(UnicodeData.MAGIC);
+      out.writeInt(UnicodeData.VERSION);
+      writeTable(buildTable(cp -> computeProps(cp, eaw.get(cp))), out);
+      writeTable(buildTable(cp -> eaw.get(cp)), out);
+      writeTable(buildTable(cp ->
+        resolveLineBreakClass(cp, lb.get(cp), eaw.get(cp))), out);
+      writeTable(buildTable(cp -> computeGrapheme(cp, gcb.get(cp))), out);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Builds a table of the values computed by the specified function for all
+   * codepoints, in which identical blocks of the second stage are shared.
+   */
+  static Table buildTable(IntUnaryOperator fn) {
+    var index = new char[(MAX_CODEPOINT + 1) >> BLOCK_SHIFT];
+    var blocks = new HashMap<ByteBuffer, Integer>();
+    var data = new byte[BLOCK_SIZE * 64];
+    int count = 0;
+
+    for (int i = 0; i < index.length; i++) {
+      var block = new byte[BLOCK_SIZE];
+      int base = i << BLOCK_SHIFT;
+      for (int j = 0; j < BLOCK_SIZE; j++) {
+        block[j] = (byte) fn.applyAsInt(base + j);
+      }
+
+      Integer n = blocks.get(ByteBuffer.wrap(block));
+      if (n == null) {
+        n = count++;
+        if (count * BLOCK_SIZE > data.length) {
+          data = Arrays.copyOf(data, data.length * 2);
+        }
+        System.arraycopy(block, 0, data, n << BLOCK_SHIFT, BLOCK_SIZE);
+        blocks.put(ByteBuffer.wrap(block), n);
+      }
+      index[i] = (char) n.intValue();
+    }
+
+    return new Table(index, Arrays.copyOf(data, count * BLOCK_SIZE));
+  }
+
+  /**
+   * Writes the specified table in the format read by
+   * {@code Table.read}.
+   */
+  static void writeTable(Table table, DataOutputStream out) throws IOException {
+    out.writeInt(table.stage1.length);
+    for (char c : table.stage1) {
+      out.writeChar(c);
+    }
+    out.writeInt(table.stage2.length);
+    out.write(table.stage2);
+  }
+
+  static byte computeProps(int codepoint, int eaw) {
+    boolean space = computeIsSpace(codepoint);
+
+    int width = 0;
+    if (Unicode.isPrint(codepoint)) {
+      width = switch (eaw) {
+        case EastAsianWidth.NARROW,
+             EastAsianWidth.HALFWIDTH,
+             EastAsianWidth.NEUTRAL -> 1;
+        default /* WIDE, FULLWIDTH, AMBIGUOUS */ -> 2;
+      };
+    }
+
+    LineIter.LboType lbo;
+    if (contains(LboRule.Breaks, codepoint)) {
+      lbo = LineIter.LboType.Break;
+    } else if (contains(LboRule.Befores, codepoint)) {
+      lbo = LineIter.LboType.Before;
+    } else if (contains(LboRule.Afters, codepoint)) {
+      lbo = LineIter.LboType.After;
+    } else if (space) {
+      lbo = LineIter.LboType.Space;
+    } else if (eaw == EastAsianWidth.WIDE || eaw == EastAsianWidth.FULLWIDTH) {
+      lbo = LineIter.LboType.Both;
+    } else {
+      lbo = LineIter.LboType.Never;
+    }
+
+    int props = width | (lbo.ordinal() << CodepointTable.LBO_SHIFT);
+    if (space) {
+      props |= CodepointTable.SPACE_FLAG;
+    }
+    if (codepoint == 0x22 || codepoint == 0x27) {
+      props |= CodepointTable.QUOTE_FLAG;
+    }
+    int gcb = UCharacter.getIntPropertyValue(codepoint,
+      UProperty.GRAPHEME_CLUSTER_BREAK);
+    if (computeGrapheme(codepoint, gcb) != Uax29.OTHER) {
+      props |= CodepointTable.GRAPHEME_FLAG;
+    }
+    return (byte) props;
+  }
+
+  static boolean computeIsSpace(int codepoint) {
+    if (0x09 <= codepoint && codepoint <= 0x0d) {
+      return true;
+    }
+    return switch (codepoint) {
+      case 0x20, 0x85 -> true;
+      default -> switch (Character.getType(codepoint)) {
+        case Character.SPACE_SEPARATOR,
+             Character.LINE_SEPARATOR,
+             Character.PARAGRAPH_SEPARATOR -> true;
+        default -> false;
+      };
+    };
+  }
+
+  // LB1: AI, SG and XX are resolved into AL, SA into CM or AL, and CJ into NS.
+  static int resolveLineBreakClass(int codepoint, int lb, int eaw) {
+    boolean eastAsian = (eaw == EastAsianWidth.FULLWIDTH ||
+      eaw == EastAsianWidth.WIDE || eaw == EastAsianWidth.HALFWIDTH);
+    return switch (lb) {
+      case LineBreak.OPEN_PUNCTUATION -> eastAsian ? Uax14.OW : Uax14.OP;
+      case LineBreak.CLOSE_PUNCTUATION -> Uax14.CL;
+      case LineBreak.CLOSE_PARENTHESIS -> eastAsian ? Uax14.CW : Uax14.CP;
+      case LineBreak.QUOTATION -> switch (UCharacter.getType(codepoint)) {
+        case UCharacter.INITIAL_PUNCTUATION -> Uax14.QI;
+        case UCharacter.FINAL_PUNCTUATION -> Uax14.QF;
+        default -> Uax14.QU;
+      };
+      case LineBreak.GLUE -> Uax14.GL;
+      case LineBreak.NONSTARTER,
+           LineBreak.CONDITIONAL_JAPANESE_STARTER -> Uax14.NS;
+      case LineBreak.EXCLAMATION -> Uax14.EX;
+      case LineBreak.BREAK_SYMBOLS -> Uax14.SY;
+      case LineBreak.INFIX_NUMERIC -> Uax14.IS;
+      case LineBreak.PREFIX_NUMERIC -> Uax14.PR;
+      case LineBreak.POSTFIX_NUMERIC -> Uax14.PO;
+      case LineBreak.NUMERIC -> Uax14.NU;
+      case LineBreak.HEBREW_LETTER -> Uax14.HL;
+      case LineBreak.IDEOGRAPHIC -> Uax14.ID;
+      case LineBreak.INSEPARABLE -> Uax14.IN;
+      case LineBreak.HYPHEN -> Uax14.HY;
+      case LineBreak.BREAK_AFTER -> Uax14.BA;
+      case LineBreak.BREAK_BEFORE -> Uax14.BB;
+      case LineBreak.BREAK_BOTH -> Uax14.B2;
+      case LineBreak.ZWSPACE -> Uax14.ZW;
+      case LineBreak.COMBINING_MARK -> Uax14.CM;
+      case LineBreak.WORD_JOINER -> Uax14.WJ;
+      case LineBreak.H2 -> Uax14.H2;
+      case LineBreak.H3 -> Uax14.H3;
+      case LineBreak.JL -> Uax14.JL;
+      case LineBreak.JV -> Uax14.JV;
+      case LineBreak.JT -> Uax14.JT;
+      case LineBreak.REGIONAL_INDICATOR -> Uax14.RI;
+      case LineBreak.E_BASE -> Uax14.EB;
+      case LineBreak.E_MODIFIER -> Uax14.EM;
+      case LineBreak.ZWJ -> Uax14.ZWJ;
+      case LineBreak.CONTINGENT_BREAK -> Uax14.CB;
+      case LineBreak.AKSARA -> Uax14.AK;
+      case LineBreak.AKSARA_PREBASE -> Uax14.AP;
+      case LineBreak.AKSARA_START -> Uax14.AS;
+      case LineBreak.VIRAMA_FINAL -> Uax14.VF;
+      case LineBreak.VIRAMA -> Uax14.VI;
+      case LineBreak.SPACE -> Uax14.SP;
+      case LineBreak.MANDATORY_BREAK -> Uax14.BK;
+      case LineBreak.CARRIAGE_RETURN -> Uax14.CR;
+      case LineBreak.LINE_FEED -> Uax14.LF;
+      case LineBreak.NEXT_LINE -> Uax14.NL;
+      case LineBreak.COMPLEX_CONTEXT -> switch (UCharacter.getType(codepoint)) {
+        case UCharacter.NON_SPACING_MARK,
+             UCharacter.COMBINING_SPACING_MARK -> Uax14.CM;
+        default -> Uax14.AL;
+      };
+      default /* AMBIGUOUS, ALPHABETIC, SURROGATE, UNKNOWN */ -> Uax14.AL;
+    };
+  }
+
+  static int computeGrapheme(int codepoint, int gcb) {
+    int props = switch (gcb) {
+      case GraphemeClusterBreak.CR -> Uax29.CR;
+      case GraphemeClusterBreak.LF -> Uax29.LF;
+      case GraphemeClusterBreak.CONTROL -> Uax29.CONTROL;
+      case GraphemeClusterBreak.EXTEND -> switch (UCharacter.getType(codepoint)) {
+        case UCharacter.COMBINING_SPACING_MARK,
+             UCharacter.MODIFIER_LETTER -> Uax29.EXTEND_SPACING;
+        default -> Uax29.EXTEND;
+      };
+      case GraphemeClusterBreak.ZWJ -> Uax29.ZWJ;
+      case GraphemeClusterBreak.REGIONAL_INDICATOR -> Uax29.RI;
+      case GraphemeClusterBreak.PREPEND -> Uax29.PREPEND;
+      case GraphemeClusterBreak.SPACING_MARK -> Uax29.SPACING_MARK;
+      case GraphemeClusterBreak.L -> Uax29.L;
+      case GraphemeClusterBreak.V -> Uax29.V;
+      case GraphemeClusterBreak.T -> Uax29.T;
+      case GraphemeClusterBreak.LV -> Uax29.LV;
+      case GraphemeClusterBreak.LVT -> Uax29.LVT;
+      default -> Uax29.OTHER;
+    };
+    if (UCharacter.hasBinaryProperty(
+        codepoint, UProperty.EXTENDED_PICTOGRAPHIC)) {
+      props |= Uax29.EXT_PICT_FLAG;
+    }
+    props |= computeIndicConjunctBreak(codepoint, gcb) << Uax29.INCB_SHIFT;
+    return props;
+  }
+
+  // Indic_Conjunct_Break is derived as in DerivedCoreProperties.txt of
+  // Unicode 15.1, because ICU4J 75 does not provide it.
+  static int computeIndicConjunctBreak(int codepoint, int gcb) {
+    int insc = UCharacter.getIntPropertyValue(
+      codepoint, UProperty.INDIC_SYLLABIC_CATEGORY);
+    boolean conjunctScript = switch (UScript.getScript(codepoint)) {
+      case UScript.BENGALI, UScript.DEVANAGARI, UScript.GUJARATI,
+           UScript.MALAYALAM, UScript.ORIYA, UScript.TELUGU -> true;
+      default -> false;
+    };
+    if (conjunctScript && insc == IndicSyllabicCategory.VIRAMA) {
+      return Uax29.INCB_LINKER;
+    }
+    if (conjunctScript && insc == IndicSyllabicCategory.CONSONANT) {
+      return Uax29.INCB_CONSONANT;
+    }
+    if (gcb == GraphemeClusterBreak.ZWJ || (gcb == GraphemeClusterBreak.EXTEND &&
+        UCharacter.getCombiningClass(codepoint) != 0)) {
+      return Uax29.INCB_EXTEND;
+    }
+    return Uax29.INCB_NONE;
+  }
+
+  private static boolean contains(int[] candidates, int codepoint) {
+    for (int i = 0; i < candidates.length; i++) {
+      if (candidates[i] == codepoint) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
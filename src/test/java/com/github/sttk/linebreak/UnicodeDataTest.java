@@ -0,0 +1,59 @@
+package com.github.sttk.linebreak;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.fail;
+import org.junit.jupiter.api.Test;
+
+import com.ibm.icu.lang.CharacterProperties;
+import com.ibm.icu.lang.UProperty;
+import com.ibm.icu.util.CodePointMap;
+
+import java.io.InputStream;
+
+@SuppressWarnings("missing-explicit-ctor")
+public class UnicodeDataTest {
+
+  @Test
+  void testResource_isUpToDate() throws Exception {
+    byte[] bytes;
+    try (InputStream in =
+        UnicodeData.class.getResourceAsStream(UnicodeData.RESOURCE)) {
+      bytes = in.readAllBytes();
+    }
+    assertThat(bytes).isEqualTo(UnicodeDataGenerator.generate());
+  }
+
+  @Test
+  void testEastAsianWidth_allCodepoints() {
+    CodePointMap eaw =
+      CharacterProperties.getIntPropertyMap(UProperty.EAST_ASIAN_WIDTH);
+
+    for (int cp = 0; cp <= UnicodeData.MAX_CODEPOINT; cp++) {
+      if (UnicodeData.EAST_ASIAN_WIDTH.get(cp) != eaw.get(cp)) {
+        fail(String.format("codepoint=%x", cp));
+      }
+    }
+  }
+
+  @Test
+  void testLineBreak_allCodepoints() {
+    CodePointMap eaw =
+      CharacterProperties.getIntPropertyMap(UProperty.EAST_ASIAN_WIDTH);
+    CodePointMap lb = CharacterProperties.getIntPropertyMap(UProperty.LINE_BREAK);
+
+    for (int cp = 0; cp <= UnicodeData.MAX_CODEPOINT; cp++) {
+      int cls = UnicodeDataGenerator.resolveLineBreakClass(
+        cp, lb.get(cp), eaw.get(cp));
+      if (UnicodeData.LINE_BREAK.get(cp) != cls) {
+        fail(String.format("codepoint=%x", cp));
+      }
+    }
+  }
+
+  @Test
+  void testGet_outOfRange() {
+    assertThat(UnicodeData.PROPS.get(-1)).isEqualTo(0);
+    assertThat(UnicodeData.PROPS.get(0x110000)).isEqualTo(0);
+    assertThat(UnicodeData.EAST_ASIAN_WIDTH.get(Integer.MAX_VALUE)).isEqualTo(0);
+  }
+}
@@ -148,4 +148,157 @@ public class UnicodeTest {
     assertThat(Unicode.getTextWidth("")).isEqualTo(0);
     assertThat(Unicode.getTextWidth(null)).isEqualTo(0);
   }
+
+  @Test
+  void testGetTextWidth_latin1() {
+    var sb = new StringBuilder();
+    int w = 0;
+    for (int cp = 0; cp < 0x100; cp++) {
+      sb.appendCodePoint(cp).append("あ😊");
+      w += Unicode.getCodepointWidth(cp) + 4;
+    }
+    assertThat(Unicode.getTextWidth(sb.toString())).isEqualTo(w);
+    assertThat(Unicode.getTextWidth("a§b")).isEqualTo(4);
+    assertThat(Unicode.getTextWidth("a\ud83db")).isEqualTo(2);
+  }
+
+  @Test
+  void testGetTextWidth_graphemeClusters() {
+    assertThat(Unicode.getTextWidth("cafe\u0301")).isEqualTo(4);
+    assertThat(Unicode.getTextWidth("👨\u200d👩\u200d👧")).isEqualTo(2);
+    assertThat(Unicode.getTextWidth("👍🏽")).isEqualTo(2);
+    assertThat(Unicode.getTextWidth("🇯🇵🇺🇸")).isEqualTo(4);
+    assertThat(Unicode.getTextWidth("\u263a")).isEqualTo(1);
+    assertThat(Unicode.getTextWidth("\u263a\ufe0f")).isEqualTo(2);
+    assertThat(Unicode.getTextWidth("1\ufe0f\u20e3")).isEqualTo(2);
+    assertThat(Unicode.getTextWidth("\u1100\u1161\u11a8")).isEqualTo(2);
+    assertThat(Unicode.getTextWidth("x\u0600a")).isEqualTo(2);
+
+    var text = "a👨\u200d👩\u200d👧b";
+    assertThat(Unicode.getTextWidth(new StringBuilder(text), 0, text.length()))
+      .isEqualTo(4);
+    assertThat(Unicode.getTextWidths(new CharSequence[]{text, "e\u0301"}))
+      .containsExactly(4, 1);
+  }
+
+  @Test
+  void testGetTextWidth_graphemeClusters_notContinuedAcrossCalls() {
+    assertThat(Unicode.getTextWidth("👨‍")).isEqualTo(2);
+    assertThat(Unicode.getTextWidth("👩")).isEqualTo(2);
+    assertThat(Unicode.getTextWidth("a؀")).isEqualTo(1);
+    assertThat(Unicode.getTextWidth("b")).isEqualTo(1);
+    assertThat(Unicode.getTextWidth("🇯")).isEqualTo(1);
+    assertThat(Unicode.getTextWidth("🇵")).isEqualTo(1);
+
+    assertThat(Unicode.getTextWidths(new CharSequence[]{"👨‍", "👩", "🇯", "🇵"}))
+      .containsExactly(2, 2, 1, 1);
+    assertThat(Unicode.getCumulativeWidths("👨‍"))
+      .containsExactly(0, 0, 2, 2);
+    assertThat(Unicode.getCumulativeWidths("👩"))
+      .containsExactly(0, 0, 2);
+  }
+
+  @Test
+  void testGetTextWidth_range() {
+    var text = "abあい😊c";
+    assertThat(Unicode.getTextWidth(text, 0, text.length())).isEqualTo(9);
+    assertThat(Unicode.getTextWidth(text, 1, 4)).isEqualTo(5);
+    assertThat(Unicode.getTextWidth(text, 4, 6)).isEqualTo(2);
+    assertThat(Unicode.getTextWidth(text, 2, 2)).isEqualTo(0);
+    // a split surrogate pair
+    assertThat(Unicode.getTextWidth(text, 4, 5)).isEqualTo(0);
+    assertThat(Unicode.getTextWidth(text, 5, 7)).isEqualTo(1);
+
+    var sb = new StringBuilder(text);
+    assertThat(Unicode.getTextWidth(sb, 1, 6)).isEqualTo(7);
+    assertThat(Unicode.getTextWidth(sb, 4, 5)).isEqualTo(0);
+
+    assertThat(Unicode.getTextWidth(null, 0, 0)).isEqualTo(0);
+  }
+
+  @Test
+  void testGetTextWidth_range_outOfBounds() {
+    try {
+      Unicode.getTextWidth("abc", 2, 4);
+      fail();
+    } catch (IndexOutOfBoundsException e) {}
+    try {
+      Unicode.getTextWidth("abc", 2, 1);
+      fail();
+    } catch (IndexOutOfBoundsException e) {}
+    try {
+      Unicode.getTextWidth(null, 0, 1);
+      fail();
+    } catch (IndexOutOfBoundsException e) {}
+  }
+
+  @Test
+  void testGetTextWidths() {
+    CharSequence[] texts = {"abc", "あいう", null, new StringBuilder("😊x"), ""};
+    assertThat(Unicode.getTextWidths(texts)).containsExactly(3, 6, 0, 3, 0);
+    assertThat(Unicode.getTextWidths(java.util.Arrays.asList(texts)))
+      .containsExactly(3, 6, 0, 3, 0);
+
+    var widths = new int[]{9, 9, 9, 9, 9, 9};
+    Unicode.getTextWidths(texts, widths);
+    assertThat(widths).containsExactly(3, 6, 0, 3, 0, 9);
+
+    try {
+      Unicode.getTextWidths(texts, new int[4]);
+      fail();
+    } catch (IndexOutOfBoundsException e) {}
+  }
+
+  @Test
+  void testGetCumulativeWidths() {
+    var text = "aあ😊 b";
+    assertThat(Unicode.getCumulativeWidths(text))
+      .containsExactly(0, 1, 3, 3, 5, 6, 7);
+    assertThat(Unicode.getCumulativeWidths(new StringBuilder(text)))
+      .containsExactly(0, 1, 3, 3, 5, 6, 7);
+    assertThat(Unicode.getCumulativeWidths("")).containsExactly(0);
+    assertThat(Unicode.getCumulativeWidths(null)).containsExactly(0);
+
+    var widths = new int[5];
+    Unicode.getCumulativeWidths(text, 1, 4, widths);
+    assertThat(widths).containsExactly(0, 2, 2, 4, 0);
+
+    // a split surrogate pair
+    Unicode.getCumulativeWidths(text, 3, 6, widths);
+    assertThat(widths).containsExactly(0, 0, 1, 2, 0);
+
+    try {
+      Unicode.getCumulativeWidths(text, 1, 4, new int[3]);
+      fail();
+    } catch (IndexOutOfBoundsException e) {}
+  }
+
+  @Test
+  void testGetCumulativeWidths_graphemeClusters() {
+    var text = "e\u0301\u263a\ufe0f🇯🇵";
+    assertThat(Unicode.getCumulativeWidths(text))
+      .containsExactly(0, 1, 1, 2, 3, 3, 4, 4, 5);
+  }
+
+  @Test
+  void testGetCumulativeWidths_sameAsGetTextWidth() {
+    var text = "Lorem ipsum, 吾輩は猫である。😊👍 café\ud83d!";
+    int[] widths = Unicode.getCumulativeWidths(text);
+    for (int a = 0; a <= text.length(); a++) {
+      for (int b = a; b <= text.length(); b++) {
+        if (isSplit(text, a) || isSplit(text, b)) {
+          continue;
+        }
+        assertThat(widths[b] - widths[a])
+          .isEqualTo(Unicode.getTextWidth(text.substring(a, b)))
+          .isEqualTo(Unicode.getTextWidth(text, a, b));
+      }
+    }
+  }
+
+  private static boolean isSplit(String text, int i) {
+    return i > 0 && i < text.length() &&
+      Character.isHighSurrogate(text.charAt(i - 1)) &&
+      Character.isLowSurrogate(text.charAt(i));
+  }
 }
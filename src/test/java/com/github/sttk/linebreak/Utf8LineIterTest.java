@@ -0,0 +1,98 @@
+package com.github.sttk.linebreak;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.fail;
+import org.junit.jupiter.api.Test;
+
+import com.github.sttk.linebreak.LineBoundaryIter.Boundary;
+import com.github.sttk.linebreak.LineBoundaryIter.BreakType;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+@SuppressWarnings("missing-explicit-ctor")
+public class Utf8LineIterTest {
+
+  String decode(ByteBuffer buf) {
+    return StandardCharsets.UTF_8.decode(buf).toString();
+  }
+
+  @Test
+  void testNext_emptyBytes() {
+    var iter = new Utf8LineIter(new byte[0], 20);
+
+    assertThat(iter.hasNext()).isTrue();
+    assertThat(iter.next().remaining()).isEqualTo(0);
+
+    assertThat(iter.hasNext()).isFalse();
+  }
+
+  @Test
+  void testNext_nullBytes() {
+    var iter = new Utf8LineIter((byte[]) null, 20);
+
+    assertThat(iter.hasNext()).isTrue();
+    assertThat(iter.next().remaining()).isEqualTo(0);
+
+    assertThat(iter.hasNext()).isFalse();
+  }
+
+  @Test
+  void testNext_sameLinesAsLineIter() {
+    var text = "Java is a programming language and computing platform first " +
+      "released by Sun Microsystems in 1995.\n東アジアの全角文字は基本的に、" +
+      "文字の前後どちらに行の終わりが来ても改行が行われます。\n\n" +
+      "abc def \" ghi j ' kl mno pq' rst uvw\" xyz 😊😊😊 é";
+    var bytes = text.getBytes(StandardCharsets.UTF_8);
+
+    for (int width = 5; width < 40; width++) {
+      var lineIter = new LineIter(text, width);
+      var utf8Iter = new Utf8LineIter(bytes, width);
+      lineIter.setIndent("  ");
+      utf8Iter.setIndent("  ");
+
+      while (lineIter.hasNext()) {
+        assertThat(utf8Iter.hasNext()).isTrue();
+        var line = lineIter.next();
+        var s = decode(utf8Iter.next());
+        assertThat(line).isEqualTo(s.isEmpty() ? "" : "  " + s);
+      }
+      assertThat(utf8Iter.hasNext()).isFalse();
+    }
+  }
+
+  @Test
+  void testNextBoundary() {
+    var bytes = "aé あい\nう".getBytes(StandardCharsets.UTF_8);
+    var iter = new Utf8LineIter(bytes, 5);
+
+    assertThat(iter.hasNext()).isTrue();
+    assertThat(iter.nextBoundary())
+      .isEqualTo(new Boundary(0, 4, 3, BreakType.Soft));
+
+    assertThat(iter.hasNext()).isTrue();
+    assertThat(iter.nextBoundary())
+      .isEqualTo(new Boundary(4, 10, 10, BreakType.Hard));
+
+    assertThat(iter.hasNext()).isTrue();
+    assertThat(iter.nextBoundary())
+      .isEqualTo(new Boundary(11, 14, 14, BreakType.End));
+
+    assertThat(iter.hasNext()).isFalse();
+  }
+
+  @Test
+  void testInit_bufferWithPosition() {
+    var iter = new Utf8LineIter("xyz".getBytes(StandardCharsets.UTF_8), 20);
+    assertThat(decode(iter.next())).isEqualTo("xyz");
+    assertThat(iter.hasNext()).isFalse();
+
+    var buf = ByteBuffer.wrap("--abc def--".getBytes(StandardCharsets.UTF_8));
+    buf.position(2).limit(9);
+    iter.init(buf);
+
+    assertThat(iter.hasNext()).isTrue();
+    assertThat(decode(iter.next())).isEqualTo("abc def");
+    assertThat(iter.hasNext()).isFalse();
+    assertThat(buf.position()).isEqualTo(2);
+  }
+}
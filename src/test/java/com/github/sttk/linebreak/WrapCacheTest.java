@@ -0,0 +1,99 @@
+package com.github.sttk.linebreak;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.fail;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@SuppressWarnings("missing-explicit-ctor")
+public class WrapCacheTest {
+
+  List<String> expected(String text, int width, String indent) {
+    var iter = new LineIter(text, width);
+    iter.setIndent(indent);
+    var lines = new ArrayList<String>();
+    while (iter.hasNext()) {
+      lines.add(iter.next());
+    }
+    return lines;
+  }
+
+  final String text = "Java is a programming language and computing platform.\n" +
+    "東アジアの全角文字は基本的に、文字の前後どちらに行の終わりが来ても改行が" +
+    "行われます。\r\n\n" +
+    "abc def \" ghi j ' kl mno pq' rst uvw\" xyz\n";
+
+  @Test
+  void testWrap_sameAsLineIter() {
+    var cache = new WrapCache(1 << 20);
+
+    for (int width = 5; width < 40; width += 3) {
+      assertThat(cache.wrap(text, width, "  ")).isEqualTo(expected(text, width, "  "));
+      assertThat(cache.wrap(text, width, "  ")).isEqualTo(expected(text, width, "  "));
+    }
+    assertThat(cache.wrap("", 10)).isEqualTo(expected("", 10, ""));
+    assertThat(cache.wrap(null, 10)).isEqualTo(expected("", 10, ""));
+  }
+
+  @Test
+  void testWrap_hitAndMissCounts() {
+    var cache = new WrapCache(1 << 20);
+
+    // paragraphs: "abc def", "ghi", ""
+    cache.wrap("abc def\nghi\n", 5);
+    assertThat(cache.getHitCount()).isEqualTo(0);
+    assertThat(cache.getMissCount()).isEqualTo(3);
+    assertThat(cache.size()).isEqualTo(3);
+
+    // only the second paragraph is changed.
+    assertThat(cache.wrap("abc def\nxyz\n", 5)).containsExactly("abc", "def", "xyz", "");
+    assertThat(cache.getHitCount()).isEqualTo(2);
+    assertThat(cache.getMissCount()).isEqualTo(4);
+    assertThat(cache.size()).isEqualTo(4);
+
+    // another width and another indentation are other keys.
+    cache.wrap("abc def", 10);
+    cache.wrap("abc def", 5, " ");
+    assertThat(cache.getHitCount()).isEqualTo(2);
+    assertThat(cache.getMissCount()).isEqualTo(6);
+
+    cache.clear();
+    assertThat(cache.size()).isEqualTo(0);
+    assertThat(cache.charCount()).isEqualTo(0);
+    assertThat(cache.getHitCount()).isEqualTo(0);
+    assertThat(cache.getMissCount()).isEqualTo(0);
+  }
+
+  @Test
+  void testWrap_evictLeastRecentlyUsed() {
+    // each paragraph takes 6 chars: 3 for the paragraph, 3 for the line.
+    var cache = new WrapCache(12);
+
+    cache.wrap("aaa", 5);
+    cache.wrap("bbb", 5);
+    assertThat(cache.size()).isEqualTo(2);
+    assertThat(cache.charCount()).isEqualTo(12);
+
+    cache.wrap("aaa", 5); // aaa becomes the most recently used.
+    cache.wrap("ccc", 5); // bbb is evicted.
+    assertThat(cache.size()).isEqualTo(2);
+    assertThat(cache.charCount()).isEqualTo(12);
+
+    long misses = cache.getMissCount();
+    cache.wrap("aaa", 5);
+    assertThat(cache.getMissCount()).isEqualTo(misses);
+    cache.wrap("bbb", 5);
+    assertThat(cache.getMissCount()).isEqualTo(misses + 1);
+  }
+
+  @Test
+  void testWrap_paragraphLargerThanMaxSize() {
+    var cache = new WrapCache(4);
+    assertThat(cache.wrap("abcdef", 3)).containsExactly("abc", "def");
+    assertThat(cache.size()).isEqualTo(1);
+    assertThat(cache.wrap("xyz", 3)).containsExactly("xyz");
+    assertThat(cache.size()).isEqualTo(1);
+  }
+}
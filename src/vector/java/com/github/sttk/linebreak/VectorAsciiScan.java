@@ -0,0 +1,100 @@
+/*
+ * VectorAsciiScan class.
+ * Copyright (C) 2024 Takayuki Sato. All Rights Reserved.
+ */
+package com.github.sttk.linebreak;
+
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@code VectorAsciiScan} is the {@link AsciiScan} implementation which scans
+ * the characters with the Vector API of the incubator module
+ * {@code jdk.incubator.vector}.
+ *
+ * This class is built only with the {@code vector} profile, and is used only
+ * if the module is added at runtime by
+ * {@code --add-modules jdk.incubator.vector}.
+ * A vector of characters is compared with the space and the printable ASCII
+ * characters which stop a run in the rule set, so a rule set which has too
+ * many of such characters falls back to the scalar implementation.
+ */
+final class VectorAsciiScan extends AsciiScan {
+
+  private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED;
+
+  static final int MAX_STOPS = 16;
+
+  private final short[] stops;
+
+  private VectorAsciiScan(byte[] latin1, short[] stops) {
+    super(latin1);
+    this.stops = stops;
+  }
+
+  /**
+   * Creates a {@code VectorAsciiScan} instance, or returns null if the rule
+   * set has too many printable ASCII characters which stop a run.
+   * This method is called by {@link AsciiScan#of(byte[])} reflectively.
+   */
+  static AsciiScan of(byte[] latin1) {
+    var stops = new short[MAX_STOPS];
+    int n = 0;
+    for (int ch = 0x21; ch < 0x7f; ch++) {
+      if (!CodepointTable.isPlain(latin1[ch])) {
+        if (n >= MAX_STOPS) {
+          return null;
+        }
+        stops[n++] = (short) ch;
+      }
+    }
+    return new VectorAsciiScan(latin1, java.util.Arrays.copyOf(stops, n));
+  }
+
+  @Override
+  long scan(String text, int from, int to, char[] work) {
+    final int vlen = SPECIES.length();
+
+    // Most runs in a text, e.g. words, are short, so the first characters are
+    // scanned by the scalar implementation.
+    int head = Math.min(to, from + vlen);
+    long r = super.scan(text, from, head, work);
+    if (end(r) < head || head == to) {
+      return r;
+    }
+
+    final short[] stops = this.stops;
+    int lastSpace = lastSpace(r);
+    int i = head;
+    for (; i + vlen <= to; i += vlen) {
+      text.getChars(i, i + vlen, work, 0);
+      var v = ShortVector.fromCharArray(SPECIES, work, 0);
+      // chars over 0x7fff are negative, so they are less than 0x20.
+      VectorMask<Short> stop = v.compare(VectorOperators.LT, (short) 0x20)
+        .or(v.compare(VectorOperators.GT, (short) 0x7e));
+      for (short s : stops) {
+        stop = stop.or(v.compare(VectorOperators.EQ, s));
+      }
+      var space = v.compare(VectorOperators.EQ, (short) ' ');
+      if (stop.anyTrue()) {
+        int k = stop.firstTrue();
+        space = space.and(SPECIES.indexInRange(0, k));
+        if (space.anyTrue()) {
+          lastSpace = i + space.lastTrue();
+        }
+        return pack(i + k, lastSpace);
+      }
+      if (space.anyTrue()) {
+        lastSpace = i + space.lastTrue();
+      }
+    }
+
+    r = super.scan(text, i, to, work);
+    if (lastSpace(r) < 0) {
+      r = pack(end(r), lastSpace);
+    }
+    return r;
+  }
+}